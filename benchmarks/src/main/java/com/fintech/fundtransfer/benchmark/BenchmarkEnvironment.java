@@ -0,0 +1,59 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.FundTransferApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the service without its web layer for a benchmark trial. Postgres and Redis come from Testcontainers,
+ * unless {@code DB_HOST} / {@code REDIS_HOST} point at running instances (as in docker-compose and CI).
+ * Containers are started once per forked JVM. Overrides are passed as command-line properties, so they win over
+ * {@code application.properties} and the given profiles.
+ */
+final class BenchmarkEnvironment {
+
+    private static PostgreSQLContainer<?> postgres;
+    private static GenericContainer<?> redis;
+
+    private BenchmarkEnvironment() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+        return start(overrides, new String[0]);
+    }
+
+    static synchronized ConfigurableApplicationContext start(Map<String, Object> overrides, String... profiles) {
+        Map<String, Object> properties = new HashMap<>();
+        if (System.getenv("DB_HOST") == null) {
+            if (postgres == null) {
+                postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+                postgres.start();
+            }
+            properties.put("spring.datasource.url", postgres.getJdbcUrl());
+            properties.put("spring.datasource.username", postgres.getUsername());
+            properties.put("spring.datasource.password", postgres.getPassword());
+        }
+        if (System.getenv("REDIS_HOST") == null) {
+            if (redis == null) {
+                redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+                redis.start();
+            }
+            properties.put("spring.data.redis.host", redis.getHost());
+            properties.put("spring.data.redis.port", redis.getMappedPort(6379));
+        }
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(overrides);
+
+        return new SpringApplicationBuilder(FundTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles)
+                .run(properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.application.dto.BatchTransferResponse;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.BatchTransferService;
+import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the {@code prod} profile against the defaults of {@code application.properties}: more transfer
+ * threads than default pool connections, single transfers and 100-item batches over 1024 wallets. The defaults
+ * log every statement; their output goes to {@code target/<profile>-stdout.log} as a container's stdout would.
+ * Pool wait time and timeouts are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class ConnectionProfileBenchmark {
+
+    private static final Money AMOUNT = Money.parse("0.01");
+    private static final int WALLETS = 1024;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"defaults", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private BatchTransferService batchTransferService;
+    private WalletSelector selector;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup() throws FileNotFoundException {
+        stdout = System.out;
+        System.setOut(new PrintStream(new FileOutputStream("target/" + profile + "-stdout.log"), true));
+        context = profile.equals("prod")
+                ? BenchmarkEnvironment.start(Map.of(), "prod")
+                : BenchmarkEnvironment.start(Map.of("spring.jpa.show-sql", true));
+        transferService = context.getBean(TransferService.class);
+        batchTransferService = context.getBean(BatchTransferService.class);
+        WalletJpaRepository walletRepository = context.getBean(WalletJpaRepository.class);
+
+        context.getBean(TransactionLogJpaRepository.class).deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        List<Wallet> created = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            created.add(Wallet.builder().userId("profile-" + i).balance(Money.parse("1000000000.00")).build());
+        }
+        List<Long> ids = walletRepository.saveAll(created).stream().map(Wallet::getId).toList();
+        selector = WalletSelector.create(WalletSelector.UNIFORM, ids);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        System.out.printf("%n%s: pool of %.0f, connection wait mean %.3f ms, max %.3f ms, %.0f timeouts%n", profile,
+                meterRegistry.get("hikaricp.connections.max").gauge().value(),
+                acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS),
+                meterRegistry.get("hikaricp.connections.timeout").counter().count());
+        context.close();
+    }
+
+    @Benchmark
+    public TransferResponse transfer() {
+        long[] pair = selector.nextPair();
+        return transferService.transferFunds(new TransferRequest(pair[0], pair[1], AMOUNT, UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public BatchTransferResponse batchTransfer() {
+        List<TransferRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long[] pair = selector.nextPair();
+            requests.add(new TransferRequest(pair[0], pair[1], AMOUNT, UUID.randomUUID().toString()));
+        }
+        return batchTransferService.transferBatch(requests);
+    }
+}
@@ -0,0 +1,107 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.service.TransactionLogRetention;
+import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyGuard;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferSnapshot;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The idempotency tiers of a transfer: Redis reservation of a new code, a duplicate answered from Redis, the
+ * local Bloom filter, and the database lookup that remains for codes whose Redis entry has expired.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class IdempotencyBenchmark {
+
+    private static final int COMPLETED_CODES = 1000;
+
+    private ConfigurableApplicationContext context;
+    private IdempotencyGuard idempotencyGuard;
+    private TransactionLogJpaRepository transactionLogRepository;
+    private String[] completedCodes;
+    private Instant windowStart;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkEnvironment.start(Map.of());
+        idempotencyGuard = context.getBean(IdempotencyGuard.class);
+        transactionLogRepository = context.getBean(TransactionLogJpaRepository.class);
+        WalletJpaRepository walletRepository = context.getBean(WalletJpaRepository.class);
+        TransferService transferService = context.getBean(TransferService.class);
+        windowStart = context.getBean(TransactionLogRetention.class).idempotencyWindowStart();
+
+        transactionLogRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        Long source = walletRepository.save(Wallet.builder().userId("bench-src").balance(Money.parse("1000000.00")).build()).getId();
+        Long destination = walletRepository.save(Wallet.builder().userId("bench-dst").balance(Money.ZERO).build()).getId();
+        completedCodes = new String[COMPLETED_CODES];
+        for (int i = 0; i < COMPLETED_CODES; i++) {
+            completedCodes[i] = UUID.randomUUID().toString();
+            transferService.transferFunds(new TransferRequest(source, destination, Money.parse("1.00"), completedCodes[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public IdempotencyReservation reserveNewCode() {
+        String referenceCode = UUID.randomUUID().toString();
+        IdempotencyReservation reservation = idempotencyGuard.reserve(referenceCode);
+        idempotencyGuard.release(referenceCode);
+        return reservation;
+    }
+
+    @Benchmark
+    public IdempotencyReservation reserveCompletedCode() {
+        return idempotencyGuard.reserve(completedCode());
+    }
+
+    @Benchmark
+    public boolean bloomFilterLookup() {
+        return idempotencyGuard.mightHaveCompleted(completedCode());
+    }
+
+    @Benchmark
+    public Optional<TransferSnapshot> databaseLookup() {
+        return transactionLogRepository.findSnapshotByReferenceCode(completedCode(), windowStart);
+    }
+
+    private String completedCode() {
+        return completedCodes[ThreadLocalRandom.current().nextInt(COMPLETED_CODES)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Sorted two-wallet lock acquisition and release through both tiers (local stripes and Redis), per lock strategy
+ * and contention level. Locks do not need the wallets to exist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class LockAcquisitionBenchmark {
+
+    @Param({"multi", "sequential"})
+    public String strategy;
+
+    @Param({WalletSelector.UNIFORM, WalletSelector.ZIPFIAN})
+    public String distribution;
+
+    @Param({"16", "1024"})
+    public int wallets;
+
+    private ConfigurableApplicationContext context;
+    private WalletLockManager lockManager;
+    private WalletSelector selector;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkEnvironment.start(Map.of("fund-transfer.lock.strategy", strategy));
+        lockManager = context.getBean(WalletLockManager.class);
+        List<Long> ids = LongStream.rangeClosed(1, wallets).boxed().toList();
+        selector = WalletSelector.create(distribution, ids);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> acquireAndRelease() {
+        long[] pair = selector.nextPair();
+        // Reversed order on purpose: the manager sorts the IDs
+        try (WalletLocks locks = lockManager.acquire(pair[1], pair[0])) {
+            return locks.getWalletIds();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import com.fintech.fundtransfer.infrastructure.lock.RowLockWaitPolicy;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockMode;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis locks versus database row locks on the scenarios of the deadlock and race integration tests: transfers
+ * in both directions between two wallets, and every thread debiting the same wallet. Reports throughput and,
+ * in sample mode, the latency percentiles (p99). Transfers rejected with a lock failure (only possible with
+ * {@code nowait} and {@code skip-locked}) are counted separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class LockModeBenchmark {
+
+    private static final Money AMOUNT = Money.parse("0.01");
+
+    @Param({"redis", "database-wait", "database-nowait", "database-skip-locked"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private long walletA;
+    private long walletB;
+    private long[] receivers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkEnvironment.start(Map.of());
+        transferService = context.getBean(TransferService.class);
+        WalletJpaRepository walletRepository = context.getBean(WalletJpaRepository.class);
+
+        // Switched the way an operator would at runtime, without restarting the context
+        DatabaseWalletLocker locker = context.getBean(DatabaseWalletLocker.class);
+        if (mode.equals("redis")) {
+            locker.configure(WalletLockMode.REDIS, RowLockWaitPolicy.WAIT, locker.getLockTimeoutMillis());
+        } else {
+            locker.configure(WalletLockMode.DATABASE,
+                    RowLockWaitPolicy.valueOf(mode.substring("database-".length()).toUpperCase().replace('-', '_')),
+                    locker.getLockTimeoutMillis());
+        }
+
+        context.getBean(TransactionLogJpaRepository.class).deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        walletA = walletRepository.save(Wallet.builder().userId("lock-a").balance(Money.parse("1000000000.00")).build()).getId();
+        walletB = walletRepository.save(Wallet.builder().userId("lock-b").balance(Money.parse("1000000000.00")).build()).getId();
+        receivers = new long[64];
+        for (int i = 0; i < receivers.length; i++) {
+            receivers[i] = walletRepository.save(Wallet.builder().userId("lock-r-" + i).balance(Money.ZERO).build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long lockRejected;
+    }
+
+    @Benchmark
+    public TransferResponse mutualTransfers(Outcomes outcomes) {
+        boolean forward = ThreadLocalRandom.current().nextBoolean();
+        return transfer(forward ? walletA : walletB, forward ? walletB : walletA, outcomes);
+    }
+
+    @Benchmark
+    public TransferResponse sameSourceTransfers(Outcomes outcomes) {
+        return transfer(walletA, receivers[ThreadLocalRandom.current().nextInt(receivers.length)], outcomes);
+    }
+
+    private TransferResponse transfer(long source, long destination, Outcomes outcomes) {
+        try {
+            return transferService.transferFunds(new TransferRequest(source, destination, AMOUNT, UUID.randomUUID().toString()));
+        } catch (LockAcquisitionException e) {
+            outcomes.lockRejected++;
+            return null;
+        }
+    }
+}
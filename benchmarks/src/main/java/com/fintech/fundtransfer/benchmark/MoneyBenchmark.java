@@ -0,0 +1,107 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BigDecimal} against {@link Money} for what the transfer paths do with amounts: parse them, add them up
+ * per wallet and print them. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"500"})
+    private int amounts;
+
+    private String[] texts;
+    private BigDecimal[] decimals;
+    private long[] minorUnits;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        texts = new String[amounts];
+        decimals = new BigDecimal[amounts];
+        minorUnits = new long[amounts];
+        for (int i = 0; i < amounts; i++) {
+            minorUnits[i] = random.nextLong(1, 10_000_000);
+            texts[i] = Money.ofMinor(minorUnits[i]).toString();
+            decimals[i] = new BigDecimal(texts[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (String text : texts) {
+            total = total.add(new BigDecimal(text));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parseMoney() {
+        long total = 0;
+        for (String text : texts) {
+            total += Money.parse(text).minorUnits();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int formatBigDecimal() {
+        StringBuilder out = new StringBuilder();
+        for (BigDecimal amount : decimals) {
+            out.setLength(0);
+            out.append(amount.toPlainString());
+        }
+        return out.length();
+    }
+
+    @Benchmark
+    public int formatMoney() {
+        StringBuilder out = new StringBuilder();
+        for (long amount : minorUnits) {
+            out.setLength(0);
+            Money.appendTo(out, amount);
+        }
+        return out.length();
+    }
+}
@@ -0,0 +1,123 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of 50-row transactions at 50 concurrent writers. The same rows go into two tables of the same
+ * shape, one with an {@code IDENTITY} id (one {@code INSERT ... RETURNING id} per row, as Hibernate must issue them)
+ * and one with ids from a sequence incremented by 50 (one {@code nextval} and one JDBC batch per transaction), and
+ * through {@code saveAll} into {@code transaction_logs} itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(50)
+public class TransactionLogInsertBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 50;
+    private static final String COLUMNS = "source_id, destination_id, amount, status, reference_code";
+
+    private ConfigurableApplicationContext context;
+    private TransactionLogJpaRepository transactionLogRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkEnvironment.start(Map.of());
+        transactionLogRepository = context.getBean(TransactionLogJpaRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        transactionLogRepository.deleteAllInBatch();
+        for (String table : List.of("bench_logs_identity", "bench_logs_sequence")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id bigint NOT NULL PRIMARY KEY, source_id bigint NOT NULL,"
+                    + " destination_id bigint NOT NULL, amount bigint NOT NULL, status varchar(255) NOT NULL,"
+                    + " reference_code varchar(255) NOT NULL UNIQUE)");
+        }
+        jdbcTemplate.execute("ALTER TABLE bench_logs_identity ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS bench_logs_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE bench_logs_seq INCREMENT BY " + ROWS_PER_TRANSACTION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE bench_logs_identity");
+        jdbcTemplate.execute("DROP TABLE bench_logs_sequence");
+        jdbcTemplate.execute("DROP SEQUENCE bench_logs_seq");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void identityRowByRow() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                jdbcTemplate.queryForObject("INSERT INTO bench_logs_identity (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)"
+                        + " RETURNING id", Long.class, 1L, 2L, 100L, "SUCCESS", UUID.randomUUID().toString());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void pooledSequenceBatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long firstId = jdbcTemplate.queryForObject("SELECT nextval('bench_logs_seq')", Long.class);
+            List<Object[]> rows = new ArrayList<>(ROWS_PER_TRANSACTION);
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                rows.add(new Object[]{firstId + i, 1L, 2L, 100L, "SUCCESS", UUID.randomUUID().toString()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO bench_logs_sequence (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", rows);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public List<TransactionLog> repositorySaveAll() {
+        return transactionTemplate.execute(status -> transactionLogRepository.saveAll(newLogs()));
+    }
+
+    private static List<TransactionLog> newLogs() {
+        List<TransactionLog> logs = new ArrayList<>(ROWS_PER_TRANSACTION);
+        for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+            logs.add(TransactionLog.builder()
+                    .sourceId(1L)
+                    .destinationId(2L)
+                    .amount(Money.parse("1.00"))
+                    .status(TransactionLog.TransactionStatus.SUCCESS)
+                    .referenceCode(UUID.randomUUID().toString())
+                    .build());
+        }
+        return logs;
+    }
+}
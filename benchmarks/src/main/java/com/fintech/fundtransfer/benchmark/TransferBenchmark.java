@@ -0,0 +1,94 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletTransferResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The transfer against Postgres: the full {@code transferFunds} path (idempotency, locks, transaction) and the
+ * debit/credit statement that {@code executeTransfer} issues, on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class TransferBenchmark {
+
+    private static final Money AMOUNT = Money.parse("0.01");
+
+    @Param({WalletSelector.UNIFORM, WalletSelector.ZIPFIAN})
+    public String distribution;
+
+    @Param({"16", "1024"})
+    public int wallets;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private WalletJpaRepository walletRepository;
+    private TransactionTemplate transactionTemplate;
+    private WalletSelector selector;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkEnvironment.start(Map.of());
+        transferService = context.getBean(TransferService.class);
+        walletRepository = context.getBean(WalletJpaRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        context.getBean(TransactionLogJpaRepository.class).deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        List<Wallet> created = new ArrayList<>();
+        for (int i = 0; i < wallets; i++) {
+            created.add(Wallet.builder().userId("bench-" + i).balance(Money.parse("1000000000.00")).build());
+        }
+        List<Long> ids = walletRepository.saveAll(created).stream().map(Wallet::getId).toList();
+        selector = WalletSelector.create(distribution, ids);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransferResponse transferFunds() {
+        long[] pair = selector.nextPair();
+        return transferService.transferFunds(new TransferRequest(pair[0], pair[1], AMOUNT, UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public WalletTransferResult debitCreditStatement() {
+        long[] pair = selector.nextPair();
+        return transactionTemplate.execute(status -> walletRepository.transfer(pair[0], pair[1], AMOUNT.minorUnits(), 0, 0));
+    }
+}
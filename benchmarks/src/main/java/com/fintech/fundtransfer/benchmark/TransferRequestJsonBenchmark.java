@@ -0,0 +1,88 @@
+package com.fintech.fundtransfer.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialization of the transfer DTOs as the web layer does it, including a 500-item batch body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferRequestJsonBenchmark {
+
+    private static final TypeReference<List<TransferRequest>> BATCH_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TransferRequest request;
+    private TransferResponse response;
+    private String requestJson;
+    private String responseJson;
+    private String batchJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        request = new TransferRequest(1L, 2L, Money.parse("100.00"), UUID.randomUUID().toString());
+        response = TransferResponse.builder()
+                .transactionId(12345L)
+                .referenceCode(request.getReferenceCode())
+                .sourceWalletBalanceAfter(Money.parse("900.00"))
+                .message("Transfer successful")
+                .build();
+        requestJson = objectMapper.writeValueAsString(request);
+        responseJson = objectMapper.writeValueAsString(response);
+        List<TransferRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new TransferRequest(1L, 2L + i, Money.parse("10.00"), UUID.randomUUID().toString()));
+        }
+        batchJson = objectMapper.writeValueAsString(batch);
+    }
+
+    @Benchmark
+    public TransferRequest deserializeRequest() throws JsonProcessingException {
+        return objectMapper.readValue(requestJson, TransferRequest.class);
+    }
+
+    @Benchmark
+    public String serializeRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public TransferResponse deserializeResponse() throws JsonProcessingException {
+        return objectMapper.readValue(responseJson, TransferResponse.class);
+    }
+
+    @Benchmark
+    public String serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public List<TransferRequest> deserializeBatch() throws JsonProcessingException {
+        return objectMapper.readValue(batchJson, BATCH_TYPE);
+    }
+}
@@ -0,0 +1,66 @@
+package com.fintech.fundtransfer.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the wallets of a transfer. {@code uniform} spreads load evenly; {@code zipfian} (exponent 1.0) sends most
+ * transfers to a few hot wallets, which is where lock contention shows up.
+ */
+final class WalletSelector {
+
+    static final String UNIFORM = "uniform";
+    static final String ZIPFIAN = "zipfian";
+
+    private static final double ZIPF_EXPONENT = 1.0;
+
+    private final long[] walletIds;
+    private final double[] cumulative;
+
+    private WalletSelector(long[] walletIds, double[] cumulative) {
+        this.walletIds = walletIds;
+        this.cumulative = cumulative;
+    }
+
+    static WalletSelector create(String distribution, List<Long> walletIds) {
+        long[] ids = walletIds.stream().mapToLong(Long::longValue).toArray();
+        return switch (distribution) {
+            case UNIFORM -> new WalletSelector(ids, null);
+            case ZIPFIAN -> {
+                double[] cumulative = new double[ids.length];
+                double sum = 0;
+                for (int rank = 0; rank < ids.length; rank++) {
+                    sum += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                    cumulative[rank] = sum;
+                }
+                for (int rank = 0; rank < ids.length; rank++) {
+                    cumulative[rank] /= sum;
+                }
+                yield new WalletSelector(ids, cumulative);
+            }
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        };
+    }
+
+    long next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return walletIds[random.nextInt(walletIds.length)];
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return walletIds[Math.min(index >= 0 ? index : -index - 1, walletIds.length - 1)];
+    }
+
+    /**
+     * Two distinct wallets: source and destination.
+     */
+    long[] nextPair() {
+        long source = next();
+        long destination = next();
+        while (destination == source) {
+            destination = next();
+        }
+        return new long[]{source, destination};
+    }
+}
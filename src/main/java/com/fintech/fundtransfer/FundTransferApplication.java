@@ -2,10 +2,10 @@ package com.fintech.fundtransfer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableRetry
+@EnableScheduling
 public class FundTransferApplication {
     public static void main(String[] args) {
         SpringApplication.run(FundTransferApplication.class, args);
@@ -0,0 +1,25 @@
+package com.fintech.fundtransfer.application.dto;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferItemResult {
+    private String referenceCode;
+    private ItemStatus status;
+    private Long transactionId;
+    private Money sourceWalletBalanceAfter;
+    private Long sourceWalletVersion;
+    private String errorCode;
+    private String message;
+
+    public enum ItemStatus {
+        SUCCESS, DUPLICATE, FAILED
+    }
+}
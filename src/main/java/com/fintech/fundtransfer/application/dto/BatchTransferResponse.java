@@ -0,0 +1,19 @@
+package com.fintech.fundtransfer.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private int succeeded;
+    private int duplicates;
+    private int failed;
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,28 @@
+package com.fintech.fundtransfer.application.dto;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published for every wallet a completed transfer touched. Delivery is at-least-once: consumers deduplicate by
+ * {@code eventId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEvent {
+    private Long eventId;
+    private Long walletId;
+    private Long transactionId;
+    private String referenceCode;
+    private Long sourceWalletId;
+    private Long destinationWalletId;
+    private Money amount;
+    private Instant createdAt;
+}
@@ -0,0 +1,16 @@
+package com.fintech.fundtransfer.application.dto;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferLeg {
+    private Long destinationWalletId;
+    private Money amount;
+}
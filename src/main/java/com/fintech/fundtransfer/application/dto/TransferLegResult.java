@@ -0,0 +1,18 @@
+package com.fintech.fundtransfer.application.dto;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferLegResult {
+    private int leg;
+    private Long transactionId;
+    private Long destinationWalletId;
+    private Money amount;
+}
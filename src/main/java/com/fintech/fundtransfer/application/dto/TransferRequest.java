@@ -1,12 +1,17 @@
 package com.fintech.fundtransfer.application.dto;
 
+import com.fintech.fundtransfer.domain.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
+import java.util.List;
 
+/**
+ * A transfer from {@code sourceWalletId} to {@code destinationWalletId}, or a multi-leg transfer: the source is
+ * debited once and every entry of {@code legs} credited, all in one transaction (leave destination and amount empty).
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +19,15 @@ import java.math.BigDecimal;
 public class TransferRequest {
     private Long sourceWalletId;
     private Long destinationWalletId;
-    private BigDecimal amount;
+    private Money amount;
     private String referenceCode;
+    private List<TransferLeg> legs;
+
+    public TransferRequest(Long sourceWalletId, Long destinationWalletId, Money amount, String referenceCode) {
+        this(sourceWalletId, destinationWalletId, amount, referenceCode, null);
+    }
+
+    public boolean hasLegs() {
+        return legs != null;
+    }
 }
@@ -1,11 +1,13 @@
 package com.fintech.fundtransfer.application.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fintech.fundtransfer.domain.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 @Builder
@@ -14,6 +16,13 @@ import java.math.BigDecimal;
 public class TransferResponse {
     private Long transactionId;
     private String referenceCode;
-    private BigDecimal sourceWalletBalanceAfter;
+    private Money sourceWalletBalanceAfter;
+    // Pass as minVersion to GET /api/v1/wallets/{id} to read this transfer's own write
+    private Long sourceWalletVersion;
     private String message;
+    // Multi-leg transfers only: one log row per leg; transactionId is the first leg's
+    private List<TransferLegResult> legs;
+    // Answered from an earlier transfer with the same reference code; not part of the JSON
+    @JsonIgnore
+    private boolean duplicate;
 }
@@ -0,0 +1,18 @@
+package com.fintech.fundtransfer.application.dto;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceResponse {
+    private Long walletId;
+    private Money balance;
+    // wallets.version of the balance; null when served from the ledger or for a sharded hot wallet
+    private Long version;
+}
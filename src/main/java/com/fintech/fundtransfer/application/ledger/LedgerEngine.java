@@ -0,0 +1,418 @@
+package com.fintech.fundtransfer.application.ledger;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.TransactionLogRetention;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.ledger.LedgerJournal;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory ledger for high-frequency wallets (enabled with {@code fund-transfer.ledger.enabled=true}).
+ * <p>
+ * Balances live in single-writer {@link LedgerShard}s, so transfers take neither Redis nor database locks. A
+ * transfer is acknowledged once its shard has journaled it; a background flusher then writes the netted balance
+ * changes and the log rows to {@code wallets}/{@code transaction_logs} in batches. On startup, journaled
+ * transfers that never reached the database are replayed. A transfer whose reference code the database already
+ * holds is isolated by splitting the failing batch; its balance change is persisted and the transfer kept in the
+ * {@code dead-letter} journal for reconciliation, so it cannot hold up later transfers.
+ * <p>
+ * The engine owns every wallet it has loaded: in this mode all writes to those wallets must go through it, which
+ * means a single node serves them.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "fund-transfer.ledger.enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private final WalletJpaRepository walletRepository;
+    private final TransactionLogJpaRepository transactionLogRepository;
+    private final TransactionLogRetention transactionLogRetention;
+    private final TransferBatchJdbcRepository batchRepository;
+    private final OutboxJdbcRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int shardCount;
+    private final int queueCapacity;
+    private final int maxDrain;
+    private final Path journalDirectory;
+    private final long journalSegmentBytes;
+    private final boolean journalFsync;
+    private final long flushIntervalNanos;
+    private final int flushBatchSize;
+    private final int idPrefetchBlocks;
+
+    private final Map<String, CompletableFuture<TransferResponse>> unflushed = new ConcurrentHashMap<>();
+    private final Queue<FlushItem> flushQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingFlush = new AtomicLong();
+    private final Counter deadLettered;
+    private LedgerShard[] shards;
+    private LedgerJournal deadLetters;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // Flusher-thread state: failed batches, split in halves, are retried before anything else to keep journal order
+    private final Deque<List<FlushItem>> retry = new ArrayDeque<>();
+
+    public LedgerEngine(WalletJpaRepository walletRepository,
+                        TransactionLogJpaRepository transactionLogRepository,
+                        TransactionLogRetention transactionLogRetention,
+                        TransferBatchJdbcRepository batchRepository,
+                        OutboxJdbcRepository outboxRepository,
+                        TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${fund-transfer.ledger.shards:8}") int shardCount,
+                        @Value("${fund-transfer.ledger.queue-capacity:65536}") int queueCapacity,
+                        @Value("${fund-transfer.ledger.max-drain:1024}") int maxDrain,
+                        @Value("${fund-transfer.ledger.journal-dir:ledger-journal}") String journalDirectory,
+                        @Value("${fund-transfer.ledger.journal-segment-bytes:67108864}") long journalSegmentBytes,
+                        @Value("${fund-transfer.ledger.journal-fsync:true}") boolean journalFsync,
+                        @Value("${fund-transfer.ledger.flush-interval-ms:50}") long flushIntervalMillis,
+                        @Value("${fund-transfer.ledger.flush-batch-size:5000}") int flushBatchSize,
+                        @Value("${fund-transfer.ledger.id-prefetch-blocks:20}") int idPrefetchBlocks) {
+        this.walletRepository = walletRepository;
+        this.transactionLogRepository = transactionLogRepository;
+        this.transactionLogRetention = transactionLogRetention;
+        this.batchRepository = batchRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.shardCount = shardCount;
+        this.queueCapacity = queueCapacity;
+        this.maxDrain = maxDrain;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.journalSegmentBytes = journalSegmentBytes;
+        this.journalFsync = journalFsync;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.flushBatchSize = flushBatchSize;
+        this.idPrefetchBlocks = idPrefetchBlocks;
+        this.deadLettered = meterRegistry.counter("fund_transfer.ledger.dead_lettered");
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // Its own directory: recovery only replays the shard journals
+        deadLetters = new LedgerJournal(journalDirectory.resolve("dead-letter"), 0, journalSegmentBytes, true);
+        recover();
+
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            LedgerJournal journal = new LedgerJournal(journalDirectory, i, journalSegmentBytes, journalFsync);
+            shards[i] = new LedgerShard(i, this, journal, batchRepository, queueCapacity, maxDrain, idPrefetchBlocks);
+        }
+        running = true;
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        flusher = new Thread(this::flushLoop, "ledger-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        meterRegistry.gauge("fund_transfer.ledger.pending_flush", pendingFlush);
+        log.info("Ledger engine started with {} shards, journal in {}", shardCount, journalDirectory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join();
+        // Whatever cannot be flushed now stays in the journal and is replayed on the next start
+        while (flushOnce() > 0) {
+            // drain
+        }
+        try {
+            deadLetters.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the ledger dead-letter journal", e);
+        }
+    }
+
+    public TransferResponse transfer(TransferRequest request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<TransferResponse> submit(TransferRequest request) {
+        // The shards only check the balance: a non-positive amount would credit the source and overdraw the destination
+        if (request.getSourceWalletId() == null || request.getDestinationWalletId() == null
+                || request.getAmount() == null || request.getAmount().signum() <= 0 || request.getReferenceCode() == null) {
+            throw new InvalidRequestException("a transfer needs source and destination wallets, a positive amount and a reference code");
+        }
+        LedgerShard source = load(request.getSourceWalletId());
+        load(request.getDestinationWalletId());
+
+        // Journaled but not yet persisted transfers are invisible to TransferService's database lookup (done when the
+        // idempotency guard is unavailable or has seen the code complete), so they are checked here
+        CompletableFuture<TransferResponse> future = new CompletableFuture<>();
+        CompletableFuture<TransferResponse> existing = unflushed.putIfAbsent(request.getReferenceCode(), future);
+        if (existing != null) {
+            log.info("Duplicate transaction detected for reference code: {}", request.getReferenceCode());
+            return existing.thenApply(LedgerEngine::asDuplicate);
+        }
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                unflushed.remove(request.getReferenceCode(), future);
+            }
+        });
+
+        if (!source.offerTransfer(request, future)) {
+            unflushed.remove(request.getReferenceCode(), future);
+            throw new ServiceOverloadedException("ledger shard queue is full");
+        }
+        return future;
+    }
+
+    /**
+     * Current in-memory balance, or {@code null} if the wallet has not been loaded into the ledger.
+     */
+    public Money balance(Long walletId) {
+        return shard(walletId).balance(walletId);
+    }
+
+    void credit(Long walletId, long amount) {
+        shard(walletId).applyCreditLocally(walletId, amount);
+    }
+
+    /**
+     * Queues a journaled transfer for the flusher. The queue is the global flush order: shards queue a transfer
+     * before releasing its credit, so every transfer is flushed after the transfers whose credits it spends.
+     */
+    void enqueueFlush(int shard, int segment, TransactionLog entry) {
+        flushQueue.offer(new FlushItem(shard, segment, entry));
+        pendingFlush.incrementAndGet();
+    }
+
+    private LedgerShard load(Long walletId) {
+        LedgerShard shard = shard(walletId);
+        if (!shard.owns(walletId)) {
+            Wallet wallet = walletRepository.findById(walletId)
+                    .orElseThrow(() -> new WalletNotFoundException(walletId));
+            if (wallet.getBalanceShards() != null) {
+                // Its balance is spread over balance shards the ledger neither reads nor writes
+                throw new InvalidRequestException("wallet " + walletId + " has balance shards and cannot be served by the ledger");
+            }
+            shard.adopt(walletId, wallet.getBalance());
+        }
+        return shard;
+    }
+
+    private LedgerShard shard(Long walletId) {
+        return shards[(int) Math.floorMod(walletId, (long) shards.length)];
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (flushOnce() == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    int flushOnce() {
+        List<FlushItem> batch = retry.pollFirst();
+        if (batch == null) {
+            batch = new ArrayList<>();
+            FlushItem item;
+            while (batch.size() < flushBatchSize && (item = flushQueue.poll()) != null) {
+                batch.add(item);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+        }
+
+        Timer.Sample flushTimerSample = Timer.start(meterRegistry);
+        try {
+            List<TransactionLog> entries = batch.stream().map(FlushItem::entry).toList();
+            persist(entries, entries);
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // The first half holds every transfer whose credit the second half may spend: it is flushed first
+                log.error("Ledger flush of {} transfers failed, retrying in halves", batch.size(), e);
+                int half = batch.size() / 2;
+                retry.addFirst(batch.subList(half, batch.size()));
+                retry.addFirst(batch.subList(0, half));
+                return 0;
+            }
+            try {
+                if (!isRefused(e)) {
+                    throw e;
+                }
+                deadLetter(batch.get(0).entry(), e);
+            } catch (RuntimeException retryLater) {
+                log.error("Ledger flush of {} failed, will retry", batch.get(0).entry().getReferenceCode(), retryLater);
+                retry.addFirst(batch);
+                return 0;
+            }
+        } finally {
+            flushTimerSample.stop(meterRegistry.timer("fund_transfer.ledger.flush_duration"));
+        }
+        pendingFlush.addAndGet(-batch.size());
+
+        Map<Integer, Integer> flushedSegments = new HashMap<>();
+        for (FlushItem item : batch) {
+            unflushed.remove(item.entry().getReferenceCode());
+            flushedSegments.put(item.shard(), item.segment());
+        }
+        // Items of a shard arrive in journal order, so everything before the last flushed segment is persisted
+        flushedSegments.forEach((shard, segment) -> shards[shard].journal().deleteSegmentsBefore(segment));
+        return batch.size();
+    }
+
+    /**
+     * Writes the balance changes of {@code applied} and the log rows of {@code logged} in one transaction.
+     */
+    private void persist(List<TransactionLog> applied, List<TransactionLog> logged) {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        for (TransactionLog entry : applied) {
+            long amount = entry.getAmount().minorUnits();
+            deltas.merge(entry.getSourceId(), -amount, Math::addExact);
+            deltas.merge(entry.getDestinationId(), amount, Math::addExact);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deltas.isEmpty()) {
+                // Ledger wallets are only written by the shards, never under Redis locks: no fencing
+                TransferBatchJdbcRepository.firstRejected(deltas, batchRepository.applyBalanceDeltas(deltas, Map.of()))
+                        .ifPresent(walletId -> {
+                            throw new IllegalStateException("Wallet " + walletId + " was modified outside the ledger");
+                        });
+            }
+            if (!logged.isEmpty()) {
+                batchRepository.insertTransactionLogs(logged);
+                outboxRepository.append(logged);
+            }
+        });
+    }
+
+    private void recover() throws IOException {
+        List<TransactionLog> journaled = LedgerJournal.readAll(journalDirectory);
+        List<TransactionLog> missing = new ArrayList<>();
+        for (int from = 0; from < journaled.size(); from += flushBatchSize) {
+            List<TransactionLog> chunk = journaled.subList(from, Math.min(from + flushBatchSize, journaled.size()));
+            Set<Long> persisted = batchRepository.findExistingTransactionLogIds(
+                    chunk.stream().map(TransactionLog::getId).toList());
+            chunk.stream().filter(entry -> !persisted.contains(entry.getId())).forEach(missing::add);
+        }
+        if (!missing.isEmpty()) {
+            // The shard journals are read one after another, which loses the order between shards: the recovered
+            // transfers are netted and applied in one transaction, so no debit is checked before its funding credit
+            Set<String> committed = committedReferenceCodes(missing);
+            List<TransactionLog> logged = missing.stream()
+                    .filter(entry -> !committed.contains(entry.getReferenceCode()))
+                    .toList();
+            persist(missing, logged);
+            missing.stream()
+                    .filter(entry -> committed.contains(entry.getReferenceCode()))
+                    .forEach(entry -> recordDeadLetter(entry, null));
+        }
+        if (!journaled.isEmpty()) {
+            log.info("Recovered ledger journal: {} transfers, {} replayed to the database", journaled.size(), missing.size());
+        }
+        LedgerJournal.deleteAll(journalDirectory);
+    }
+
+    // Reference codes of recovered transfers that another transfer committed in the meantime
+    private Set<String> committedReferenceCodes(List<TransactionLog> entries) {
+        Set<String> committed = new HashSet<>();
+        for (int from = 0; from < entries.size(); from += flushBatchSize) {
+            List<String> referenceCodes = entries.subList(from, Math.min(from + flushBatchSize, entries.size())).stream()
+                    .map(TransactionLog::getReferenceCode)
+                    .toList();
+            transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(
+                            referenceCodes, transactionLogRetention.idempotencyWindowStart())
+                    .forEach(tx -> committed.add(tx.getReferenceCode()));
+        }
+        return committed;
+    }
+
+    private static boolean isRefused(RuntimeException e) {
+        // A reference code committed before: retrying cannot succeed. A rejected balance change is retried, as in
+        // flush order every debit's funding credits are persisted before it
+        return e instanceof DataIntegrityViolationException;
+    }
+
+    /**
+     * Persists the balance change of a transfer whose log row the database refuses and keeps the transfer in the
+     * dead-letter journal. Later transfers may already spend its credit, so memory and database keep the same
+     * balances; the transfer is reconciled (or reversed) by hand.
+     */
+    private void deadLetter(TransactionLog entry, RuntimeException cause) {
+        persist(List.of(entry), List.of());
+        recordDeadLetter(entry, cause);
+    }
+
+    private void recordDeadLetter(TransactionLog entry, RuntimeException cause) {
+        log.error("Ledger transfer {} of {} from wallet {} to {} was refused by the database, moved to the dead-letter journal",
+                entry.getReferenceCode(), entry.getAmount(), entry.getSourceId(), entry.getDestinationId(), cause);
+        try {
+            deadLetters.append(List.of(entry));
+        } catch (IOException e) {
+            log.error("Failed to write ledger transfer {} to the dead-letter journal", entry.getReferenceCode(), e);
+        }
+        deadLettered.increment();
+    }
+
+    private static TransferResponse asDuplicate(TransferResponse original) {
+        return TransferResponse.builder()
+                .transactionId(original.getTransactionId())
+                .referenceCode(original.getReferenceCode())
+                .sourceWalletBalanceAfter(original.getSourceWalletBalanceAfter())
+                .message("Duplicate transaction - returning existing state")
+                .duplicate(true)
+                .build();
+    }
+
+    private record FlushItem(int shard, int segment, TransactionLog entry) {
+    }
+}
@@ -0,0 +1,259 @@
+package com.fintech.fundtransfer.application.ledger;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.infrastructure.ledger.LedgerJournal;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One partition of the ledger. Only the shard's own thread changes the balances of its wallets, so transfers
+ * need no locks: producers enqueue commands on a lock-free queue and the thread applies them in arrival order,
+ * journaling each drained batch with a single fsync before the callers are answered.
+ * <p>
+ * Debits are applied by the source wallet's shard; the matching credit is applied after the journal write, by
+ * the destination's shard if that is a different one.
+ */
+@Slf4j
+class LedgerShard implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int index;
+    private final LedgerEngine engine;
+    private final LedgerJournal journal;
+    private final TransferBatchJdbcRepository batchRepository;
+    private final int capacity;
+    private final int maxDrain;
+    private final int idPrefetchBlocks;
+    private final Queue<Object> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Map<Long, WalletSlot> wallets = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Shard-thread state
+    private final Queue<Long> idBlocks = new ArrayDeque<>();
+    private long nextId = 1;
+    private long blockEnd;
+    private final List<Applied> applied = new ArrayList<>();
+    private final List<TransactionLog> entries = new ArrayList<>();
+
+    LedgerShard(int index, LedgerEngine engine, LedgerJournal journal, TransferBatchJdbcRepository batchRepository,
+                int capacity, int maxDrain, int idPrefetchBlocks) {
+        this.index = index;
+        this.engine = engine;
+        this.journal = journal;
+        this.batchRepository = batchRepository;
+        this.capacity = capacity;
+        this.maxDrain = maxDrain;
+        this.idPrefetchBlocks = idPrefetchBlocks;
+        this.thread = new Thread(this, "ledger-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        try {
+            journal.close();
+        } catch (Exception e) {
+            log.warn("Failed to close journal of ledger shard {}", index, e);
+        }
+    }
+
+    LedgerJournal journal() {
+        return journal;
+    }
+
+    boolean owns(Long walletId) {
+        return wallets.containsKey(walletId);
+    }
+
+    /**
+     * Adopts a wallet loaded from the database. From now on this shard is the only writer of its balance.
+     */
+    void adopt(Long walletId, Money balance) {
+        wallets.putIfAbsent(walletId, new WalletSlot(balance.minorUnits()));
+    }
+
+    Money balance(Long walletId) {
+        WalletSlot slot = wallets.get(walletId);
+        return slot == null ? null : Money.ofMinor(slot.balance);
+    }
+
+    boolean offerTransfer(TransferRequest request, CompletableFuture<TransferResponse> future) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+        enqueue(new TransferCommand(request, future));
+        return true;
+    }
+
+    void offerCredit(Long walletId, long amount) {
+        // Credits belong to transfers that are already journaled and are never refused
+        depth.incrementAndGet();
+        enqueue(new CreditCommand(walletId, amount));
+    }
+
+    int depth() {
+        return depth.get();
+    }
+
+    private void enqueue(Object command) {
+        inbox.offer(command);
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (running || !inbox.isEmpty()) {
+            int drained = 0;
+            Object command;
+            while (drained < maxDrain && (command = inbox.poll()) != null) {
+                depth.decrementAndGet();
+                drained++;
+                if (command instanceof CreditCommand credit) {
+                    WalletSlot slot = wallets.get(credit.walletId);
+                    slot.balance = Math.addExact(slot.balance, credit.amount);
+                } else {
+                    debit((TransferCommand) command);
+                }
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            } else if (!applied.isEmpty()) {
+                commit();
+            }
+        }
+    }
+
+    private void debit(TransferCommand command) {
+        TransferRequest request = command.request;
+        WalletSlot source = wallets.get(request.getSourceWalletId());
+        long amount = request.getAmount().minorUnits();
+        if (source.balance < amount) {
+            command.future.completeExceptionally(new InsufficientBalanceException(request.getSourceWalletId()));
+            return;
+        }
+
+        long transactionId;
+        try {
+            transactionId = nextTransactionId();
+        } catch (RuntimeException e) {
+            command.future.completeExceptionally(e);
+            return;
+        }
+
+        boolean selfTransfer = request.getSourceWalletId().equals(request.getDestinationWalletId());
+        if (!selfTransfer) {
+            source.balance -= amount;
+        }
+        TransactionLog entry = TransactionLog.builder()
+                .id(transactionId)
+                .sourceId(request.getSourceWalletId())
+                .destinationId(request.getDestinationWalletId())
+                .amount(request.getAmount())
+                .status(TransactionLog.TransactionStatus.SUCCESS)
+                .referenceCode(request.getReferenceCode())
+                .build();
+        entries.add(entry);
+        applied.add(new Applied(command, entry, source, source.balance, selfTransfer));
+    }
+
+    private void commit() {
+        int segment;
+        try {
+            segment = journal.append(entries);
+        } catch (Exception e) {
+            log.error("Ledger shard {} failed to journal {} transfers", index, entries.size(), e);
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                Applied transfer = applied.get(i);
+                if (!transfer.selfTransfer) {
+                    transfer.source.balance += transfer.entry.getAmount().minorUnits();
+                }
+                transfer.command.future.completeExceptionally(new IllegalStateException("Ledger journal write failed", e));
+            }
+            applied.clear();
+            entries.clear();
+            return;
+        }
+
+        for (Applied transfer : applied) {
+            TransactionLog entry = transfer.entry;
+            // Queued before the credit is released: a transfer spending the credit is queued, and flushed, after it
+            engine.enqueueFlush(index, segment, entry);
+            if (!transfer.selfTransfer) {
+                engine.credit(entry.getDestinationId(), entry.getAmount().minorUnits());
+            }
+            transfer.command.future.complete(TransferResponse.builder()
+                    .transactionId(entry.getId())
+                    .referenceCode(entry.getReferenceCode())
+                    .sourceWalletBalanceAfter(Money.ofMinor(transfer.balanceAfter))
+                    .message("Transfer successful")
+                    .build());
+        }
+        applied.clear();
+        entries.clear();
+    }
+
+    void applyCreditLocally(Long walletId, long amount) {
+        if (Thread.currentThread() == thread) {
+            WalletSlot slot = wallets.get(walletId);
+            slot.balance = Math.addExact(slot.balance, amount);
+        } else {
+            offerCredit(walletId, amount);
+        }
+    }
+
+    private long nextTransactionId() {
+        if (nextId > blockEnd) {
+            if (idBlocks.isEmpty()) {
+                idBlocks.addAll(batchRepository.allocateTransactionLogIds(idPrefetchBlocks));
+            }
+            blockEnd = idBlocks.poll();
+            nextId = blockEnd - TransferBatchJdbcRepository.TRANSACTION_LOG_ID_BLOCK + 1;
+        }
+        return nextId++;
+    }
+
+    private static final class WalletSlot {
+        // Minor units. Written by the shard thread only; volatile so that reads from other threads see the latest value
+        private volatile long balance;
+
+        private WalletSlot(long balance) {
+            this.balance = balance;
+        }
+    }
+
+    private record TransferCommand(TransferRequest request, CompletableFuture<TransferResponse> future) {
+    }
+
+    private record CreditCommand(Long walletId, long amount) {
+    }
+
+    private record Applied(TransferCommand command, TransactionLog entry, WalletSlot source,
+                           long balanceAfter, boolean selfTransfer) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking entry point for transfers: {@link #transferFundsAsync} returns a future right away.
+ * <p>
+ * The reference code is reserved first, so duplicates are answered without a lock. The Redis wallet locks are then
+ * taken through {@link WalletLockManager#acquireAsync}, so no thread waits for either.
+ * The transfer itself then runs on a bounded executor with one thread per database connection
+ * ({@code spring.datasource.hikari.maximum-pool-size}): transfers wait in its queue rather than each parking a
+ * thread on the connection pool. Beyond {@code queue-capacity} waiting transfers, new ones fail fast with 503
+ * before taking any lock.
+ */
+@Service
+public class AsyncTransferService {
+
+    private final TransferService transferService;
+    private final WalletLockManager walletLockManager;
+    private final Semaphore admitted;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public AsyncTransferService(TransferService transferService,
+                                WalletLockManager walletLockManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int threads,
+                                @Value("${fund-transfer.async.queue-capacity:1000}") int queueCapacity) {
+        this.transferService = transferService;
+        this.walletLockManager = walletLockManager;
+        // Admission bounds the queue: transfers holding locks are never rejected by the executor
+        this.admitted = new Semaphore(threads + queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transfer-db-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.rejected = meterRegistry.counter("fund_transfer.async.rejected");
+        Gauge.builder("fund_transfer.async.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Async transfers running on a database thread")
+                .register(meterRegistry);
+        Gauge.builder("fund_transfer.async.queued", executor, pool -> pool.getQueue().size())
+                .description("Async transfers holding their locks and waiting for a database thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Completes with the response of {@link TransferService#transferFunds}, or exceptionally with the exception it
+     * would have thrown; {@link ServiceOverloadedException} if too many async transfers are in flight or the service
+     * has been stopped.
+     */
+    public CompletableFuture<TransferResponse> transferFundsAsync(TransferRequest request) {
+        if (!admitted.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ServiceOverloadedException("async transfer queue is full"));
+        }
+        CompletableFuture<IdempotencyReservation> reservation;
+        try {
+            // 1. Idempotency reservation first: duplicates are answered without taking any lock
+            reservation = transferService.reserveAsync(request);
+        } catch (RuntimeException e) {
+            admitted.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<TransferResponse> result = new CompletableFuture<>();
+        reservation.whenComplete((reserved, reserveError) -> {
+            if (reserveError != null) {
+                result.completeExceptionally(reserveError);
+            } else if (reserved == null || reserved.getState() == State.COMPLETED || reserved.getState() == State.IN_FLIGHT) {
+                // Answered (or rejected) by the transfer itself without a lock or a database thread
+                try {
+                    result.complete(transferService.transferFunds(request, reserved, null));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            } else {
+                lockAndTransfer(request, reserved, result);
+            }
+        });
+        return result.whenComplete((response, error) -> admitted.release());
+    }
+
+    private void lockAndTransfer(TransferRequest request, IdempotencyReservation reserved,
+                                 CompletableFuture<TransferResponse> result) {
+        CompletableFuture<WalletLocks> locks;
+        try {
+            // 2. Wallet locks pipelined through Redis (none for routes that take no Redis locks)
+            List<Long> lockIds = transferService.redisLockIds(request);
+            locks = lockIds.isEmpty() ? CompletableFuture.completedFuture(null) : walletLockManager.acquireAsync(lockIds);
+        } catch (RuntimeException e) {
+            transferService.release(request, reserved);
+            result.completeExceptionally(e);
+            return;
+        }
+
+        // 3. Transaction on a database thread, locks released once it ends
+        locks.whenComplete((held, lockError) -> {
+            if (lockError != null) {
+                transferService.release(request, reserved);
+                result.completeExceptionally(lockError);
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try (held) {
+                        result.complete(transferService.transferFunds(request, reserved, held));
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shut down by stop(): nothing would release the locks until their leases expire
+                if (held != null) {
+                    held.close();
+                }
+                transferService.release(request, reserved);
+                rejected.increment();
+                result.completeExceptionally(new ServiceOverloadedException("async transfer executor is shut down"));
+            }
+        });
+    }
+}
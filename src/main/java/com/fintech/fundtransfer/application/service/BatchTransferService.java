@@ -0,0 +1,518 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult;
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult.ItemStatus;
+import com.fintech.fundtransfer.application.dto.BatchTransferResponse;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.application.ledger.LedgerEngine;
+import com.fintech.fundtransfer.domain.exception.BaseException;
+import com.fintech.fundtransfer.domain.exception.ErrorCode;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyGuard;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceUpdate;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.retry.ContentionAwareRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Executes many transfers under one lock set and one transaction per chunk: balances are checked in request
+ * order in memory, the net change per wallet is written with one {@code UPDATE} (sharded hot wallets: through
+ * their balance shards) and all log rows with one batched {@code INSERT}. Reference codes are reserved through the
+ * {@link IdempotencyGuard} like single transfers, and a chunk that fails on one concurrently committed reference
+ * code is split and retried so that only that item fails.
+ */
+@Service
+@Slf4j
+public class BatchTransferService {
+
+    private final WalletJpaRepository walletRepository;
+    private final TransactionLogJpaRepository transactionLogRepository;
+    private final TransferBatchJdbcRepository batchRepository;
+    private final OutboxJdbcRepository outboxRepository;
+    private final TransactionLogRetention transactionLogRetention;
+    private final WalletBalanceCache balanceCache;
+    private final ShardedBalanceService shardedBalanceService;
+    private final WalletLockManager walletLockManager;
+    private final DatabaseWalletLocker databaseWalletLocker;
+    private final IdempotencyGuard idempotencyGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentionAwareRetry retry;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final Optional<LedgerEngine> ledgerEngine;
+
+    public BatchTransferService(WalletJpaRepository walletRepository,
+                                TransactionLogJpaRepository transactionLogRepository,
+                                TransferBatchJdbcRepository batchRepository,
+                                OutboxJdbcRepository outboxRepository,
+                                TransactionLogRetention transactionLogRetention,
+                                WalletBalanceCache balanceCache,
+                                ShardedBalanceService shardedBalanceService,
+                                WalletLockManager walletLockManager,
+                                DatabaseWalletLocker databaseWalletLocker,
+                                IdempotencyGuard idempotencyGuard,
+                                TransactionTemplate transactionTemplate,
+                                ContentionAwareRetry retry,
+                                MeterRegistry meterRegistry,
+                                @Value("${fund-transfer.batch.chunk-size:500}") int chunkSize,
+                                Optional<LedgerEngine> ledgerEngine) {
+        this.walletRepository = walletRepository;
+        this.transactionLogRepository = transactionLogRepository;
+        this.batchRepository = batchRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionLogRetention = transactionLogRetention;
+        this.balanceCache = balanceCache;
+        this.shardedBalanceService = shardedBalanceService;
+        this.walletLockManager = walletLockManager;
+        this.databaseWalletLocker = databaseWalletLocker;
+        this.idempotencyGuard = idempotencyGuard;
+        this.transactionTemplate = transactionTemplate;
+        this.retry = retry;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+        Timer.Sample batchTimerSample = Timer.start(meterRegistry);
+        BatchTransferItemResult[] results = new BatchTransferItemResult[requests.size()];
+
+        try {
+            for (int from = 0; from < requests.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, requests.size());
+                BitSet answered = new BitSet();
+                List<Integer> reserved = reserve(requests, from, to, results, answered);
+                try {
+                    processIsolating(requests, from, to, results, answered);
+                } finally {
+                    completeReservations(requests, reserved, results);
+                }
+            }
+        } finally {
+            batchTimerSample.stop(meterRegistry.timer("fund_transfer.batch_duration"));
+        }
+
+        List<BatchTransferItemResult> resultList = Arrays.asList(results);
+        return BatchTransferResponse.builder()
+                .succeeded(count(resultList, ItemStatus.SUCCESS))
+                .duplicates(count(resultList, ItemStatus.DUPLICATE))
+                .failed(count(resultList, ItemStatus.FAILED))
+                .results(resultList)
+                .build();
+    }
+
+    /**
+     * Runs the requests as a single chunk (one lock set, one transaction) regardless of the chunk size. Used by
+     * the {@link TransferCoalescer} for transfers it gathered from one source wallet. Unlike
+     * {@link #transferBatch}, a failed transaction is thrown rather than recorded on the items: the coalescer
+     * splits the group and retries it to find the item that failed.
+     */
+    public List<BatchTransferItemResult> transferGroup(List<TransferRequest> requests) {
+        // The coalesced transfers were reserved by TransferService
+        BatchTransferItemResult[] results = new BatchTransferItemResult[requests.size()];
+        processChunk(requests, 0, requests.size(), results, new BitSet());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reserves the chunk's reference codes, as a single transfer does, and answers the codes that completed or are
+     * in flight elsewhere ({@code answered}). Only the first occurrence of a code is reserved; later ones are
+     * answered as repeated, so splitting a failed chunk cannot let them through.
+     *
+     * @return the items holding a reservation
+     */
+    private List<Integer> reserve(List<TransferRequest> requests, int from, int to, BatchTransferItemResult[] results,
+                                  BitSet answered) {
+        List<Integer> items = new ArrayList<>();
+        Set<String> referenceCodes = new LinkedHashSet<>();
+        for (int i = from; i < to; i++) {
+            TransferRequest request = requests.get(i);
+            if (!isValid(request)) {
+                continue;
+            }
+            if (referenceCodes.add(request.getReferenceCode())) {
+                items.add(i);
+            } else {
+                results[i] = failed(request, ErrorCode.DUPLICATE_TRANSACTION, "Reference code repeated within the batch");
+                answered.set(i);
+            }
+        }
+        List<IdempotencyReservation> reservations = idempotencyGuard.reserveAll(new ArrayList<>(referenceCodes));
+
+        List<Integer> reserved = new ArrayList<>();
+        for (int n = 0; n < items.size(); n++) {
+            Integer i = items.get(n);
+            IdempotencyReservation reservation = reservations.get(n);
+            if (reservation.getState() == State.ACQUIRED) {
+                reserved.add(i);
+            } else if (reservation.getState() == State.COMPLETED) {
+                results[i] = BatchTransferItemResult.builder()
+                        .referenceCode(requests.get(i).getReferenceCode())
+                        .status(ItemStatus.DUPLICATE)
+                        .transactionId(reservation.getResponse().getTransactionId())
+                        .message("Duplicate transaction - returning existing state")
+                        .build();
+                answered.set(i);
+            } else if (reservation.getState() == State.IN_FLIGHT) {
+                results[i] = failed(requests.get(i), ErrorCode.DUPLICATE_TRANSACTION,
+                        "A transfer with this reference code is in progress");
+                answered.set(i);
+            }
+        }
+        return reserved;
+    }
+
+    private void completeReservations(List<TransferRequest> requests, List<Integer> reserved,
+                                      BatchTransferItemResult[] results) {
+        for (Integer i : reserved) {
+            String referenceCode = requests.get(i).getReferenceCode();
+            BatchTransferItemResult result = results[i];
+            if (result != null && result.getStatus() == ItemStatus.SUCCESS) {
+                idempotencyGuard.complete(referenceCode, TransferResponse.builder()
+                        .transactionId(result.getTransactionId())
+                        .referenceCode(referenceCode)
+                        .sourceWalletBalanceAfter(result.getSourceWalletBalanceAfter())
+                        .sourceWalletVersion(result.getSourceWalletVersion())
+                        .message(result.getMessage())
+                        .build());
+            } else {
+                if (result != null && result.getStatus() == ItemStatus.DUPLICATE) {
+                    // Committed before: later single transfers with this code ask the database
+                    idempotencyGuard.recordCompleted(referenceCode);
+                }
+                idempotencyGuard.release(referenceCode);
+            }
+        }
+    }
+
+    /**
+     * Runs the items as one chunk. If it fails because a reference code was committed concurrently, the chunk
+     * rolled back as a whole: its halves are retried in order until only the offending item fails. Other failures
+     * (a lock timeout) concern the whole chunk and fail its items at once.
+     */
+    private void processIsolating(List<TransferRequest> requests, int from, int to, BatchTransferItemResult[] results,
+                                  BitSet answered) {
+        try {
+            processChunk(requests, from, to, results, answered);
+        } catch (DataIntegrityViolationException e) {
+            if (to - from == 1) {
+                failChunk(requests, from, to, results, e);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            processIsolating(requests, from, middle, results, answered);
+            processIsolating(requests, middle, to, results, answered);
+        } catch (RuntimeException e) {
+            // Earlier chunks are committed: fail this chunk's items and carry on with the next
+            failChunk(requests, from, to, results, e);
+        }
+    }
+
+    private static void failChunk(List<TransferRequest> requests, int from, int to, BatchTransferItemResult[] results,
+                                  RuntimeException e) {
+        ErrorCode errorCode;
+        String message;
+        if (e instanceof BaseException cause) {
+            errorCode = cause.getErrorCode();
+            message = cause.getMessage();
+        } else if (e instanceof DataIntegrityViolationException) {
+            errorCode = ErrorCode.DUPLICATE_TRANSACTION;
+            message = "Reference code committed concurrently by another transfer";
+        } else {
+            errorCode = ErrorCode.INTERNAL_SERVER_ERROR;
+            message = "Transfer failed";
+        }
+        log.warn("Batch chunk of items {} to {} failed with {}", from, to - 1, errorCode, e);
+        for (int i = from; i < to; i++) {
+            // Successes of the rolled back transaction did not happen; rejections and duplicates still stand
+            if (results[i] == null || results[i].getStatus() == ItemStatus.SUCCESS) {
+                results[i] = failed(requests.get(i), errorCode, message);
+            }
+        }
+    }
+
+    private void processChunk(List<TransferRequest> requests, int from, int to, BatchTransferItemResult[] results,
+                              BitSet answered) {
+        // 1. Validation and Idempotency Check (within the chunk and against the DB, one query)
+        Set<String> seenInChunk = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            TransferRequest request = requests.get(i);
+            if (answered.get(i)) {
+                // Answered by the idempotency tier
+                seenInChunk.add(request.getReferenceCode());
+            } else if (!isValid(request)) {
+                results[i] = failed(request, ErrorCode.INVALID_REQUEST, "Missing wallet, amount or reference code");
+            } else if (!seenInChunk.add(request.getReferenceCode())) {
+                results[i] = failed(request, ErrorCode.DUPLICATE_TRANSACTION, "Reference code repeated within the batch");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Map<String, TransactionLog> existing = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            List<String> referenceCodes = candidates.stream().map(i -> requests.get(i).getReferenceCode()).toList();
+            transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(
+                            referenceCodes, transactionLogRetention.idempotencyWindowStart())
+                    .stream()
+                    // A multi-leg transfer is represented by its first leg
+                    .filter(tx -> tx.getLeg() == 0)
+                    .forEach(tx -> existing.put(tx.getReferenceCode(), tx));
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        Set<Long> walletIds = new TreeSet<>();
+        Set<Long> sources = new HashSet<>();
+        for (Integer i : candidates) {
+            TransferRequest request = requests.get(i);
+            TransactionLog tx = existing.get(request.getReferenceCode());
+            if (tx != null) {
+                results[i] = BatchTransferItemResult.builder()
+                        .referenceCode(tx.getReferenceCode())
+                        .status(ItemStatus.DUPLICATE)
+                        .transactionId(tx.getId())
+                        .message("Duplicate transaction - returning existing state")
+                        .build();
+            } else {
+                pending.add(i);
+                walletIds.add(request.getSourceWalletId());
+                walletIds.add(request.getDestinationWalletId());
+                sources.add(request.getSourceWalletId());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Sharded hot wallets that are only credited take no lock, as for single transfers
+        Set<Long> lockIds = new TreeSet<>(walletIds);
+        lockIds.removeIf(id -> !sources.contains(id) && shardedBalanceService.isSharded(id));
+
+        if (ledgerEngine.isPresent()) {
+            // 2. Ledger mode: the shards apply the items in order without locks
+            submitToLedger(ledgerEngine.get(), requests, pending, results);
+            return;
+        }
+
+        // 2. Layer 1: one lock set for the union of all wallets in the chunk
+        if (databaseWalletLocker.isActive()) {
+            retry.execute(lockIds, () -> transactionTemplate.execute(status -> {
+                databaseWalletLocker.lock(lockIds);
+                executeChunk(requests, pending, walletIds, results, FencingTokens.NONE);
+                return null;
+            }));
+            return;
+        }
+        try (WalletLocks locks = walletLockManager.acquire(lockIds)) {
+            // A retried chunk recomputes every pending item's result
+            retry.execute(lockIds, () -> transactionTemplate.execute(status -> {
+                executeChunk(requests, pending, walletIds, results, locks.getFencingTokens());
+                return null;
+            }));
+        }
+    }
+
+    private void executeChunk(List<TransferRequest> requests, List<Integer> pending, Set<Long> walletIds,
+                              BatchTransferItemResult[] results, FencingTokens tokens) {
+        // Minor units, netted without creating a Money per step
+        Map<Long, Long> balances = new HashMap<>();
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllById(walletIds)) {
+            // A sharded wallet's wallets row holds only part of its balance; credits to its shards only add to it
+            balances.put(wallet.getId(), isSharded(wallet)
+                    ? shardedBalanceService.balance(wallet.getId()).minorUnits()
+                    : wallet.getBalance().minorUnits());
+            wallets.put(wallet.getId(), wallet);
+        }
+
+        // Balance check in request order, netting the changes per wallet
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        List<TransactionLog> logs = new ArrayList<>();
+        List<Integer> applied = new ArrayList<>();
+        for (Integer i : pending) {
+            TransferRequest request = requests.get(i);
+            Long sourceId = request.getSourceWalletId();
+            Long destinationId = request.getDestinationWalletId();
+            Long sourceBalance = balances.get(sourceId);
+            long amount = request.getAmount().minorUnits();
+
+            if (sourceBalance == null || !balances.containsKey(destinationId)) {
+                Long missingId = sourceBalance == null ? sourceId : destinationId;
+                results[i] = failed(request, ErrorCode.WALLET_NOT_FOUND, "Wallet with ID " + missingId + " not found");
+                continue;
+            }
+            if (sourceBalance < amount) {
+                results[i] = failed(request, ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance in wallet: " + sourceId);
+                continue;
+            }
+
+            balances.put(sourceId, sourceBalance - amount);
+            balances.merge(destinationId, amount, Math::addExact);
+            deltas.merge(sourceId, -amount, Math::addExact);
+            deltas.merge(destinationId, amount, Math::addExact);
+
+            logs.add(TransactionLog.builder()
+                    .sourceId(sourceId)
+                    .destinationId(destinationId)
+                    .amount(request.getAmount())
+                    .status(TransactionLog.TransactionStatus.SUCCESS)
+                    .referenceCode(request.getReferenceCode())
+                    .build());
+            results[i] = BatchTransferItemResult.builder()
+                    .referenceCode(request.getReferenceCode())
+                    .status(ItemStatus.SUCCESS)
+                    .sourceWalletBalanceAfter(Money.ofMinor(balances.get(sourceId)))
+                    .message("Transfer successful")
+                    .build();
+            applied.add(i);
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        deltas.values().removeIf(delta -> delta == 0);
+        Map<Long, Long> shardDeltas = new LinkedHashMap<>();
+        deltas.entrySet().removeIf(delta -> {
+            if (isSharded(wallets.get(delta.getKey()))) {
+                shardDeltas.put(delta.getKey(), delta.getValue());
+                return true;
+            }
+            return false;
+        });
+        Map<Long, WalletBalanceUpdate> written = Map.of();
+        if (!deltas.isEmpty()) {
+            written = batchRepository.applyBalanceDeltas(deltas, tokens.tokens());
+            Optional<Long> rejected = TransferBatchJdbcRepository.firstRejected(deltas, written);
+            if (rejected.isPresent()) {
+                // Only possible if the locks were lost to another holder or a writer bypassed them; roll back the chunk
+                if (!tokens.isEmpty()) {
+                    walletLockManager.checkFencing(tokens, walletRepository.findFencingTokens(tokens.tokens().keySet()));
+                }
+                throw new InsufficientBalanceException(rejected.get());
+            }
+        }
+        if (!shardDeltas.isEmpty()) {
+            shardedBalanceService.apply(shardDeltas);
+        }
+
+        // IDs come from the pooled sequence, so Hibernate assigns them now and flushes all rows as one JDBC batch
+        transactionLogRepository.saveAll(logs);
+        outboxRepository.append(logs);
+
+        // Balances and versions as the UPDATE left them, not as read: a writer without our locks may have come between
+        Map<Long, Long> versions = new HashMap<>();
+        List<WalletBalanceResponse> updated = new ArrayList<>();
+        for (Wallet wallet : wallets.values()) {
+            WalletBalanceUpdate update = written.get(wallet.getId());
+            if (update == null) {
+                // Shards change without a version bump: no version for a sharded wallet, as for single transfers
+                versions.put(wallet.getId(), isSharded(wallet) ? null : wallet.getVersion());
+                continue;
+            }
+            versions.put(wallet.getId(), update.getVersion());
+            if (update.getVersion() != null && wallet.getBalanceShards() == null) {
+                updated.add(new WalletBalanceResponse(wallet.getId(), Money.ofMinor(update.getBalance()), update.getVersion()));
+            }
+        }
+        balanceCache.putAfterCommit(updated);
+        for (int n = 0; n < applied.size(); n++) {
+            BatchTransferItemResult result = results[applied.get(n)];
+            result.setTransactionId(logs.get(n).getId());
+            result.setSourceWalletVersion(versions.get(requests.get(applied.get(n)).getSourceWalletId()));
+        }
+    }
+
+    private static void submitToLedger(LedgerEngine ledger, List<TransferRequest> requests, List<Integer> pending,
+                                       BatchTransferItemResult[] results) {
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>(pending.size());
+        for (Integer i : pending) {
+            try {
+                futures.add(ledger.submit(requests.get(i)));
+            } catch (RuntimeException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        for (int n = 0; n < pending.size(); n++) {
+            Integer i = pending.get(n);
+            TransferRequest request = requests.get(i);
+            try {
+                TransferResponse response = futures.get(n).join();
+                results[i] = BatchTransferItemResult.builder()
+                        .referenceCode(response.getReferenceCode())
+                        .status(ItemStatus.SUCCESS)
+                        .transactionId(response.getTransactionId())
+                        .sourceWalletBalanceAfter(response.getSourceWalletBalanceAfter())
+                        .message(response.getMessage())
+                        .build();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof BaseException cause) {
+                    results[i] = failed(request, cause.getErrorCode(), cause.getMessage());
+                } else {
+                    log.error("Ledger transfer {} failed", request.getReferenceCode(), e.getCause());
+                    results[i] = failed(request, ErrorCode.INTERNAL_SERVER_ERROR, "Transfer failed");
+                }
+            }
+        }
+    }
+
+    private static boolean isSharded(Wallet wallet) {
+        return wallet.getBalanceShards() != null;
+    }
+
+    private static boolean isValid(TransferRequest request) {
+        return request.getSourceWalletId() != null
+                && request.getDestinationWalletId() != null
+                && request.getAmount() != null
+                && request.getAmount().signum() > 0
+                && request.getReferenceCode() != null;
+    }
+
+    private static BatchTransferItemResult failed(TransferRequest request, ErrorCode errorCode, String message) {
+        return BatchTransferItemResult.builder()
+                .referenceCode(request.getReferenceCode())
+                .status(ItemStatus.FAILED)
+                .errorCode(errorCode.getValue())
+                .message(message)
+                .build();
+    }
+
+    private static int count(List<BatchTransferItemResult> results, ItemStatus status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+}
@@ -0,0 +1,226 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.TransferLeg;
+import com.fintech.fundtransfer.application.dto.TransferLegResult;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferPhase;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceUpdate;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Multi-leg (split) transfers: the source is debited once for the sum of all legs and every destination credited,
+ * under one lock set and in one transaction. The net change per wallet is written with one {@code UPDATE} (sharded
+ * hot wallets: through their balance shards), and every leg is logged as its own row under the request's reference
+ * code, numbered by {@code leg}.
+ */
+@Service
+public class MultiLegTransferService {
+
+    private final WalletJpaRepository walletRepository;
+    private final TransactionLogJpaRepository transactionLogRepository;
+    private final TransferBatchJdbcRepository batchRepository;
+    private final OutboxJdbcRepository outboxRepository;
+    private final WalletLockManager walletLockManager;
+    private final WalletBalanceCache balanceCache;
+    private final ShardedBalanceService shardedBalanceService;
+    private final int maxLegs;
+
+    public MultiLegTransferService(WalletJpaRepository walletRepository,
+                                   TransactionLogJpaRepository transactionLogRepository,
+                                   TransferBatchJdbcRepository batchRepository,
+                                   OutboxJdbcRepository outboxRepository,
+                                   WalletLockManager walletLockManager,
+                                   WalletBalanceCache balanceCache,
+                                   ShardedBalanceService shardedBalanceService,
+                                   @Value("${fund-transfer.multi-leg.max-legs:100}") int maxLegs) {
+        this.walletRepository = walletRepository;
+        this.transactionLogRepository = transactionLogRepository;
+        this.batchRepository = batchRepository;
+        this.outboxRepository = outboxRepository;
+        this.walletLockManager = walletLockManager;
+        this.balanceCache = balanceCache;
+        this.shardedBalanceService = shardedBalanceService;
+        this.maxLegs = maxLegs;
+    }
+
+    /**
+     * Validates the request and returns the wallets to lock, sorted: the source and every destination except sharded
+     * hot wallets, which are credited through their balance shards without a lock.
+     */
+    public List<Long> walletIds(TransferRequest request) {
+        if (request.getDestinationWalletId() != null || request.getAmount() != null) {
+            throw new InvalidRequestException("a multi-leg transfer takes its destinations and amounts from legs");
+        }
+        if (request.getSourceWalletId() == null || request.getLegs().isEmpty() || request.getLegs().size() > maxLegs) {
+            throw new InvalidRequestException("a multi-leg transfer needs a source wallet and 1 to " + maxLegs + " legs");
+        }
+        TreeSet<Long> walletIds = new TreeSet<>();
+        walletIds.add(request.getSourceWalletId());
+        for (TransferLeg leg : request.getLegs()) {
+            if (leg == null || leg.getDestinationWalletId() == null || leg.getAmount() == null || leg.getAmount().signum() <= 0) {
+                throw new InvalidRequestException("every leg needs a destination wallet and a positive amount");
+            }
+            if (!shardedBalanceService.isSharded(leg.getDestinationWalletId())) {
+                walletIds.add(leg.getDestinationWalletId());
+            }
+        }
+        return new ArrayList<>(walletIds);
+    }
+
+    /**
+     * Applies every leg. Must run in a transaction, under the locks of {@link #walletIds}.
+     */
+    public TransferResponse execute(TransferRequest request, List<Long> walletIds, FencingTokens tokens) {
+        Long sourceId = request.getSourceWalletId();
+        List<TransferLeg> legs = request.getLegs();
+
+        // 1. Existence and balance check; a sharded source is checked against its wallets row and shards together
+        TreeSet<Long> unlocked = new TreeSet<>();
+        legs.forEach(leg -> unlocked.add(leg.getDestinationWalletId()));
+        unlocked.removeAll(walletIds);
+        List<Long> involved = new ArrayList<>(walletIds);
+        involved.addAll(unlocked);
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllById(involved)) {
+            wallets.put(wallet.getId(), wallet);
+        }
+        for (Long id : involved) {
+            if (!wallets.containsKey(id)) {
+                throw new WalletNotFoundException(id);
+            }
+        }
+        long total = 0;
+        for (TransferLeg leg : legs) {
+            total = Math.addExact(total, leg.getAmount().minorUnits());
+        }
+        Wallet source = wallets.get(sourceId);
+        Money sourceBalance = isSharded(source) ? shardedBalanceService.balance(sourceId) : source.getBalance();
+        if (sourceBalance.minorUnits() < total) {
+            throw new InsufficientBalanceException(sourceId);
+        }
+
+        // 2. Net change per wallet (minor units): wallets rows with one UPDATE, sharded wallets through their shards
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        deltas.put(sourceId, -total);
+        for (TransferLeg leg : legs) {
+            deltas.merge(leg.getDestinationWalletId(), leg.getAmount().minorUnits(), Math::addExact);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        Map<Long, Long> shardDeltas = new LinkedHashMap<>();
+        deltas.entrySet().removeIf(delta -> {
+            if (isSharded(wallets.get(delta.getKey()))) {
+                shardDeltas.put(delta.getKey(), delta.getValue());
+                return true;
+            }
+            return false;
+        });
+        Map<Long, WalletBalanceUpdate> written = Map.of();
+        if (!deltas.isEmpty()) {
+            written = TransferTrace.time(TransferPhase.DB_TRANSFER,
+                    () -> batchRepository.applyBalanceDeltas(deltas, tokens.tokens()));
+            Optional<Long> rejected = TransferBatchJdbcRepository.firstRejected(deltas, written);
+            if (rejected.isPresent()) {
+                // Only possible if the locks were lost to another holder or a writer bypassed them
+                if (!tokens.isEmpty()) {
+                    walletLockManager.checkFencing(tokens, walletRepository.findFencingTokens(tokens.tokens().keySet()));
+                }
+                throw new InsufficientBalanceException(rejected.get());
+            }
+        }
+        Map<Long, Money> shardDebits = shardDeltas.isEmpty()
+                ? Map.of()
+                : TransferTrace.time(TransferPhase.DB_TRANSFER, () -> shardedBalanceService.apply(shardDeltas));
+
+        // 3. One log row per leg under the request's reference code
+        List<TransactionLog> logs = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            logs.add(TransactionLog.builder()
+                    .sourceId(sourceId)
+                    .destinationId(legs.get(i).getDestinationWalletId())
+                    .amount(legs.get(i).getAmount())
+                    .status(TransactionLog.TransactionStatus.SUCCESS)
+                    .referenceCode(request.getReferenceCode())
+                    .leg(i)
+                    .build());
+        }
+        // IDs come from the pooled sequence, so Hibernate assigns them now and flushes all rows as one JDBC batch
+        TransferTrace.run(TransferPhase.DB_LOG, () -> transactionLogRepository.saveAll(logs));
+        TransferTrace.run(TransferPhase.DB_OUTBOX, () -> outboxRepository.append(logs));
+
+        // Read model: balances and versions as the UPDATE left them, not as read
+        List<WalletBalanceResponse> updated = new ArrayList<>();
+        for (WalletBalanceUpdate update : written.values()) {
+            if (update.getVersion() != null && wallets.get(update.getId()).getBalanceShards() == null) {
+                updated.add(new WalletBalanceResponse(update.getId(), Money.ofMinor(update.getBalance()), update.getVersion()));
+            }
+        }
+        balanceCache.putAfterCommit(updated);
+
+        WalletBalanceUpdate sourceUpdate = written.get(sourceId);
+        Money sourceBalanceAfter = sourceUpdate != null ? Money.ofMinor(sourceUpdate.getBalance()) : source.getBalance();
+        Long sourceVersion = sourceUpdate != null ? sourceUpdate.getVersion() : source.getVersion();
+        if (isSharded(source)) {
+            // Its shards change without a version bump, as for single transfers
+            sourceBalanceAfter = shardDebits.getOrDefault(sourceId, sourceBalance);
+            sourceVersion = null;
+        }
+        return TransferResponse.builder()
+                .transactionId(logs.get(0).getId())
+                .referenceCode(request.getReferenceCode())
+                .sourceWalletBalanceAfter(sourceBalanceAfter)
+                .sourceWalletVersion(sourceVersion)
+                .message("Transfer successful")
+                .legs(legResults(logs))
+                .build();
+    }
+
+    /**
+     * Legs of a completed multi-leg transfer, for duplicate requests answered from the database.
+     */
+    public List<TransferLegResult> findLegs(String referenceCode, Instant since) {
+        return legResults(transactionLogRepository.findByReferenceCodeAndCreatedAtGreaterThanEqualOrderByLeg(referenceCode, since));
+    }
+
+    private static boolean isSharded(Wallet wallet) {
+        return wallet.getBalanceShards() != null;
+    }
+
+    private static List<TransferLegResult> legResults(List<TransactionLog> logs) {
+        List<TransferLegResult> results = new ArrayList<>(logs.size());
+        for (TransactionLog log : logs) {
+            results.add(TransferLegResult.builder()
+                    .leg(log.getLeg())
+                    .transactionId(log.getId())
+                    .destinationWalletId(log.getDestinationId())
+                    .amount(log.getAmount())
+                    .build());
+        }
+        return results;
+    }
+}
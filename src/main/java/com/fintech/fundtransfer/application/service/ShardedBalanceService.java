@@ -0,0 +1,181 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletShardJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balances of hot wallets, split over {@code wallet_balance_shards} rows.
+ * <p>
+ * A hot wallet's balance is the sum of its {@code wallets} row and its shards. Credits go to any shard that is
+ * not locked right now, so they need no wallet lock and do not queue behind each other. Debits draw from a
+ * single shard that covers the amount; if none does, all shards are locked and the remaining balance is spread
+ * over them again.
+ */
+@Service
+@Slf4j
+public class ShardedBalanceService {
+
+    private final WalletShardJdbcRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final WalletBalanceCache balanceCache;
+    private final int defaultShards;
+    private final List<Long> hotWalletIds;
+
+    // Refreshed from the database, so a wallet sharded by another pod is missing here for up to refresh-ms. Credits
+    // routed to its wallets row still count; debits there are rejected once the row was emptied into the shards,
+    // and TransferService retries them through the shards after a refresh. Wallets are never unsharded.
+    private volatile Map<Long, Integer> shardedWallets = Map.of();
+
+    public ShardedBalanceService(WalletShardJdbcRepository shardRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 WalletBalanceCache balanceCache,
+                                 @Value("${fund-transfer.sharding.shards:8}") int defaultShards,
+                                 @Value("${fund-transfer.sharding.hot-wallet-ids:}") List<Long> hotWalletIds) {
+        this.shardRepository = shardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.balanceCache = balanceCache;
+        this.defaultShards = defaultShards;
+        this.hotWalletIds = hotWalletIds;
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+        for (Long walletId : hotWalletIds) {
+            if (shardedWallets.getOrDefault(walletId, 0) < defaultShards) {
+                try {
+                    enableSharding(walletId, defaultShards);
+                } catch (WalletNotFoundException e) {
+                    log.warn("Configured hot wallet {} does not exist", walletId);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.sharding.refresh-ms:30000}",
+            initialDelayString = "${fund-transfer.sharding.refresh-ms:30000}")
+    public void refresh() {
+        shardedWallets = Map.copyOf(shardRepository.findShardedWallets());
+    }
+
+    public boolean isSharded(Long walletId) {
+        return shardedWallets.containsKey(walletId);
+    }
+
+    /**
+     * Splits the wallet's balance over {@code shards} shards. The shard count never shrinks.
+     */
+    public void enableSharding(Long walletId, int shards) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> balances = shardRepository.lockAllBalances(walletId);
+            if (balances.isEmpty()) {
+                throw new WalletNotFoundException(walletId);
+            }
+            int count = Math.max(shards, balances.size() - 1);
+            shardRepository.createShards(walletId, count);
+            shardRepository.writeShards(walletId, spread(sum(balances), count));
+        });
+        refresh();
+        // From now on its shards change without a version bump, so it is read from the database only
+        balanceCache.evict(walletId);
+        log.info("Wallet {} is sharded into {} balance shards", walletId, shardedWallets.get(walletId));
+    }
+
+    /**
+     * Debits a hot wallet within the caller's transaction.
+     *
+     * @return the wallet's total balance after the debit
+     */
+    public Money debit(Long walletId, Money amount) {
+        if (!shardRepository.debitAnyShard(walletId, preferredShard(walletId), amount.minorUnits())) {
+            // No unlocked shard covers the amount on its own: gather everything and spread the rest again
+            meterRegistry.counter("fund_transfer.shard_rebalances").increment();
+            List<Long> balances = shardRepository.lockAllBalances(walletId);
+            if (balances.isEmpty()) {
+                throw new WalletNotFoundException(walletId);
+            }
+            long total = sum(balances);
+            if (total < amount.minorUnits()) {
+                throw new InsufficientBalanceException(walletId);
+            }
+            shardRepository.writeShards(walletId, spread(total - amount.minorUnits(), balances.size() - 1));
+        }
+        return Money.ofMinor(shardRepository.totalBalance(walletId));
+    }
+
+    /**
+     * Credits a hot wallet within the caller's transaction, waiting for a shard only if all of them are locked.
+     */
+    public void credit(Long walletId, Money amount) {
+        int preferred = preferredShard(walletId);
+        if (!shardRepository.creditAnyShard(walletId, preferred, amount.minorUnits())
+                && !shardRepository.creditShard(walletId, preferred, amount.minorUnits())) {
+            throw new WalletNotFoundException(walletId);
+        }
+    }
+
+    /**
+     * A hot wallet's total balance: its wallets row and all its shards.
+     */
+    public Money balance(Long walletId) {
+        return Money.ofMinor(shardRepository.totalBalance(walletId));
+    }
+
+    /**
+     * Applies the net change (minor units) of each hot wallet in {@code deltas} within the caller's transaction:
+     * debits through {@link #debit}, so they need the wallet's lock, credits through {@link #credit}.
+     *
+     * @return the total balance after the debit of each debited wallet
+     */
+    public Map<Long, Money> apply(Map<Long, Long> deltas) {
+        Map<Long, Money> debited = new HashMap<>();
+        deltas.forEach((walletId, delta) -> {
+            if (delta < 0) {
+                debited.put(walletId, debit(walletId, Money.ofMinor(-delta)));
+            } else if (delta > 0) {
+                credit(walletId, Money.ofMinor(delta));
+            }
+        });
+        return debited;
+    }
+
+    private int preferredShard(Long walletId) {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, shardedWallets.getOrDefault(walletId, 1)));
+    }
+
+    private static long sum(List<Long> balances) {
+        long total = 0;
+        for (long balance : balances) {
+            total = Math.addExact(total, balance);
+        }
+        return total;
+    }
+
+    // Minor units; the rounding remainder goes to the first shard
+    static List<Long> spread(long total, int shards) {
+        long share = total / shards;
+        List<Long> balances = new ArrayList<>(Collections.nCopies(shards, share));
+        balances.set(0, total - share * (shards - 1));
+        return balances;
+    }
+}
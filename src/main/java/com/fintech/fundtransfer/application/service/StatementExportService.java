@@ -0,0 +1,95 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.infrastructure.export.StatementFormat;
+import com.fintech.fundtransfer.infrastructure.export.StatementWriter;
+import com.fintech.fundtransfer.infrastructure.persistence.StatementJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.StatementQuery;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Wallet statements for reconciliation, streamed from one database cursor into a byte channel. A statement is one
+ * snapshot of the live and archived logs, so a day archived during the export is neither lost nor repeated.
+ */
+@Service
+public class StatementExportService {
+
+    private final WalletJpaRepository walletRepository;
+    private final StatementJdbcRepository statementRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int fetchSize;
+    private final int bufferBytes;
+
+    public StatementExportService(WalletJpaRepository walletRepository,
+                                  StatementJdbcRepository statementRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${fund-transfer.statement.fetch-size:5000}") int fetchSize,
+                                  @Value("${fund-transfer.statement.buffer-bytes:65536}") int bufferBytes) {
+        this.walletRepository = walletRepository;
+        this.statementRepository = statementRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.fetchSize = fetchSize;
+        this.bufferBytes = bufferBytes;
+    }
+
+    /**
+     * Validates a statement request for the UTC days {@code from} to {@code to}, both inclusive.
+     *
+     * @param after {@code <created_at>,<id>} of the last row already received, to resume an interrupted export
+     */
+    public StatementQuery prepare(Long walletId, LocalDate from, LocalDate to, String after) {
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("statement end " + to + " is before its start " + from);
+        }
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletNotFoundException(walletId);
+        }
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (after == null || after.isBlank()) {
+            return StatementQuery.of(walletId, start, end);
+        }
+        int separator = after.lastIndexOf(',');
+        try {
+            return new StatementQuery(walletId, start, end, Instant.parse(after.substring(0, separator).trim()),
+                    Long.parseLong(after.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new InvalidRequestException("'after' must be '<created_at>,<id>' of a statement row");
+        }
+    }
+
+    /**
+     * Writes the statement to {@code channel}; the channel is not closed.
+     *
+     * @return the number of rows written
+     */
+    public long export(StatementQuery query, StatementFormat format, WritableByteChannel channel) throws IOException {
+        StatementWriter writer = new StatementWriter(channel, format, query.walletId(), bufferBytes);
+        writer.writeHeader();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> statementRepository.stream(query, fetchSize, writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        meterRegistry.counter("fund_transfer.statement.rows", "format", format.name().toLowerCase()).increment(writer.rows());
+        return writer.rows();
+    }
+}
@@ -0,0 +1,126 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogPartitionJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Lifecycle of the daily {@code transaction_logs} partitions.
+ * <p>
+ * Partitions are created {@code partitions-ahead-days} in advance, partitions older than {@code retention-days}
+ * are moved to {@code transaction_logs_archive}, and reference codes older than the idempotency window are
+ * released. Idempotency lookups only look at partitions inside that window, so their cost and the size of the
+ * indexes they touch do not depend on how much history is kept.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class TransactionLogRetention {
+
+    private final TransactionLogPartitionJdbcRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitionsAheadDays;
+    private final Duration idempotencyWindow;
+    private final int retentionDays;
+    private final int pruneBatchSize;
+    private final Counter archivedRows;
+    private final Counter releasedReferenceCodes;
+
+    public TransactionLogRetention(TransactionLogPartitionJdbcRepository partitionRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${fund-transfer.transaction-log.partitions-ahead-days:7}") int partitionsAheadDays,
+                                   @Value("${fund-transfer.transaction-log.idempotency-window-days:7}") int idempotencyWindowDays,
+                                   @Value("${fund-transfer.transaction-log.retention-days:90}") int retentionDays,
+                                   @Value("${fund-transfer.transaction-log.prune-batch-size:10000}") int pruneBatchSize) {
+        if (retentionDays <= idempotencyWindowDays) {
+            throw new IllegalArgumentException("fund-transfer.transaction-log.retention-days (" + retentionDays
+                    + ") must exceed the idempotency window (" + idempotencyWindowDays + " days)");
+        }
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionsAheadDays = partitionsAheadDays;
+        this.idempotencyWindow = Duration.ofDays(idempotencyWindowDays);
+        this.retentionDays = retentionDays;
+        this.pruneBatchSize = pruneBatchSize;
+        this.archivedRows = meterRegistry.counter("fund_transfer.transaction_log.archived_rows");
+        this.releasedReferenceCodes = meterRegistry.counter("fund_transfer.transaction_log.released_reference_codes");
+    }
+
+    /**
+     * Oldest creation time a duplicate reference code is still looked up from.
+     */
+    public Instant idempotencyWindowStart() {
+        return Instant.now().minus(idempotencyWindow);
+    }
+
+    @PostConstruct
+    void init() {
+        // Before the first transfer: rows of a day that has no partition yet would block creating it
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.transaction-log.maintenance-ms:3600000}",
+            initialDelayString = "${fund-transfer.transaction-log.maintenance-ms:3600000}")
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Set<LocalDate> existing = new HashSet<>(partitionRepository.findPartitionDays());
+
+        // 1. Partitions ahead of time, so inserts never land in the default partition
+        for (int offset = 0; offset <= partitionsAheadDays; offset++) {
+            LocalDate day = today.plusDays(offset);
+            if (!existing.contains(day)) {
+                underMaintenanceLock(() -> {
+                    partitionRepository.createPartition(day);
+                    return 1;
+                });
+            }
+        }
+
+        // 2. Days past the retention period move to the archive
+        LocalDate archiveBefore = today.minusDays(retentionDays);
+        for (LocalDate day : existing) {
+            if (day.isBefore(archiveBefore)) {
+                int archived = underMaintenanceLock(() -> partitionRepository.archivePartition(day));
+                if (archived >= 0) {
+                    log.info("Archived {} transaction logs of {}", archived, day);
+                    archivedRows.increment(archived);
+                }
+            }
+        }
+
+        // 3. Reference codes outside the idempotency window may be used again
+        Instant windowStart = idempotencyWindowStart();
+        int released;
+        do {
+            released = underMaintenanceLock(() -> partitionRepository.deleteReferenceCodesBefore(windowStart, pruneBatchSize));
+            releasedReferenceCodes.increment(Math.max(released, 0));
+        } while (released >= pruneBatchSize);
+    }
+
+    private int underMaintenanceLock(IntSupplier step) {
+        try {
+            Integer result = transactionTemplate.execute(status -> partitionRepository.tryMaintenanceLock() ? step.getAsInt() : -1);
+            return result != null ? result : -1;
+        } catch (RuntimeException e) {
+            // DDL lock timeouts included: the next run retries
+            log.warn("Transaction log maintenance step failed", e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult;
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult.ItemStatus;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.exception.DuplicateTransactionException;
+import com.fintech.fundtransfer.domain.exception.ErrorCode;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit per source wallet (enabled with {@code fund-transfer.coalescing.enabled=true}).
+ * <p>
+ * Transfers from the same source that arrive within {@code window-ms} are gathered and executed together by
+ * {@link BatchTransferService#transferGroup}: one lock set, balance checks in arrival order and one transaction.
+ * A group closes early once it reaches {@code max-batch-size}; transfers arriving while a group commits form the
+ * next group right away. For a payout wallet this replaces one lock hand-off and commit per transfer with one per
+ * group.
+ */
+@Service
+@ConditionalOnProperty(name = "fund-transfer.coalescing.enabled", havingValue = "true")
+public class TransferCoalescer {
+
+    private final BatchTransferService batchTransferService;
+    private final WalletJpaRepository walletRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService committers;
+    private final DistributionSummary groupSizes;
+    private final Map<Long, WalletQueue> queues = new ConcurrentHashMap<>();
+
+    public TransferCoalescer(BatchTransferService batchTransferService,
+                             WalletJpaRepository walletRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${fund-transfer.coalescing.window-ms:2}") long windowMillis,
+                             @Value("${fund-transfer.coalescing.max-batch-size:200}") int maxBatchSize,
+                             @Value("${fund-transfer.coalescing.committer-threads:16}") int committerThreads) {
+        this.batchTransferService = batchTransferService;
+        this.walletRepository = walletRepository;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.committers = Executors.newScheduledThreadPool(committerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-coalescer-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.groupSizes = DistributionSummary.builder("fund_transfer.coalescing.group_size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        committers.shutdown();
+        committers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public TransferResponse transfer(TransferRequest request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<TransferResponse> submit(TransferRequest request) {
+        Long sourceId = request.getSourceWalletId();
+        WalletQueue queue = queues.computeIfAbsent(sourceId, id -> new WalletQueue());
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        queue.items.offer(pending);
+        int size = queue.size.incrementAndGet();
+
+        if (queue.scheduled.compareAndSet(false, true)) {
+            committers.schedule(() -> drain(sourceId, queue), windowNanos, TimeUnit.NANOSECONDS);
+        } else if (size == maxBatchSize) {
+            // Full group: no need to wait for the rest of the window
+            committers.execute(() -> drain(sourceId, queue));
+        }
+        return pending.future;
+    }
+
+    private void drain(Long sourceId, WalletQueue queue) {
+        List<Pending> group = new ArrayList<>();
+        Pending pending;
+        while (group.size() < maxBatchSize && (pending = queue.items.poll()) != null) {
+            queue.size.decrementAndGet();
+            group.add(pending);
+        }
+        if (!group.isEmpty()) {
+            commit(group);
+        }
+
+        if (!queue.items.isEmpty()) {
+            committers.execute(() -> drain(sourceId, queue));
+            return;
+        }
+        queue.scheduled.set(false);
+        if (!queue.items.isEmpty() && queue.scheduled.compareAndSet(false, true)) {
+            committers.execute(() -> drain(sourceId, queue));
+        } else {
+            // A submitter still holding this queue schedules its own drain, so dropping it from the map is safe
+            queues.remove(sourceId, queue);
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        groupSizes.record(group.size());
+        commitIsolating(group);
+    }
+
+    /**
+     * Commits the group; if the grouped transaction throws (a reference code committed by another pod, a rejected
+     * balance update), it was rolled back as a whole, so the halves are retried in arrival order until only the
+     * item that actually fails is left to fail.
+     */
+    private void commitIsolating(List<Pending> group) {
+        List<BatchTransferItemResult> results;
+        try {
+            results = batchTransferService.transferGroup(group.stream().map(Pending::request).toList());
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).future.completeExceptionally(e);
+                return;
+            }
+            int half = group.size() / 2;
+            commitIsolating(group.subList(0, half));
+            commitIsolating(group.subList(half, group.size()));
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            Pending p = group.get(i);
+            try {
+                p.future.complete(toResponse(p.request, results.get(i)));
+            } catch (RuntimeException e) {
+                p.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private TransferResponse toResponse(TransferRequest request, BatchTransferItemResult result) {
+        if (result.getStatus() == ItemStatus.SUCCESS) {
+            return TransferResponse.builder()
+                    .transactionId(result.getTransactionId())
+                    .referenceCode(result.getReferenceCode())
+                    .sourceWalletBalanceAfter(result.getSourceWalletBalanceAfter())
+                    .sourceWalletVersion(result.getSourceWalletVersion())
+                    .message("Transfer successful")
+                    .build();
+        }
+        if (result.getStatus() == ItemStatus.DUPLICATE) {
+            // Committed earlier: the caller answers it like a unique constraint violation, from the stored log
+            throw new DataIntegrityViolationException("Reference code " + request.getReferenceCode() + " is already committed");
+        }
+        if (ErrorCode.INSUFFICIENT_BALANCE.getValue().equals(result.getErrorCode())) {
+            throw new InsufficientBalanceException(request.getSourceWalletId());
+        }
+        if (ErrorCode.WALLET_NOT_FOUND.getValue().equals(result.getErrorCode())) {
+            throw new WalletNotFoundException(walletRepository.existsById(request.getSourceWalletId())
+                    ? request.getDestinationWalletId() : request.getSourceWalletId());
+        }
+        if (ErrorCode.DUPLICATE_TRANSACTION.getValue().equals(result.getErrorCode())) {
+            throw new DuplicateTransactionException(request.getReferenceCode());
+        }
+        if (ErrorCode.INVALID_REQUEST.getValue().equals(result.getErrorCode())) {
+            throw new InvalidRequestException(result.getMessage());
+        }
+        throw new IllegalStateException("Coalesced transfer " + request.getReferenceCode() + " failed: " + result.getMessage());
+    }
+
+    private static final class WalletQueue {
+        private final Queue<Pending> items = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    private record Pending(TransferRequest request, CompletableFuture<TransferResponse> future) {
+    }
+}
@@ -2,27 +2,48 @@ package com.fintech.fundtransfer.application.service;
 
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.application.ledger.LedgerEngine;
+import com.fintech.fundtransfer.domain.exception.DuplicateTransactionException;
 import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
 import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
 import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
 import com.fintech.fundtransfer.domain.model.TransactionLog;
-import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyGuard;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferMetrics;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferPhase;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
 import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferSnapshot;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceRow;
 import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletTransferResult;
+import com.fintech.fundtransfer.infrastructure.retry.ContentionAwareRetry;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -31,96 +52,377 @@ public class TransferService {
 
     private final WalletJpaRepository walletRepository;
     private final TransactionLogJpaRepository transactionLogRepository;
-    private final RedissonClient redissonClient;
+    private final OutboxJdbcRepository outboxRepository;
+    private final WalletLockManager walletLockManager;
+    private final DatabaseWalletLocker databaseWalletLocker;
+    private final IdempotencyGuard idempotencyGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentionAwareRetry retry;
     private final MeterRegistry meterRegistry;
+    private final TransferMetrics transferMetrics;
+    private final ShardedBalanceService shardedBalanceService;
+    private final MultiLegTransferService multiLegTransferService;
+    private final TransactionLogRetention transactionLogRetention;
+    private final WalletBalanceCache balanceCache;
+    private final Optional<LedgerEngine> ledgerEngine;
+    private final Optional<TransferCoalescer> transferCoalescer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
 
-    private static final String LOCK_PREFIX = "wallet_lock:";
+    @PostConstruct
+    void registerGauges() {
+        // With platform threads in-flight transfers are capped by the Tomcat pool; with virtual threads by lock waits
+        meterRegistry.gauge("fund_transfer.in_flight", inFlight);
+        meterRegistry.gauge("fund_transfer.in_flight_peak", peakInFlight);
+    }
 
-    @Retryable(
-            retryFor = {ObjectOptimisticLockingFailureException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 100)
-    )
-    @Transactional(isolation = Isolation.READ_COMMITTED)
     public TransferResponse transferFunds(TransferRequest request) {
-        Timer.Sample totalTimerSample = Timer.start(meterRegistry);
-
-        // 1. Idempotency Check
-        var existingTx = transactionLogRepository.findByReferenceCode(request.getReferenceCode());
-        if (existingTx.isPresent()) {
-            log.info("Duplicate transaction detected for reference code: {}", request.getReferenceCode());
-            TransactionLog tx = existingTx.get();
-            Wallet source = walletRepository.findById(request.getSourceWalletId())
-                    .orElseThrow(() -> new WalletNotFoundException(request.getSourceWalletId()));
-            return TransferResponse.builder()
-                    .transactionId(tx.getId())
-                    .referenceCode(tx.getReferenceCode())
-                    .sourceWalletBalanceAfter(source.getBalance())
-                    .message("Duplicate transaction - returning existing state")
-                    .build();
-        }
-
-        // 2. Deadlock Prevention (Sort IDs)
-        Long firstId = Math.min(request.getSourceWalletId(), request.getDestinationWalletId());
-        Long secondId = Math.max(request.getSourceWalletId(), request.getDestinationWalletId());
-
-        RLock lock1 = redissonClient.getLock(LOCK_PREFIX + firstId);
-        RLock lock2 = redissonClient.getLock(LOCK_PREFIX + secondId);
-
-        Timer.Sample lockTimerSample = Timer.start(meterRegistry);
+        return transferFunds(request, null, null);
+    }
+
+    /**
+     * {@link #transferFunds(TransferRequest)} with the reservation from {@link #reserveAsync} and the wallet locks
+     * already taken by {@link AsyncTransferService}. The locks are only used if they are the locks the transfer's
+     * route takes; otherwise they are released before the route's own locks are taken. The caller closes them.
+     */
+    TransferResponse transferFunds(TransferRequest request, IdempotencyReservation reserved, WalletLocks preAcquired) {
+        // Phase timings of this transfer, recorded with its outcome once it ends
+        TransferTrace trace = transferMetrics.start();
+        try {
+            TransferResponse response = transfer(request, trace, reserved, preAcquired);
+            trace.succeeded();
+            return response;
+        } catch (RuntimeException e) {
+            trace.failed(e);
+            throw e;
+        } finally {
+            trace.close();
+        }
+    }
+
+    private TransferResponse transfer(TransferRequest request, TransferTrace trace, IdempotencyReservation reserved,
+                                      WalletLocks preAcquired) {
+        validate(request);
+        String referenceCode = request.getReferenceCode();
+
+        // 1. Idempotency Check (Redis reservation; the DB is only asked when the code may have completed before)
+        IdempotencyReservation reservation = reserved != null ? reserved : TransferTrace.time(TransferPhase.IDEMPOTENCY,
+                () -> idempotencyGuard.reserve(referenceCode));
+        if (reservation.getState() == State.COMPLETED) {
+            log.info("Duplicate transaction detected for reference code: {}", referenceCode);
+            trace.duplicate();
+            return asDuplicate(reservation.getResponse());
+        }
+        if (reservation.getState() == State.IN_FLIGHT) {
+            throw new DuplicateTransactionException(referenceCode);
+        }
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
         try {
-            // Layer 1: Distributed Locking
-            boolean acquired1 = lock1.tryLock(5, 10, TimeUnit.SECONDS);
-            boolean acquired2 = lock2.tryLock(5, 10, TimeUnit.SECONDS);
+            if (reservation.getState() == State.UNAVAILABLE
+                    || idempotencyGuard.mightHaveCompleted(referenceCode)) {
+                Optional<TransferResponse> existing = TransferTrace.time(TransferPhase.IDEMPOTENCY, () -> findExisting(request));
+                if (existing.isPresent()) {
+                    trace.duplicate();
+                    return existing.get();
+                }
+            }
 
-            if (acquired1 && acquired2) {
-                lockTimerSample.stop(meterRegistry.timer("fund_transfer.lock_acquisition_time"));
-                return executeTransfer(request);
+            TransferResponse response;
+            if (request.hasLegs()) {
+                // 2. Multi-leg: every involved wallet locked once (sorted), all legs applied in one transaction
+                if (ledgerEngine.isPresent()) {
+                    throw new InvalidRequestException("multi-leg transfers are not supported in ledger mode");
+                }
+                List<Long> walletIds = multiLegTransferService.walletIds(request);
+                response = underWalletLocks(walletIds, preAcquired, tokens -> multiLegTransferService.execute(request, walletIds, tokens));
+            } else if (ledgerEngine.isPresent()) {
+                // 2. Ledger mode: applied lock-free by the owning shard, persisted write-behind
+                response = TransferTrace.time(TransferPhase.LEDGER, () -> ledgerEngine.get().transfer(request));
+            } else if (shardedBalanceService.isSharded(request.getSourceWalletId())
+                    || shardedBalanceService.isSharded(request.getDestinationWalletId())) {
+                // 2. Hot wallet: credits to a sharded destination take no lock, so only the source is locked for it
+                List<Long> lockIds = shardedBalanceService.isSharded(request.getDestinationWalletId())
+                        ? List.of(request.getSourceWalletId())
+                        : List.of(request.getSourceWalletId(), request.getDestinationWalletId());
+                response = underWalletLocks(lockIds, preAcquired, tokens -> executeShardedTransfer(request, tokens));
+            } else if (transferCoalescer.isPresent()) {
+                // 2. Group commit: locked and committed together with other transfers from the same source
+                response = TransferTrace.time(TransferPhase.GROUP_COMMIT, () -> transferCoalescer.get().transfer(request));
             } else {
-                throw new LockAcquisitionException("Unable to acquire locks for both wallets");
+                // 2. Layer 1: Wallet Locking (sorted IDs; Redis or database row locks), released after commit
+                response = underWalletLocks(List.of(request.getSourceWalletId(), request.getDestinationWalletId()), preAcquired,
+                        tokens -> executeTransfer(request, tokens));
+            }
+            TransferTrace.run(TransferPhase.IDEMPOTENCY, () -> idempotencyGuard.complete(referenceCode, response));
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // Same reference code committed by a request the reservation no longer covered (expired or other pod)
+            Optional<TransferResponse> existing = findExisting(request);
+            if (existing.isPresent()) {
+                trace.duplicate();
+                return existing.get();
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new LockAcquisitionException("Lock acquisition process was interrupted");
+            idempotencyGuard.release(referenceCode);
+            throw e;
+        } catch (RuntimeException e) {
+            idempotencyGuard.release(referenceCode);
+            throw e;
         } finally {
-            if (lock2.isHeldByCurrentThread()) lock2.unlock();
-            if (lock1.isHeldByCurrentThread()) lock1.unlock();
-            totalTimerSample.stop(meterRegistry.timer("fund_transfer.transaction_duration"));
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * The idempotency reservation for {@link AsyncTransferService}, taken before any wallet lock so that duplicates
+     * cost no lock round trip. Completes with {@code null} for an invalid request, which
+     * {@link #transferFunds(TransferRequest, IdempotencyReservation, WalletLocks)} then rejects.
+     */
+    CompletableFuture<IdempotencyReservation> reserveAsync(TransferRequest request) {
+        try {
+            validate(request);
+        } catch (InvalidRequestException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return idempotencyGuard.reserveAsync(request.getReferenceCode());
+    }
+
+    /**
+     * Drops a reservation from {@link #reserveAsync} that no transfer is going to complete.
+     */
+    void release(TransferRequest request, IdempotencyReservation reserved) {
+        if (reserved != null && reserved.getState() == State.ACQUIRED) {
+            idempotencyGuard.release(request.getReferenceCode());
+        }
+    }
+
+    /**
+     * The wallets whose Redis locks the transfer's route takes, or none if it takes no Redis locks (ledger mode,
+     * group commit, database row locks). Mirrors the routing in {@link #transfer}.
+     */
+    List<Long> redisLockIds(TransferRequest request) {
+        if (ledgerEngine.isPresent() || databaseWalletLocker.isActive()) {
+            return List.of();
+        }
+        if (request.hasLegs()) {
+            return multiLegTransferService.walletIds(request);
+        }
+        if (request.getSourceWalletId() == null || request.getDestinationWalletId() == null) {
+            // Rejected by the transfer itself
+            return List.of();
+        }
+        if (shardedBalanceService.isSharded(request.getDestinationWalletId())) {
+            return List.of(request.getSourceWalletId());
+        }
+        if (shardedBalanceService.isSharded(request.getSourceWalletId()) || transferCoalescer.isEmpty()) {
+            return List.of(request.getSourceWalletId(), request.getDestinationWalletId());
+        }
+        return List.of();
+    }
+
+    private static void validate(TransferRequest request) {
+        // Before the reservation: a missing reference code would reserve the shared key for "null"
+        if (request.getReferenceCode() == null || request.getReferenceCode().isBlank()) {
+            throw new InvalidRequestException("a transfer needs a reference code");
+        }
+        if (request.hasLegs()) {
+            // Legs are checked by MultiLegTransferService.walletIds
+            return;
+        }
+        if (request.getSourceWalletId() == null || request.getDestinationWalletId() == null
+                || request.getAmount() == null || request.getAmount().signum() <= 0) {
+            throw new InvalidRequestException("a transfer needs source and destination wallets and a positive amount");
+        }
+    }
+
+    private TransferResponse underWalletLocks(List<Long> walletIds, WalletLocks preAcquired,
+                                              Function<FencingTokens, TransferResponse> transfer) {
+        // Concurrency failures retry the transaction only, never the idempotency check or the Redis locks
+        if (databaseWalletLocker.isActive()) {
+            // Row locks are taken first thing in the transaction and released by its commit; writes are not fenced
+            return retry.execute(walletIds, () -> transactionTemplate.execute(status -> {
+                databaseWalletLocker.lock(walletIds);
+                TransferResponse response = transfer.apply(FencingTokens.NONE);
+                TransferTrace.commitPhase();
+                return response;
+            }));
+        }
+        if (preAcquired != null) {
+            if (preAcquired.getWalletIds().equals(new ArrayList<>(new TreeSet<>(walletIds)))) {
+                return underFencingTokens(walletIds, preAcquired.getFencingTokens(), transfer);
+            }
+            // Taken for a route that changed since (shard map refresh): held on, they would block the acquire below
+            preAcquired.close();
+        }
+        try (WalletLocks locks = walletLockManager.acquire(walletIds)) {
+            return underFencingTokens(walletIds, locks.getFencingTokens(), transfer);
+        }
+    }
+
+    private TransferResponse underFencingTokens(List<Long> walletIds, FencingTokens tokens,
+                                                Function<FencingTokens, TransferResponse> transfer) {
+        return retry.execute(walletIds, () -> transactionTemplate.execute(status -> {
+            TransferResponse response = transfer.apply(tokens);
+            TransferTrace.commitPhase();
+            return response;
+        }));
+    }
+
+    private Optional<TransferResponse> findExisting(TransferRequest request) {
+        // One join query for the existing transaction and the current source balance
+        var existingTx = transactionLogRepository.findSnapshotByReferenceCode(request.getReferenceCode(),
+                transactionLogRetention.idempotencyWindowStart());
+        if (existingTx.isEmpty()) {
+            return Optional.empty();
         }
+
+        log.info("Duplicate transaction detected for reference code: {}", request.getReferenceCode());
+        TransferSnapshot tx = existingTx.get();
+        TransferResponse response = TransferResponse.builder()
+                .transactionId(tx.getTransactionId())
+                .referenceCode(tx.getReferenceCode())
+                .sourceWalletBalanceAfter(Money.ofMinor(tx.getSourceBalance()))
+                .message("Duplicate transaction - returning existing state")
+                .duplicate(true)
+                .legs(request.hasLegs() ? multiLegTransferService.findLegs(request.getReferenceCode(),
+                        transactionLogRetention.idempotencyWindowStart()) : null)
+                .build();
+        idempotencyGuard.complete(request.getReferenceCode(), response);
+        return Optional.of(response);
     }
 
-    private TransferResponse executeTransfer(TransferRequest request) {
-        // Fetch entities for Layer 2: Optimistic Locking (@Version)
-        Wallet source = walletRepository.findById(request.getSourceWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(request.getSourceWalletId()));
-        walletRepository.findById(request.getDestinationWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(request.getDestinationWalletId()));
+    private static TransferResponse asDuplicate(TransferResponse original) {
+        return TransferResponse.builder()
+                .transactionId(original.getTransactionId())
+                .referenceCode(original.getReferenceCode())
+                .sourceWalletBalanceAfter(original.getSourceWalletBalanceAfter())
+                .sourceWalletVersion(original.getSourceWalletVersion())
+                .message("Duplicate transaction - returning existing state")
+                .duplicate(true)
+                .legs(original.getLegs())
+                .build();
+    }
 
-        // Layer 3: Database Integrity (Native Query)
-        int updated = walletRepository.decrementBalance(source.getId(), request.getAmount());
-        if (updated == 0) {
-            throw new InsufficientBalanceException(source.getId());
+    private void checkFencing(FencingTokens tokens) {
+        // A guarded write was rejected: tell a lock taken over by another holder apart from the business failure
+        if (!tokens.isEmpty()) {
+            walletLockManager.checkFencing(tokens, walletRepository.findFencingTokens(tokens.tokens().keySet()));
         }
+    }
 
-        walletRepository.incrementBalance(request.getDestinationWalletId(), request.getAmount());
+    /**
+     * Whether a rejected debit hit a source that another pod sharded after this pod's last refresh: its wallets row
+     * was emptied into the shards, so the debit has to go through them. The locks already held cover the source.
+     */
+    private boolean shardedSinceRefresh(Long sourceId, WalletTransferResult rejected) {
+        if (!Boolean.TRUE.equals(rejected.getSourceSharded())) {
+            return false;
+        }
+        meterRegistry.counter("fund_transfer.stale_shard_routes").increment();
+        shardedBalanceService.refresh();
+        return shardedBalanceService.isSharded(sourceId);
+    }
 
+    private TransferResponse executeTransfer(TransferRequest request, FencingTokens tokens) {
+        // Layer 3: Database Integrity (debit, credit and new source balance in one fenced statement)
+        Long sourceId = request.getSourceWalletId();
+        Long destinationId = request.getDestinationWalletId();
+        WalletTransferResult result = TransferTrace.time(TransferPhase.DB_TRANSFER, () -> walletRepository.transfer(
+                sourceId, destinationId, request.getAmount().minorUnits(), tokens.of(sourceId), tokens.of(destinationId)));
+        if (!result.isApplied()) {
+            if (!result.getSourceExists()) {
+                throw new WalletNotFoundException(sourceId);
+            }
+            if (!result.getDestinationExists()) {
+                throw new WalletNotFoundException(destinationId);
+            }
+            checkFencing(tokens);
+            if (shardedSinceRefresh(sourceId, result)) {
+                return executeShardedTransfer(request, tokens);
+            }
+            throw new InsufficientBalanceException(sourceId);
+        }
+        if (result.getDestinationVersion() == null && !sourceId.equals(destinationId)) {
+            // Debited but the credit was fenced: roll the debit back
+            checkFencing(tokens);
+            throw new LockAcquisitionException("credit of wallet " + destinationId + " was rejected");
+        }
+
+        // Read model: the committed balances replace older cache entries
+        List<WalletBalanceResponse> balances = new ArrayList<>();
+        Money sourceBalanceAfter = Money.ofMinor(result.getSourceBalanceAfter());
+        balances.add(new WalletBalanceResponse(request.getSourceWalletId(), sourceBalanceAfter, result.getSourceVersion()));
+        if (result.getDestinationVersion() != null) {
+            balances.add(new WalletBalanceResponse(request.getDestinationWalletId(), Money.ofMinor(result.getDestinationBalanceAfter()),
+                    result.getDestinationVersion()));
+        }
+        balanceCache.putAfterCommit(balances);
+        return logTransfer(request, sourceBalanceAfter, result.getSourceVersion());
+    }
+
+    private TransferResponse executeShardedTransfer(TransferRequest request, FencingTokens tokens) {
+        // Layer 3: Database Integrity (sharded side through the balance shards, the other through its wallets row)
+        Long sourceId = request.getSourceWalletId();
+        Long destinationId = request.getDestinationWalletId();
+        Money sourceBalanceAfter;
+        Long sourceVersion = null;
+        List<WalletBalanceResponse> balances = new ArrayList<>();
+        if (shardedBalanceService.isSharded(sourceId)) {
+            sourceBalanceAfter = TransferTrace.time(TransferPhase.DB_DEBIT, () -> shardedBalanceService.debit(sourceId, request.getAmount()));
+        } else {
+            WalletTransferResult result = TransferTrace.time(TransferPhase.DB_DEBIT,
+                    () -> walletRepository.debit(sourceId, request.getAmount().minorUnits(), tokens.of(sourceId)));
+            if (!result.isApplied()) {
+                if (!result.getSourceExists()) {
+                    throw new WalletNotFoundException(sourceId);
+                }
+                checkFencing(tokens);
+                if (shardedSinceRefresh(sourceId, result)) {
+                    return executeShardedTransfer(request, tokens);
+                }
+                throw new InsufficientBalanceException(sourceId);
+            }
+            sourceBalanceAfter = Money.ofMinor(result.getSourceBalanceAfter());
+            sourceVersion = result.getSourceVersion();
+            balances.add(new WalletBalanceResponse(sourceId, sourceBalanceAfter, sourceVersion));
+        }
+
+        if (shardedBalanceService.isSharded(destinationId)) {
+            TransferTrace.run(TransferPhase.DB_CREDIT, () -> shardedBalanceService.credit(destinationId, request.getAmount()));
+        } else {
+            Optional<WalletBalanceRow> credit = TransferTrace.time(TransferPhase.DB_CREDIT,
+                    () -> walletRepository.credit(destinationId, request.getAmount().minorUnits(), tokens.of(destinationId)));
+            if (credit.isEmpty()) {
+                checkFencing(tokens);
+                throw new WalletNotFoundException(destinationId);
+            }
+            WalletBalanceRow credited = credit.get();
+            balances.add(new WalletBalanceResponse(destinationId, Money.ofMinor(credited.getBalance()), credited.getVersion()));
+        }
+        if (sourceId.equals(destinationId)) {
+            sourceBalanceAfter = sourceBalanceAfter.plus(request.getAmount());
+        }
+        balanceCache.putAfterCommit(balances);
+        return logTransfer(request, sourceBalanceAfter, sourceVersion);
+    }
+
+    private TransferResponse logTransfer(TransferRequest request, Money sourceBalanceAfter, Long sourceVersion) {
         // Log the transaction
         TransactionLog logEntry = TransactionLog.builder()
-                .sourceId(source.getId())
+                .sourceId(request.getSourceWalletId())
                 .destinationId(request.getDestinationWalletId())
                 .amount(request.getAmount())
                 .status(TransactionLog.TransactionStatus.SUCCESS)
                 .referenceCode(request.getReferenceCode())
                 .build();
-        TransactionLog savedTx = transactionLogRepository.save(logEntry);
-
-        // Fetch updated balance for response
-        Wallet updatedSource = walletRepository.findById(source.getId()).get();
+        TransactionLog savedTx = TransferTrace.time(TransferPhase.DB_LOG, () -> transactionLogRepository.save(logEntry));
+        TransferTrace.run(TransferPhase.DB_OUTBOX, () -> outboxRepository.append(List.of(savedTx)));
 
         return TransferResponse.builder()
                 .transactionId(savedTx.getId())
                 .referenceCode(savedTx.getReferenceCode())
-                .sourceWalletBalanceAfter(updatedSource.getBalance())
+                .sourceWalletBalanceAfter(sourceBalanceAfter)
+                .sourceWalletVersion(sourceVersion)
                 .message("Transfer successful")
                 .build();
     }
@@ -0,0 +1,128 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.application.ledger.LedgerEngine;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceRow;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read side of wallets: balances from the ledger in ledger mode, otherwise from the balance cache and, on a
+ * miss, from the database. Hot (sharded) wallets are always read from the database, since their shards change
+ * without bumping {@code wallets.version}.
+ */
+@Service
+public class WalletQueryService {
+
+    private final WalletJpaRepository walletRepository;
+    private final WalletBalanceCache balanceCache;
+    private final ShardedBalanceService shardedBalanceService;
+    private final Optional<LedgerEngine> ledgerEngine;
+    private final int maxBulkSize;
+
+    public WalletQueryService(WalletJpaRepository walletRepository,
+                              WalletBalanceCache balanceCache,
+                              ShardedBalanceService shardedBalanceService,
+                              Optional<LedgerEngine> ledgerEngine,
+                              @Value("${fund-transfer.balance-cache.max-bulk-size:500}") int maxBulkSize) {
+        this.walletRepository = walletRepository;
+        this.balanceCache = balanceCache;
+        this.shardedBalanceService = shardedBalanceService;
+        this.ledgerEngine = ledgerEngine;
+        this.maxBulkSize = maxBulkSize;
+    }
+
+    /**
+     * @param minVersion lowest {@code wallets.version} the caller accepts, e.g. from its own transfer's response
+     */
+    public WalletBalanceResponse getBalance(Long walletId, long minVersion) {
+        // 1. Ledger mode: the in-memory balance is authoritative
+        WalletBalanceResponse fromLedger = fromLedger(walletId);
+        if (fromLedger != null) {
+            return fromLedger;
+        }
+
+        // 2. Balance cache (local, then Redis)
+        if (!shardedBalanceService.isSharded(walletId)) {
+            WalletBalanceResponse cached = balanceCache.get(walletId, minVersion);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 3. Database, filling the cache
+        return load(List.of(walletId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new WalletNotFoundException(walletId));
+    }
+
+    /**
+     * Balances of the given wallets in request order; wallets that do not exist are left out.
+     */
+    public List<WalletBalanceResponse> getBalances(List<Long> walletIds) {
+        List<Long> distinctIds = walletIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > maxBulkSize) {
+            throw new InvalidRequestException("at most " + maxBulkSize + " wallet IDs per request");
+        }
+
+        Map<Long, WalletBalanceResponse> found = new HashMap<>();
+        List<Long> cacheable = new ArrayList<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long walletId : distinctIds) {
+            WalletBalanceResponse fromLedger = fromLedger(walletId);
+            if (fromLedger != null) {
+                found.put(walletId, fromLedger);
+            } else if (shardedBalanceService.isSharded(walletId)) {
+                uncached.add(walletId);
+            } else {
+                cacheable.add(walletId);
+            }
+        }
+        if (!cacheable.isEmpty()) {
+            found.putAll(balanceCache.getAll(cacheable));
+            cacheable.stream().filter(id -> !found.containsKey(id)).forEach(uncached::add);
+        }
+        if (!uncached.isEmpty()) {
+            load(uncached).forEach(balance -> found.put(balance.getWalletId(), balance));
+        }
+        return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<WalletBalanceResponse> load(Collection<Long> walletIds) {
+        List<WalletBalanceResponse> balances = new ArrayList<>();
+        List<WalletBalanceResponse> cacheable = new ArrayList<>();
+        for (WalletBalanceRow row : walletRepository.findBalances(walletIds)) {
+            boolean sharded = Boolean.TRUE.equals(row.getSharded());
+            WalletBalanceResponse balance = new WalletBalanceResponse(row.getId(), Money.ofMinor(row.getBalance()),
+                    sharded ? null : row.getVersion());
+            balances.add(balance);
+            if (!sharded) {
+                cacheable.add(balance);
+            }
+        }
+        // Never replaces a newer entry, so a transfer committed since this read wins
+        balanceCache.put(cacheable);
+        return balances;
+    }
+
+    private WalletBalanceResponse fromLedger(Long walletId) {
+        if (ledgerEngine.isEmpty()) {
+            return null;
+        }
+        Money balance = ledgerEngine.get().balance(walletId);
+        return balance != null ? new WalletBalanceResponse(walletId, balance, null) : null;
+    }
+}
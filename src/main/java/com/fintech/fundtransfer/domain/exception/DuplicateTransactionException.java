@@ -0,0 +1,9 @@
+package com.fintech.fundtransfer.domain.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class DuplicateTransactionException extends BaseException {
+    public DuplicateTransactionException(String referenceCode) {
+        super("Transaction with reference code " + referenceCode + " is already being processed", HttpStatus.CONFLICT, ErrorCode.DUPLICATE_TRANSACTION);
+    }
+}
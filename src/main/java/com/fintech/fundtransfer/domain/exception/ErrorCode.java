@@ -6,6 +6,9 @@ public enum ErrorCode {
     LOCK_ACQUISITION_FAILED("LOCK_ACQUISITION_FAILED"),
     DUPLICATE_TRANSACTION("DUPLICATE_TRANSACTION"),
     CONCURRENCY_FAILURE("CONCURRENCY_FAILURE"),
+    INVALID_REQUEST("INVALID_REQUEST"),
+    SERVICE_OVERLOADED("SERVICE_OVERLOADED"),
+    RATE_LIMITED("RATE_LIMITED"),
     INTERNAL_SERVER_ERROR("INTERNAL_SERVER_ERROR");
 
     private final String value;
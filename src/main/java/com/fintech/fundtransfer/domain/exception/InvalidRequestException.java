@@ -0,0 +1,9 @@
+package com.fintech.fundtransfer.domain.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidRequestException extends BaseException {
+    public InvalidRequestException(String reason) {
+        super("Invalid request: " + reason, HttpStatus.BAD_REQUEST, ErrorCode.INVALID_REQUEST);
+    }
+}
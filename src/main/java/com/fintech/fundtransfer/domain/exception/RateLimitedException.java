@@ -0,0 +1,14 @@
+package com.fintech.fundtransfer.domain.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class RateLimitedException extends BaseException {
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(Long walletId, long retryAfterSeconds) {
+        super("Too many transfers for wallet: " + walletId, HttpStatus.TOO_MANY_REQUESTS, ErrorCode.RATE_LIMITED);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
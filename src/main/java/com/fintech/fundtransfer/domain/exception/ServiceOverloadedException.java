@@ -0,0 +1,9 @@
+package com.fintech.fundtransfer.domain.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceOverloadedException extends BaseException {
+    public ServiceOverloadedException(String reason) {
+        super("Service overloaded: " + reason, HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.SERVICE_OVERLOADED);
+    }
+}
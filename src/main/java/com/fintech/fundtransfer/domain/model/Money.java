@@ -0,0 +1,151 @@
+package com.fintech.fundtransfer.domain.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a {@code long} of minor units at the currency's {@link #SCALE} (cents): 10.50 is
+ * {@code 1050}. Arithmetic is exact and overflow-checked ({@link ArithmeticException}); so is conversion from a
+ * decimal, which fails on more fraction digits than the scale unless a {@link RoundingMode} is given.
+ * <p>
+ * Stored as {@code BIGINT} minor units and written to JSON as a decimal number ({@code 10.50}), so the API is
+ * unchanged. Hot loops that only add up amounts use {@link #minorUnits()} directly.
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+
+    /** Fraction digits of the service's currency. */
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Exact conversion: fails if {@code amount} has non-zero digits beyond {@link #SCALE} or does not fit.
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, RoundingMode.UNNECESSARY);
+    }
+
+    public static Money of(BigDecimal amount, RoundingMode rounding) {
+        return ofMinor(amount.setScale(SCALE, rounding).unscaledValue().longValueExact());
+    }
+
+    public static Money parse(CharSequence text) {
+        return parse(text.toString().toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Parses a plain decimal ({@code -12.3}, {@code 0.05}) without going through {@link BigDecimal}; exponent
+     * notation falls back to it. Exact like {@link #of(BigDecimal)}.
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static Money parse(char[] text, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = i < end && text[i] == '-';
+        if (negative || (i < end && text[i] == '+')) {
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < end && text[i] >= '0' && text[i] <= '9'; i++, digits++) {
+            units = Math.addExact(Math.multiplyExact(units, 10), text[i] - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && text[i] == '.') {
+            for (i++; i < end && text[i] >= '0' && text[i] <= '9'; i++, digits++) {
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (text[i] - '0');
+                    fractionDigits++;
+                } else if (text[i] != '0') {
+                    throw new ArithmeticException("more than " + SCALE + " fraction digits: " + new String(text, offset, length));
+                }
+            }
+        }
+        if (i < end && (text[i] == 'e' || text[i] == 'E')) {
+            return of(new BigDecimal(text, offset, length));
+        }
+        if (i != end || digits == 0) {
+            throw new NumberFormatException("not a decimal number: " + new String(text, offset, length));
+        }
+        for (; fractionDigits < SCALE; fractionDigits++) {
+            fraction *= 10;
+        }
+        long minor = Math.addExact(Math.multiplyExact(units, MINOR_PER_UNIT), fraction);
+        return ofMinor(negative ? -minor : minor);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public Money times(long factor) {
+        return ofMinor(Math.multiplyExact(minorUnits, factor));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * Plain decimal at the currency's scale, e.g. {@code 10.50} or {@code -0.05}.
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    /**
+     * Appends {@code minorUnits} as {@link #toString()} does, without creating a {@code Money} or a string.
+     */
+    public static StringBuilder appendTo(StringBuilder out, long minorUnits) {
+        if (minorUnits < 0) {
+            out.append('-');
+        }
+        // Long.MIN_VALUE has no positive counterpart, but its unsigned value divides correctly
+        long abs = Math.abs(minorUnits);
+        out.append(Long.divideUnsigned(abs, MINOR_PER_UNIT)).append('.');
+        long fraction = Long.remainderUnsigned(abs, MINOR_PER_UNIT);
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+}
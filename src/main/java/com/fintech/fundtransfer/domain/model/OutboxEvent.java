@@ -0,0 +1,49 @@
+package com.fintech.fundtransfer.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A completed transfer waiting to be published, written in the transfer's transaction. A transfer produces one
+ * row per wallet it touches; rows of the same wallet share a partition and are published in ID order.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_partition", columnList = "partition_key, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    // Not pooled: IDs are taken at insert time, while the wallet lock is held, so they follow each wallet's commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer partitionKey;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private Long sourceId;
+
+    @Column(nullable = false)
+    private Long destinationId;
+
+    @Column(nullable = false)
+    private Money amount;
+
+    @Column(nullable = false)
+    private String referenceCode;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
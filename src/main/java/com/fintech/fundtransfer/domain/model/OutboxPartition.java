@@ -0,0 +1,20 @@
+package com.fintech.fundtransfer.domain.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Claim row of one outbox partition. A relay drains a partition only while it holds this row's lock.
+ */
+@Entity
+@Table(name = "outbox_partitions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxPartition {
+    @Id
+    private Integer partitionKey;
+}
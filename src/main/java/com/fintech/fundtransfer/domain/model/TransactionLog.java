@@ -2,7 +2,7 @@ package com.fintech.fundtransfer.domain.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(name = "transaction_logs")
@@ -13,7 +13,8 @@ import java.math.BigDecimal;
 @Builder
 public class TransactionLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_logs_seq")
+    @SequenceGenerator(name = "transaction_logs_seq", sequenceName = "transaction_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -23,15 +24,24 @@ public class TransactionLog {
     private Long destinationId;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionStatus status;
 
-    @Column(nullable = false, unique = true)
+    // Unique within the idempotency window, claimed in transaction_reference_codes by an insert trigger
+    @Column(nullable = false)
     private String referenceCode;
 
+    // Position within a multi-leg transfer; only leg 0 claims the reference code
+    @Column(nullable = false)
+    private int leg;
+
+    // Partition key, set by the database on insert
+    @Column(insertable = false, updatable = false)
+    private Instant createdAt;
+
     public enum TransactionStatus {
         PENDING, SUCCESS, FAILED
     }
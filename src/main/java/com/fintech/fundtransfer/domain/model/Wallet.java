@@ -2,7 +2,6 @@ package com.fintech.fundtransfer.domain.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
 
 @Entity
 @Table(name = "wallets")
@@ -13,15 +12,19 @@ import java.math.BigDecimal;
 @Builder
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallets_seq")
+    @SequenceGenerator(name = "wallets_seq", sequenceName = "wallets_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String userId;
 
     @Column(nullable = false)
-    private BigDecimal balance;
+    private Money balance;
 
     @Version
     private Long version;
+
+    // Number of wallet_balance_shards rows of a hot wallet; null for regular wallets
+    private Integer balanceShards;
 }
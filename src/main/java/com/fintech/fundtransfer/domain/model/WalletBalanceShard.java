@@ -0,0 +1,36 @@
+package com.fintech.fundtransfer.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One slice of a hot wallet's balance. The wallet's balance is {@code wallets.balance} plus all of its shards.
+ */
+@Entity
+@Table(name = "wallet_balance_shards")
+@IdClass(WalletBalanceShard.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceShard {
+    @Id
+    private Long walletId;
+
+    @Id
+    private Integer shardIndex;
+
+    @Column(nullable = false)
+    private Money balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long walletId;
+        private Integer shardIndex;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fintech.fundtransfer.infrastructure.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vegas-style adaptive limit on concurrent transfers.
+ * <p>
+ * The lowest latency seen is taken as the latency without queueing. By Little's law, {@code limit * (1 -
+ * noLoad / latency)} of the admitted transfers are then waiting (for wallet locks, connections, the database)
+ * rather than being served. The limit grows while that queue is short, shrinks once it is long, and shrinks at
+ * once on a drop (lock timeout, overload). The no-load latency is measured again every {@code probeSamples}
+ * samples, so the limit follows a database that got slower.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long noLoadNanos;
+    private int samples;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int probeSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeSamples = probeSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Ends an admitted transfer that took {@code latencyNanos}; {@code dropped} if it failed because the service
+     * was overloaded.
+     */
+    void release(long latencyNanos, boolean dropped) {
+        update(latencyNanos, dropped, inFlight.getAndDecrement());
+    }
+
+    /**
+     * Ends an admitted call whose latency says nothing about the service's capacity, e.g. a rejected transfer.
+     */
+    void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized long noLoadNanos() {
+        return noLoadNanos;
+    }
+
+    private synchronized void update(long latencyNanos, boolean dropped, int inFlightBefore) {
+        double step = Math.max(1, Math.log10(estimatedLimit));
+        if (dropped) {
+            setLimit(estimatedLimit - step);
+            return;
+        }
+        if (++samples >= probeSamples) {
+            samples = 0;
+            noLoadNanos = latencyNanos;
+            return;
+        }
+        if (noLoadNanos == 0 || latencyNanos < noLoadNanos) {
+            noLoadNanos = latencyNanos;
+            return;
+        }
+        if (inFlightBefore * 2 < estimatedLimit) {
+            // Demand well below the limit says nothing about capacity
+            return;
+        }
+
+        double queued = Math.ceil(estimatedLimit * (1 - (double) noLoadNanos / latencyNanos));
+        if (queued <= step) {
+            setLimit(estimatedLimit + 6 * step);
+        } else if (queued < 3 * step) {
+            setLimit(estimatedLimit + step);
+        } else if (queued > 6 * step) {
+            setLimit(estimatedLimit - step);
+        }
+    }
+
+    private void setLimit(double next) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
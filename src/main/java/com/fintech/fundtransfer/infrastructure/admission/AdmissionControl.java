@@ -0,0 +1,202 @@
+package com.fintech.fundtransfer.infrastructure.admission;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.ShardedBalanceService;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.exception.RateLimitedException;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Load shedding in front of the transfer endpoints: a request is rejected before it takes a wallet lock, a
+ * database connection or a transfer thread if
+ * <ul>
+ *     <li>one of its wallets is over its rate ({@link WalletRateLimiter}): 429 {@code RATE_LIMITED}, so a flood
+ *     against one wallet no longer queues on its lock until the lock wait times out;</li>
+ *     <li>the pod already runs as many transfers as its adaptive concurrency limit allows
+ *     ({@link AdaptiveConcurrencyLimit}): 503 {@code SERVICE_OVERLOADED}.</li>
+ * </ul>
+ * The limit learns from the latency of admitted single transfers that were carried out; lock timeouts, a full queue
+ * or a connection that could not be had count as drops and lower it at once.
+ */
+@Component
+public class AdmissionControl {
+
+    private final WalletRateLimiter walletRateLimiter;
+    private final ShardedBalanceService shardedBalanceService;
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Counter concurrencyRejected;
+    private final Counter walletRateRejected;
+
+    public AdmissionControl(WalletRateLimiter walletRateLimiter,
+                            ShardedBalanceService shardedBalanceService,
+                            MeterRegistry meterRegistry,
+                            @Value("${fund-transfer.admission.enabled:true}") boolean enabled,
+                            @Value("${fund-transfer.admission.initial-limit:50}") int initialLimit,
+                            @Value("${fund-transfer.admission.min-limit:8}") int minLimit,
+                            @Value("${fund-transfer.admission.max-limit:200}") int maxLimit,
+                            @Value("${fund-transfer.admission.probe-samples:1000}") int probeSamples) {
+        this.walletRateLimiter = walletRateLimiter;
+        this.shardedBalanceService = shardedBalanceService;
+        this.enabled = enabled;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, probeSamples);
+        this.concurrencyRejected = meterRegistry.counter("fund_transfer.admission.rejected", "reason", "concurrency");
+        this.walletRateRejected = meterRegistry.counter("fund_transfer.admission.rejected", "reason", "wallet_rate");
+        Gauge.builder("fund_transfer.admission.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Concurrent transfers this pod admits")
+                .register(meterRegistry);
+        Gauge.builder("fund_transfer.admission.in_flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .description("Admitted transfers not yet finished")
+                .register(meterRegistry);
+        Gauge.builder("fund_transfer.admission.no_load_latency", limit, l -> l.noLoadNanos() / 1e6)
+                .description("Lowest recent transfer latency, taken as the latency without queueing")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a single or multi-leg transfer if the pod is within its limit and the transfer's wallets within their rate.
+     *
+     * @throws ServiceOverloadedException if the concurrency limit is reached
+     * @throws RateLimitedException       if a wallet of the request is over its rate
+     */
+    public TransferResponse admit(TransferRequest request, Supplier<TransferResponse> transfer) {
+        if (!enabled) {
+            return transfer.get();
+        }
+        long start = acquire(request);
+        try {
+            TransferResponse response = transfer.get();
+            release(start, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            release(start, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * A batch takes one slot of the concurrency limit; its items are not rate limited one by one. Its latency grows
+     * with its size, so it does not feed the limit, only its drops do.
+     */
+    public <T> T admitBatch(Supplier<T> batch) {
+        if (!enabled) {
+            return batch.get();
+        }
+        long start = acquire(null);
+        try {
+            T result = batch.get();
+            limit.releaseWithoutSample();
+            return result;
+        } catch (RuntimeException e) {
+            release(start, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@link #admit} for a transfer that completes asynchronously; the slot is held until the future completes.
+     * Rejections fail the returned future.
+     */
+    public CompletableFuture<TransferResponse> admitAsync(TransferRequest request,
+                                                          Supplier<CompletableFuture<TransferResponse>> transfer) {
+        if (!enabled) {
+            return transfer.get();
+        }
+        long start;
+        try {
+            start = acquire(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<TransferResponse> future;
+        try {
+            future = transfer.get();
+        } catch (RuntimeException e) {
+            release(start, null, e);
+            throw e;
+        }
+        return future.whenComplete((response, error) -> release(start, response, error));
+    }
+
+    // The slot comes first: a request turned away with 503 must not spend its wallets' tokens
+    private long acquire(TransferRequest request) {
+        if (!limit.tryAcquire()) {
+            concurrencyRejected.increment();
+            throw new ServiceOverloadedException("concurrency limit of " + limit.limit() + " transfers reached");
+        }
+        long start = System.nanoTime();
+        if (request != null) {
+            try {
+                checkWalletRates(request);
+            } catch (RuntimeException e) {
+                limit.releaseWithoutSample();
+                throw e;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Only transfers that did the work feed the latency estimate: a duplicate answered from Redis or a rejected
+     * transfer is much faster than a real one and would pass for the latency without queueing.
+     */
+    private void release(long start, TransferResponse response, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof LockAcquisitionException
+                || cause instanceof ServiceOverloadedException
+                || cause instanceof CannotCreateTransactionException) {
+            limit.release(System.nanoTime() - start, true);
+        } else if (cause == null && response != null && !response.isDuplicate() && response.getLegs() == null) {
+            limit.release(System.nanoTime() - start, false);
+        } else {
+            limit.releaseWithoutSample();
+        }
+    }
+
+    private void checkWalletRates(TransferRequest request) {
+        List<Long> walletIds = rateLimitedWallets(request);
+        for (int i = 0; i < walletIds.size(); i++) {
+            if (!walletRateLimiter.tryAcquire(walletIds.get(i))) {
+                // A request turned away on its destination must not spend its source's budget
+                walletIds.subList(0, i).forEach(walletRateLimiter::refund);
+                walletRateRejected.increment();
+                throw new RateLimitedException(walletIds.get(i), walletRateLimiter.retryAfterSeconds());
+            }
+        }
+    }
+
+    // The wallets whose locks the transfer queues on; a sharded destination is credited without its lock
+    private List<Long> rateLimitedWallets(TransferRequest request) {
+        if (!walletRateLimiter.isEnabled()) {
+            return List.of();
+        }
+        List<Long> walletIds = new ArrayList<>(2);
+        if (request.getSourceWalletId() != null) {
+            walletIds.add(request.getSourceWalletId());
+        }
+        Long destinationId = request.getDestinationWalletId();
+        if (!request.hasLegs() && destinationId != null && !destinationId.equals(request.getSourceWalletId())
+                && !shardedBalanceService.isSharded(destinationId)) {
+            walletIds.add(destinationId);
+        }
+        return walletIds;
+    }
+
+    int currentLimit() {
+        return limit.limit();
+    }
+}
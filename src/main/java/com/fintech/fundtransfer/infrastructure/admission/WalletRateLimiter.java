@@ -0,0 +1,192 @@
+package com.fintech.fundtransfer.infrastructure.admission;
+
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per wallet: {@code wallet-rate} transfers per second after a burst of {@code wallet-burst}.
+ * <p>
+ * Buckets are local to the pod unless {@code wallet-rate-sync=redis}: then each admission takes its token from
+ * one bucket per wallet in Redis shared by all pods. If Redis does not answer within {@code redis-timeout-ms},
+ * or while the wallet locks are in their Redis fallback, the local bucket decides instead.
+ */
+@Component
+@Slf4j
+public class WalletRateLimiter {
+
+    private static final String KEY_PREFIX = "wallet_rate:";
+
+    // KEYS[1] = bucket; ARGV = capacity, refill per ms. Server time, so pods with skewed clocks share one bucket
+    private static final String ACQUIRE_SCRIPT = """
+            local capacity = tonumber(ARGV[1])
+            local refill = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = time[1] * 1000 + math.floor(time[2] / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'at')
+            local tokens = tonumber(bucket[1]) or capacity
+            local at = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - at) * refill)
+            local allowed = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'at', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill))
+            return allowed
+            """;
+
+    // KEYS[1] = bucket; ARGV = capacity. Only a bucket that still exists gets its token back
+    private static final String REFUND_SCRIPT = """
+            local tokens = tonumber(redis.call('HGET', KEYS[1], 'tokens'))
+            if tokens then
+                redis.call('HSET', KEYS[1], 'tokens', tostring(math.min(tonumber(ARGV[1]), tokens + 1)))
+            end
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final DatabaseWalletLocker databaseWalletLocker;
+    private final double capacity;
+    private final double refillPerSecond;
+    private final boolean redisSync;
+    private final long redisTimeoutMillis;
+    private final Map<Long, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter syncFailures;
+
+    public WalletRateLimiter(RedissonClient redissonClient,
+                             DatabaseWalletLocker databaseWalletLocker,
+                             MeterRegistry meterRegistry,
+                             @Value("${fund-transfer.admission.wallet-rate:100}") double refillPerSecond,
+                             @Value("${fund-transfer.admission.wallet-burst:200}") int capacity,
+                             @Value("${fund-transfer.admission.wallet-rate-sync:local}") String sync,
+                             @Value("${fund-transfer.admission.redis-timeout-ms:50}") long redisTimeoutMillis) {
+        this.redissonClient = redissonClient;
+        this.databaseWalletLocker = databaseWalletLocker;
+        this.capacity = Math.max(1, capacity);
+        this.refillPerSecond = refillPerSecond;
+        this.redisSync = sync.equalsIgnoreCase("redis");
+        this.redisTimeoutMillis = redisTimeoutMillis;
+        this.syncFailures = meterRegistry.counter("fund_transfer.admission.wallet_rate_sync_failures");
+        Gauge.builder("fund_transfer.admission.wallet_buckets", buckets, Map::size)
+                .description("Wallets with a local rate-limit bucket")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return refillPerSecond > 0;
+    }
+
+    /**
+     * Takes a token of {@code walletId}; {@code false} if its bucket is empty.
+     */
+    public boolean tryAcquire(Long walletId) {
+        if (!isEnabled()) {
+            return true;
+        }
+        if (redisSync && !databaseWalletLocker.isRedisFallback()) {
+            try {
+                Long allowed = redissonClient.getScript(StringCodec.INSTANCE)
+                        .<Long>evalAsync(RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT, RScript.ReturnType.INTEGER,
+                                List.of(KEY_PREFIX + "{" + walletId + "}"),
+                                String.valueOf(capacity), String.valueOf(refillPerSecond / 1000))
+                        .toCompletableFuture()
+                        .get(redisTimeoutMillis, TimeUnit.MILLISECONDS);
+                return allowed == 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                syncFailures.increment();
+                log.debug("Redis rate limit of wallet {} unavailable, using the local bucket", walletId, e);
+            }
+        }
+        return buckets.computeIfAbsent(walletId, id -> new TokenBucket(System.nanoTime())).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} for a request that was rejected on another wallet. The Redis
+     * bucket is refunded without waiting for the answer.
+     */
+    public void refund(Long walletId) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (redisSync && !databaseWalletLocker.isRedisFallback()) {
+            redissonClient.getScript(StringCodec.INSTANCE)
+                    .<Long>evalAsync(RScript.Mode.READ_WRITE, REFUND_SCRIPT, RScript.ReturnType.INTEGER,
+                            List.of(KEY_PREFIX + "{" + walletId + "}"), String.valueOf(capacity))
+                    .whenComplete((refunded, e) -> {
+                        if (e != null) {
+                            syncFailures.increment();
+                            log.debug("Redis rate limit refund of wallet {} failed", walletId, e);
+                        }
+                    });
+            return;
+        }
+        TokenBucket bucket = buckets.get(walletId);
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    /**
+     * Seconds until an empty bucket has a token again, at least one.
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(1 / refillPerSecond));
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.admission.bucket-cleanup-ms:60000}")
+    public void evictRefilledBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private final class TokenBucket {
+        private double tokens = capacity;
+        private long refilledAt;
+
+        private TokenBucket(long now) {
+            this.refilledAt = now;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        private synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerSecond / TimeUnit.SECONDS.toNanos(1));
+                refilledAt = now;
+            }
+        }
+    }
+}
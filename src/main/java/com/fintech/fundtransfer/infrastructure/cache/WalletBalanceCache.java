@@ -0,0 +1,257 @@
+package com.fintech.fundtransfer.infrastructure.cache;
+
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier cache of wallet balances for the read API: a local Caffeine tier in front of Redis.
+ * <p>
+ * Every entry carries the {@code wallets.version} it was read or written at, and both tiers only ever replace
+ * an entry with a higher version, so a reader that loaded a balance just before a transfer committed cannot
+ * overwrite the newer one. Writers put the committed balances after commit and publish them, so the local tiers
+ * of other pods move forward as well. A lookup with a {@code minVersion} skips tiers holding an older entry,
+ * which gives the caller of a transfer read-your-writes.
+ */
+@Component
+@Slf4j
+public class WalletBalanceCache {
+
+    private static final String KEY_PREFIX = "wallet-balance:";
+    private static final String UPDATES_TOPIC = "wallet-balance-updates";
+    private static final long EVICTED = -1;
+
+    // Values are "version:balance"; KEYS[1] = entry, ARGV = version, balance, ttl in ms
+    private static final String PUT_SCRIPT = """
+            local current = redis.call('GET', KEYS[1])
+            if current and tonumber(string.match(current, '^(%d+):')) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1] .. ':' .. ARGV[2], 'PX', ARGV[3])
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long redisTtlMillis;
+    private final Cache<Long, WalletBalanceResponse> local;
+    private volatile RTopic updates;
+    private int listenerId;
+
+    public WalletBalanceCache(RedissonClient redissonClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${fund-transfer.balance-cache.enabled:true}") boolean enabled,
+                              @Value("${fund-transfer.balance-cache.local-ttl-ms:1000}") long localTtlMillis,
+                              @Value("${fund-transfer.balance-cache.local-max-size:100000}") long localMaxSize,
+                              @Value("${fund-transfer.balance-cache.redis-ttl-ms:30000}") long redisTtlMillis) {
+        this.redissonClient = redissonClient;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.redisTtlMillis = redisTtlMillis;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMillis))
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            RTopic topic = redissonClient.getTopic(UPDATES_TOPIC, StringCodec.INSTANCE);
+            listenerId = topic.addListener(String.class, (channel, message) -> applyUpdates(message));
+            updates = topic;
+        } catch (RuntimeException e) {
+            log.warn("Balance updates from other pods unavailable; local entries only expire after their TTL", e);
+        }
+    }
+
+    @PreDestroy
+    void unsubscribe() {
+        RTopic topic = updates;
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    /**
+     * Cached balance at {@code minVersion} or newer, or {@code null} if neither tier has one.
+     */
+    public WalletBalanceResponse get(Long walletId, long minVersion) {
+        if (!enabled) {
+            return null;
+        }
+        WalletBalanceResponse cached = local.getIfPresent(walletId);
+        if (cached != null && cached.getVersion() >= minVersion) {
+            count("local_hit");
+            return cached;
+        }
+        cached = fromRedis(List.of(walletId)).get(walletId);
+        if (cached != null && cached.getVersion() >= minVersion) {
+            mergeLocal(cached);
+            count("redis_hit");
+            return cached;
+        }
+        count("miss");
+        return null;
+    }
+
+    /**
+     * Cached balances of the wallets found in either tier.
+     */
+    public Map<Long, WalletBalanceResponse> getAll(Collection<Long> walletIds) {
+        if (!enabled) {
+            return Map.of();
+        }
+        Map<Long, WalletBalanceResponse> found = new HashMap<>(local.getAllPresent(walletIds));
+        meterRegistry.counter("fund_transfer.balance_cache.lookups", "result", "local_hit").increment(found.size());
+        List<Long> missing = walletIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            Map<Long, WalletBalanceResponse> remote = fromRedis(missing);
+            remote.values().forEach(this::mergeLocal);
+            found.putAll(remote);
+            meterRegistry.counter("fund_transfer.balance_cache.lookups", "result", "redis_hit").increment(remote.size());
+            meterRegistry.counter("fund_transfer.balance_cache.lookups", "result", "miss").increment(missing.size() - remote.size());
+        }
+        return found;
+    }
+
+    /**
+     * Stores balances in both tiers, unless a tier already holds the same or a newer version, and publishes them
+     * to the other pods.
+     */
+    public void put(Collection<WalletBalanceResponse> balances) {
+        if (!enabled) {
+            return;
+        }
+        // Unversioned balances (ledger, sharded wallets) cannot be ordered against newer ones
+        List<WalletBalanceResponse> versioned = balances.stream().filter(b -> b.getVersion() != null).toList();
+        if (versioned.isEmpty()) {
+            return;
+        }
+        versioned.forEach(this::mergeLocal);
+        try {
+            RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+            for (WalletBalanceResponse balance : versioned) {
+                script.evalAsync(RScript.Mode.READ_WRITE, PUT_SCRIPT, RScript.ReturnType.INTEGER,
+                        List.of(key(balance.getWalletId())), balance.getVersion().toString(),
+                        balance.getBalance().toString(), String.valueOf(redisTtlMillis));
+            }
+            publish(versioned.stream()
+                    .map(b -> b.getWalletId() + ":" + b.getVersion() + ":" + b.getBalance())
+                    .collect(Collectors.joining(",")));
+        } catch (RuntimeException e) {
+            log.warn("Failed to update cached balances of wallets {}", versioned.stream().map(WalletBalanceResponse::getWalletId).toList(), e);
+        }
+    }
+
+    /**
+     * {@link #put} once the current transaction commits; right away if there is none. A rolled back or retried
+     * attempt leaves the cache untouched.
+     */
+    public void putAfterCommit(List<WalletBalanceResponse> balances) {
+        if (!enabled || balances.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(balances);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(balances);
+            }
+        });
+    }
+
+    /**
+     * Drops a wallet from both tiers on every pod, for changes that do not bump its version.
+     */
+    public void evict(Long walletId) {
+        if (!enabled) {
+            return;
+        }
+        local.invalidate(walletId);
+        try {
+            redissonClient.getBucket(key(walletId), StringCodec.INSTANCE).deleteAsync();
+            publish(walletId + ":" + EVICTED + ":0");
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict cached balance of wallet {}", walletId, e);
+        }
+    }
+
+    private Map<Long, WalletBalanceResponse> fromRedis(Collection<Long> walletIds) {
+        try {
+            Map<String, String> values = redissonClient.getBuckets(StringCodec.INSTANCE)
+                    .get(walletIds.stream().map(WalletBalanceCache::key).toArray(String[]::new));
+            Map<Long, WalletBalanceResponse> found = new HashMap<>();
+            values.forEach((key, value) -> {
+                Long walletId = Long.valueOf(key.substring(KEY_PREFIX.length()));
+                int separator = value.indexOf(':');
+                found.put(walletId, new WalletBalanceResponse(walletId,
+                        Money.parse(value.substring(separator + 1)), Long.valueOf(value.substring(0, separator))));
+            });
+            return found;
+        } catch (RuntimeException e) {
+            log.warn("Cached balances unavailable for wallets {}, reading from database", walletIds, e);
+            return Map.of();
+        }
+    }
+
+    private void applyUpdates(String message) {
+        for (String update : message.split(",")) {
+            String[] parts = update.split(":");
+            Long walletId = Long.valueOf(parts[0]);
+            long version = Long.parseLong(parts[1]);
+            if (version == EVICTED) {
+                local.invalidate(walletId);
+            } else {
+                mergeLocal(new WalletBalanceResponse(walletId, Money.parse(parts[2]), version));
+            }
+        }
+    }
+
+    private void publish(String message) {
+        RTopic topic = updates;
+        if (topic != null) {
+            topic.publishAsync(message);
+        }
+    }
+
+    private void mergeLocal(WalletBalanceResponse balance) {
+        local.asMap().merge(balance.getWalletId(), balance,
+                (current, candidate) -> candidate.getVersion() > current.getVersion() ? candidate : current);
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("fund_transfer.balance_cache.lookups", "result", result).increment();
+    }
+
+    private static String key(Long walletId) {
+        return KEY_PREFIX + walletId;
+    }
+}
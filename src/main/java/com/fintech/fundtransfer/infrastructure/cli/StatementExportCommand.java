@@ -0,0 +1,72 @@
+package com.fintech.fundtransfer.infrastructure.cli;
+
+import com.fintech.fundtransfer.application.service.StatementExportService;
+import com.fintech.fundtransfer.infrastructure.export.StatementFormat;
+import com.fintech.fundtransfer.infrastructure.persistence.StatementQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Command-line statement export, e.g.
+ * {@code java -jar fund-transfer-service.jar --spring.main.web-application-type=none
+ * --fund-transfer.statement.export.output=/tmp/wallet-42.csv --fund-transfer.statement.export.wallet-id=42
+ * --fund-transfer.statement.export.from=2026-10-01 --fund-transfer.statement.export.to=2026-10-17}.
+ * The application exits once the file is written.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fund-transfer.statement.export.output")
+public class StatementExportCommand implements ApplicationRunner {
+
+    private final StatementExportService statementExportService;
+    private final ConfigurableApplicationContext context;
+    private final Path output;
+    private final Long walletId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final StatementFormat format;
+    private final String after;
+
+    public StatementExportCommand(StatementExportService statementExportService,
+                                  ConfigurableApplicationContext context,
+                                  @Value("${fund-transfer.statement.export.output}") Path output,
+                                  @Value("${fund-transfer.statement.export.wallet-id}") Long walletId,
+                                  @Value("${fund-transfer.statement.export.from}") String from,
+                                  @Value("${fund-transfer.statement.export.to:${fund-transfer.statement.export.from}}") String to,
+                                  @Value("${fund-transfer.statement.export.format:csv}") String format,
+                                  @Value("${fund-transfer.statement.export.after:}") String after) {
+        this.statementExportService = statementExportService;
+        this.context = context;
+        this.output = output;
+        this.walletId = walletId;
+        this.from = LocalDate.parse(from);
+        this.to = LocalDate.parse(to);
+        this.format = StatementFormat.of(format);
+        this.after = after;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        StatementQuery query = statementExportService.prepare(walletId, from, to, after);
+        long start = System.nanoTime();
+        long rows;
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            rows = statementExportService.export(query, format, channel);
+        }
+        log.info("Exported {} rows of wallet {} ({} to {}) to {} in {} ms", rows, walletId, from, to, output,
+                (System.nanoTime() - start) / 1_000_000);
+        System.exit(SpringApplication.exit(context));
+    }
+}
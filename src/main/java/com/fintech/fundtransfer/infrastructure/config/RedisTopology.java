@@ -0,0 +1,17 @@
+package com.fintech.fundtransfer.infrastructure.config;
+
+/**
+ * How the Redis deployment is reached ({@code fund-transfer.redis.topology}).
+ */
+public enum RedisTopology {
+    /** One server at {@code spring.data.redis.host}/{@code port}. */
+    SINGLE,
+    /** A master found through the sentinels in {@code fund-transfer.redis.nodes}. */
+    SENTINEL,
+    /** A Redis Cluster seeded from {@code fund-transfer.redis.nodes}; wallet locks are spread over its slots. */
+    CLUSTER;
+
+    public static RedisTopology parse(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
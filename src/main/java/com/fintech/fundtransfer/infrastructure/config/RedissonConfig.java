@@ -2,11 +2,21 @@ package com.fintech.fundtransfer.infrastructure.config;
 
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.config.BaseMasterSlaveServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+
+/**
+ * Redisson client for the configured {@link RedisTopology}. Timeouts and retries are short: while Redis is
+ * unreachable the wallet locks fall back to database row locks (see {@code RedisLockHealth}) instead of every
+ * request waiting out the retries. All reads go to masters, since reservations and fencing counters must read
+ * their own writes.
+ */
 @Configuration
 public class RedissonConfig {
 
@@ -16,15 +26,78 @@ public class RedissonConfig {
     @Value("${spring.data.redis.port:6379}")
     private int redisPort;
 
+    @Value("${fund-transfer.redis.topology:single}")
+    private String topology;
+
+    // host:port of the cluster seed nodes or of the sentinels, comma separated
+    @Value("${fund-transfer.redis.nodes:}")
+    private String nodes;
+
+    @Value("${fund-transfer.redis.sentinel-master:mymaster}")
+    private String sentinelMaster;
+
+    @Value("${fund-transfer.redis.pool-size:64}")
+    private int poolSize;
+
+    @Value("${fund-transfer.redis.min-idle:8}")
+    private int minIdle;
+
+    @Value("${fund-transfer.redis.timeout-ms:1000}")
+    private int timeoutMillis;
+
+    @Value("${fund-transfer.redis.connect-timeout-ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${fund-transfer.redis.retry-attempts:2}")
+    private int retryAttempts;
+
+    @Value("${fund-transfer.redis.retry-interval-ms:200}")
+    private int retryIntervalMillis;
+
     @Bean
     public RedissonClient redissonClient() {
         Config config = new Config();
-        config.useSingleServer()
-                .setAddress("redis://" + redisHost + ":" + redisPort)
-                .setConnectionMinimumIdleSize(5)
-                .setRetryAttempts(10)
-                .setRetryInterval(1500)
-                .setConnectTimeout(10000);
+        switch (RedisTopology.parse(topology)) {
+            case SINGLE -> config.useSingleServer()
+                    .setAddress("redis://" + redisHost + ":" + redisPort)
+                    .setConnectionPoolSize(poolSize)
+                    .setConnectionMinimumIdleSize(minIdle)
+                    .setTimeout(timeoutMillis)
+                    .setConnectTimeout(connectTimeoutMillis)
+                    .setRetryAttempts(retryAttempts)
+                    .setRetryInterval(retryIntervalMillis);
+            case SENTINEL -> pool(config.useSentinelServers()
+                    .setMasterName(sentinelMaster)
+                    .addSentinelAddress(addresses())
+                    // Sentinels may announce container-internal addresses; only the configured ones are used
+                    .setCheckSentinelsList(false));
+            case CLUSTER -> pool(config.useClusterServers()
+                    .addNodeAddress(addresses()));
+        }
         return Redisson.create(config);
     }
+
+    private void pool(BaseMasterSlaveServersConfig<?> servers) {
+        servers.setReadMode(ReadMode.MASTER)
+                .setMasterConnectionPoolSize(poolSize)
+                .setMasterConnectionMinimumIdleSize(minIdle)
+                .setSlaveConnectionPoolSize(poolSize)
+                .setSlaveConnectionMinimumIdleSize(0)
+                .setTimeout(timeoutMillis)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setRetryAttempts(retryAttempts)
+                .setRetryInterval(retryIntervalMillis);
+    }
+
+    private String[] addresses() {
+        String[] addresses = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .map(node -> node.contains("://") ? node : "redis://" + node)
+                .toArray(String[]::new);
+        if (addresses.length == 0) {
+            throw new IllegalStateException("fund-transfer.redis.nodes is required for the " + topology + " topology");
+        }
+        return addresses;
+    }
 }
@@ -0,0 +1,34 @@
+package com.fintech.fundtransfer.infrastructure.export;
+
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum StatementFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    StatementFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public static StatementFormat of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("unknown statement format '" + name + "', expected csv or ndjson");
+        }
+    }
+}
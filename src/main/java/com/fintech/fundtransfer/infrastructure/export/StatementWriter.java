@@ -0,0 +1,134 @@
+package com.fintech.fundtransfer.infrastructure.export;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.persistence.StatementJdbcRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes statement rows as CSV or NDJSON into one reused line builder and byte buffer, and writes the buffer to
+ * the channel whenever it fills up. Memory use does not depend on the number of rows.
+ */
+public class StatementWriter implements StatementJdbcRepository.RowHandler {
+
+    private static final String CSV_HEADER = "id,created_at,source_id,destination_id,direction,amount,status,reference_code";
+
+    private final WritableByteChannel channel;
+    private final StatementFormat format;
+    private final long walletId;
+    private final StringBuilder line = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer;
+    private long rows;
+
+    public StatementWriter(WritableByteChannel channel, StatementFormat format, long walletId, int bufferBytes) {
+        this.channel = channel;
+        this.format = format;
+        this.walletId = walletId;
+        this.buffer = ByteBuffer.allocate(bufferBytes);
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == StatementFormat.CSV) {
+            line.append(CSV_HEADER);
+            endLine();
+        }
+    }
+
+    @Override
+    public void row(long id, String createdAt, long sourceId, long destinationId, long amount, String status,
+                    String referenceCode) throws IOException {
+        String direction = sourceId == destinationId ? "SELF" : sourceId == walletId ? "DEBIT" : "CREDIT";
+        if (format == StatementFormat.CSV) {
+            line.append(id).append(',').append(createdAt).append(',').append(sourceId).append(',')
+                    .append(destinationId).append(',').append(direction).append(',');
+            Money.appendTo(line, amount).append(',').append(status).append(',');
+            appendCsv(referenceCode);
+        } else {
+            line.append("{\"id\":").append(id)
+                    .append(",\"createdAt\":\"").append(createdAt)
+                    .append("\",\"sourceId\":").append(sourceId)
+                    .append(",\"destinationId\":").append(destinationId)
+                    .append(",\"direction\":\"").append(direction)
+                    .append("\",\"amount\":");
+            Money.appendTo(line, amount)
+                    .append(",\"status\":\"").append(status)
+                    .append("\",\"referenceCode\":");
+            appendJson(referenceCode);
+            line.append('}');
+        }
+        endLine();
+        rows++;
+    }
+
+    /**
+     * Writes what is still buffered.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    private void endLine() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (encoder.encode(chars, buffer, true).isOverflow()) {
+            flush();
+        }
+        encoder.reset();
+        line.setLength(0);
+    }
+
+    private void appendCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendJson(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
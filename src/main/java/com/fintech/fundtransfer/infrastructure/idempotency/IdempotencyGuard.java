@@ -0,0 +1,223 @@
+package com.fintech.fundtransfer.infrastructure.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency tier in front of {@code transactionLogRepository.findSnapshotByReferenceCode}.
+ * <p>
+ * A Redis {@code SET NX} reservation per reference code lets exactly one request through; it is replaced by the
+ * serialized response on success, so duplicates are answered without touching the database. The local Bloom
+ * filter remembers which codes this pod has seen complete: only those need a database lookup once their Redis
+ * entry has expired. Codes completed elsewhere are still caught by the reference code claim in
+ * {@code transaction_reference_codes}.
+ */
+@Component
+@Slf4j
+public class IdempotencyGuard {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING = "PENDING";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final Duration pendingTtl;
+    private final Duration completedTtl;
+    private final long bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+    private final AtomicLong bloomInsertions = new AtomicLong();
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    private volatile LocalBloomFilter currentBloom;
+    private volatile LocalBloomFilter previousBloom;
+
+    public IdempotencyGuard(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            @Value("${fund-transfer.idempotency.pending-ttl-ms:30000}") long pendingTtlMillis,
+                            @Value("${fund-transfer.idempotency.completed-ttl-ms:86400000}") long completedTtlMillis,
+                            @Value("${fund-transfer.idempotency.bloom-expected-insertions:1000000}") long bloomExpectedInsertions,
+                            @Value("${fund-transfer.idempotency.bloom-false-positive-rate:0.01}") double bloomFalsePositiveRate) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.pendingTtl = Duration.ofMillis(pendingTtlMillis);
+        this.completedTtl = Duration.ofMillis(completedTtlMillis);
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.currentBloom = new LocalBloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+        this.previousBloom = new LocalBloomFilter(1, bloomFalsePositiveRate);
+    }
+
+    public IdempotencyReservation reserve(String referenceCode) {
+        try {
+            RBucket<String> bucket = bucket(referenceCode);
+            if (bucket.setIfAbsent(PENDING, pendingTtl)) {
+                return new IdempotencyReservation(State.ACQUIRED, null);
+            }
+            String value = bucket.get();
+            if (value == null) {
+                // Expired between SET NX and GET; one more attempt decides the race
+                return bucket.setIfAbsent(PENDING, pendingTtl)
+                        ? new IdempotencyReservation(State.ACQUIRED, null)
+                        : new IdempotencyReservation(State.IN_FLIGHT, null);
+            }
+            if (PENDING.equals(value)) {
+                return new IdempotencyReservation(State.IN_FLIGHT, null);
+            }
+            return new IdempotencyReservation(State.COMPLETED, objectMapper.readValue(value, TransferResponse.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Idempotency reservation unavailable for reference code {}, falling back to database", referenceCode, e);
+            return new IdempotencyReservation(State.UNAVAILABLE, null);
+        }
+    }
+
+    /**
+     * {@link #reserve} without blocking the calling thread: completes once Redis has answered, never exceptionally.
+     */
+    public CompletableFuture<IdempotencyReservation> reserveAsync(String referenceCode) {
+        CompletableFuture<IdempotencyReservation> reservation;
+        try {
+            RBucket<String> bucket = bucket(referenceCode);
+            reservation = bucket.setIfAbsentAsync(PENDING, pendingTtl).toCompletableFuture().thenCompose(acquired -> {
+                if (acquired) {
+                    return CompletableFuture.completedFuture(new IdempotencyReservation(State.ACQUIRED, null));
+                }
+                return bucket.getAsync().toCompletableFuture().thenCompose(value -> value != null
+                        ? CompletableFuture.completedFuture(taken(referenceCode, value))
+                        // Expired between SET NX and GET; one more attempt decides the race
+                        : bucket.setIfAbsentAsync(PENDING, pendingTtl).toCompletableFuture().thenApply(again -> again
+                                ? new IdempotencyReservation(State.ACQUIRED, null)
+                                : new IdempotencyReservation(State.IN_FLIGHT, null)));
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(unavailable(referenceCode, e));
+        }
+        return reservation.exceptionally(e -> unavailable(referenceCode, e));
+    }
+
+    /**
+     * {@link #reserve} for many reference codes, with the Redis commands of all codes sent before any answer is
+     * awaited. Codes must be distinct.
+     */
+    public List<IdempotencyReservation> reserveAll(List<String> referenceCodes) {
+        List<RFuture<Boolean>> reserved = new ArrayList<>(referenceCodes.size());
+        try {
+            for (String referenceCode : referenceCodes) {
+                reserved.add(bucket(referenceCode).setIfAbsentAsync(PENDING, pendingTtl));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Idempotency reservations unavailable for {} reference codes, falling back to database", referenceCodes.size(), e);
+            return referenceCodes.stream().map(code -> new IdempotencyReservation(State.UNAVAILABLE, null)).toList();
+        }
+        List<RFuture<String>> taken = new ArrayList<>(referenceCodes.size());
+        for (int i = 0; i < referenceCodes.size(); i++) {
+            taken.add(isTrue(reserved.get(i)) ? null : bucket(referenceCodes.get(i)).getAsync());
+        }
+
+        List<IdempotencyReservation> reservations = new ArrayList<>(referenceCodes.size());
+        for (int i = 0; i < referenceCodes.size(); i++) {
+            String referenceCode = referenceCodes.get(i);
+            if (taken.get(i) == null) {
+                reservations.add(reserved.get(i).isSuccess()
+                        ? new IdempotencyReservation(State.ACQUIRED, null)
+                        : unavailable(referenceCode, reserved.get(i).cause()));
+                continue;
+            }
+            try {
+                String value = taken.get(i).toCompletableFuture().join();
+                // Expired between SET NX and GET: decided by one synchronous attempt
+                reservations.add(value == null ? reserve(referenceCode) : taken(referenceCode, value));
+            } catch (RuntimeException e) {
+                reservations.add(unavailable(referenceCode, e));
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Stores the committed result so that duplicates can be answered from Redis.
+     */
+    public void complete(String referenceCode, TransferResponse response) {
+        recordCompleted(referenceCode);
+        try {
+            bucket(referenceCode).set(objectMapper.writeValueAsString(response), completedTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to cache result for reference code {}", referenceCode, e);
+        }
+    }
+
+    /**
+     * Drops the reservation of a request that did not commit, so the client can retry.
+     */
+    public void release(String referenceCode) {
+        try {
+            bucket(referenceCode).compareAndSetAsync(PENDING, null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release reservation for reference code {}", referenceCode, e);
+        }
+    }
+
+    public boolean mightHaveCompleted(String referenceCode) {
+        return currentBloom.mightContain(referenceCode) || previousBloom.mightContain(referenceCode);
+    }
+
+    public void recordCompleted(String referenceCode) {
+        // Two generations keep the false-positive rate bounded without forgetting recent codes at once
+        if (bloomInsertions.incrementAndGet() > bloomExpectedInsertions) {
+            rotationLock.lock();
+            try {
+                if (bloomInsertions.get() > bloomExpectedInsertions) {
+                    previousBloom = currentBloom;
+                    currentBloom = new LocalBloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+                    bloomInsertions.set(0);
+                }
+            } finally {
+                rotationLock.unlock();
+            }
+        }
+        currentBloom.put(referenceCode);
+    }
+
+    // The reservation of a code whose key holds a value: in flight, or the serialized response once completed
+    private IdempotencyReservation taken(String referenceCode, String value) {
+        if (PENDING.equals(value)) {
+            return new IdempotencyReservation(State.IN_FLIGHT, null);
+        }
+        try {
+            return new IdempotencyReservation(State.COMPLETED, objectMapper.readValue(value, TransferResponse.class));
+        } catch (JsonProcessingException e) {
+            return unavailable(referenceCode, e);
+        }
+    }
+
+    private static boolean isTrue(RFuture<Boolean> reserved) {
+        try {
+            return Boolean.TRUE.equals(reserved.toCompletableFuture().join());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static IdempotencyReservation unavailable(String referenceCode, Throwable cause) {
+        log.warn("Idempotency reservation unavailable for reference code {}, falling back to database", referenceCode, cause);
+        return new IdempotencyReservation(State.UNAVAILABLE, null);
+    }
+
+    private RBucket<String> bucket(String referenceCode) {
+        return redissonClient.getBucket(KEY_PREFIX + referenceCode, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,23 @@
+package com.fintech.fundtransfer.infrastructure.idempotency;
+
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IdempotencyReservation {
+    private final State state;
+    private final TransferResponse response;
+
+    public enum State {
+        /** This request owns the reference code until it completes or releases it. */
+        ACQUIRED,
+        /** The reference code already completed; {@code response} holds the original result. */
+        COMPLETED,
+        /** Another request with the same reference code is being processed right now. */
+        IN_FLIGHT,
+        /** Redis could not be reached; the caller must fall back to the database. */
+        UNAVAILABLE
+    }
+}
@@ -0,0 +1,224 @@
+package com.fintech.fundtransfer.infrastructure.ledger;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of one ledger shard, written by the shard's thread only.
+ * <p>
+ * Each {@link #append} writes all records of a drain cycle and forces them to disk once (group commit). Records
+ * are length-prefixed and checksummed so that a torn write at the tail is detected and ignored on recovery.
+ * The journal is split into segments; a segment is deleted once every transfer in it has been persisted.
+ */
+@Slf4j
+public class LedgerJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final int shard;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private FileChannel channel;
+    private volatile int segment;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    public LedgerJournal(Path directory, int shard, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.shard = shard;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            openSegment(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the transfers and makes them durable.
+     *
+     * @return the segment the records were written to
+     */
+    public int append(List<TransactionLog> entries) throws IOException {
+        if (channel.size() >= segmentBytes) {
+            channel.close();
+            openSegment(segment + 1);
+        }
+        buffer.clear();
+        for (TransactionLog entry : entries) {
+            byte[] payload = encode(entry);
+            if (buffer.remaining() < HEADER_BYTES + payload.length) {
+                writeBuffer();
+                if (buffer.capacity() < HEADER_BYTES + payload.length) {
+                    buffer = ByteBuffer.allocateDirect(HEADER_BYTES + payload.length);
+                }
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        writeBuffer();
+        if (fsync) {
+            channel.force(false);
+        }
+        return segment;
+    }
+
+    /**
+     * Deletes the segments before the given one. Called by the flusher once they are fully persisted.
+     */
+    public void deleteSegmentsBefore(int firstLiveSegment) {
+        for (Path file : segments(directory, shardPrefix(shard))) {
+            if (segmentIndex(file) < firstLiveSegment) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads every intact record of every shard, oldest segment first.
+     */
+    public static List<TransactionLog> readAll(Path directory) throws IOException {
+        List<TransactionLog> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        for (Path file : segments(directory, "shard-")) {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+            while (data.remaining() >= HEADER_BYTES) {
+                int length = data.getInt();
+                int checksum = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    log.warn("Ignoring torn record at the tail of {}", file);
+                    break;
+                }
+                byte[] payload = new byte[length];
+                data.get(payload);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Ignoring corrupt record at the tail of {}", file);
+                    break;
+                }
+                entries.add(decode(payload));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Removes all segments once their content has been recovered.
+     */
+    public static void deleteAll(Path directory) {
+        if (Files.isDirectory(directory)) {
+            segments(directory, "shard-").forEach(LedgerJournal::deleteQuietly);
+        }
+    }
+
+    private void openSegment(int index) throws IOException {
+        segment = index;
+        channel = FileChannel.open(directory.resolve(shardPrefix(shard) + String.format("%010d.journal", index)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] encode(TransactionLog entry) {
+        // Same layout as amounts written as scale + unscaled bytes, so older segments still replay
+        byte[] referenceCode = entry.getReferenceCode().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES * 4 + Integer.BYTES * 3 + referenceCode.length);
+        payload.putLong(entry.getId())
+                .putLong(entry.getSourceId())
+                .putLong(entry.getDestinationId())
+                .putInt(Money.SCALE)
+                .putInt(Long.BYTES).putLong(entry.getAmount().minorUnits())
+                .putInt(referenceCode.length).put(referenceCode);
+        return payload.array();
+    }
+
+    private static TransactionLog decode(byte[] bytes) {
+        ByteBuffer payload = ByteBuffer.wrap(bytes);
+        long id = payload.getLong();
+        long sourceId = payload.getLong();
+        long destinationId = payload.getLong();
+        Money amount = decodeAmount(payload);
+        byte[] referenceCode = new byte[payload.getInt()];
+        payload.get(referenceCode);
+        return TransactionLog.builder()
+                .id(id)
+                .sourceId(sourceId)
+                .destinationId(destinationId)
+                .amount(amount)
+                .status(TransactionLog.TransactionStatus.SUCCESS)
+                .referenceCode(new String(referenceCode, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static Money decodeAmount(ByteBuffer payload) {
+        int scale = payload.getInt();
+        int length = payload.getInt();
+        if (scale == Money.SCALE && length == Long.BYTES) {
+            return Money.ofMinor(payload.getLong());
+        }
+        byte[] unscaled = new byte[length];
+        payload.get(unscaled);
+        return Money.of(new BigDecimal(new BigInteger(unscaled), scale));
+    }
+
+    private static String shardPrefix(int shard) {
+        return String.format("shard-%03d-", shard);
+    }
+
+    private static int segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.indexOf(".journal")));
+    }
+
+    private static List<Path> segments(Path directory, String prefix) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*.journal")) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        files.sort((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+        return files;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete journal segment {}", file, e);
+        }
+    }
+}
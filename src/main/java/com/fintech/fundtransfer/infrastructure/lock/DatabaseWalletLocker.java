@@ -0,0 +1,119 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferPhase;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Database-only alternative to the Redis lock tier for single-region deployments: the wallet rows of a transfer
+ * are locked with {@code SELECT ... FOR UPDATE} in ascending ID order (so concurrent transfers cannot deadlock)
+ * at the start of its transaction and released by its commit.
+ * <p>
+ * The mode and wait policy are read on every transfer and can be switched at runtime (see
+ * {@link WalletLockModeEndpoint}). Pods may run different modes at the same time: the guarded debit/credit
+ * statement keeps balances correct either way, the locks only order contending transfers. A pod in Redis mode also
+ * uses row locks while {@link RedisLockHealth} has Redis marked unavailable.
+ */
+@Component
+@Slf4j
+@Getter
+public class DatabaseWalletLocker {
+
+    private final WalletJpaRepository walletRepository;
+    private final ContendedWallets contendedWallets;
+    private volatile WalletLockMode mode;
+    private volatile RowLockWaitPolicy waitPolicy;
+    private volatile long lockTimeoutMillis;
+    private volatile boolean redisFallback;
+
+    public DatabaseWalletLocker(WalletJpaRepository walletRepository,
+                                ContendedWallets contendedWallets,
+                                @Value("${fund-transfer.lock.mode:redis}") String mode,
+                                @Value("${fund-transfer.lock.db-wait-policy:wait}") String waitPolicy,
+                                @Value("${fund-transfer.lock.db-lock-timeout-ms:5000}") long lockTimeoutMillis) {
+        this.walletRepository = walletRepository;
+        this.contendedWallets = contendedWallets;
+        this.mode = WalletLockMode.parse(mode);
+        this.waitPolicy = RowLockWaitPolicy.parse(waitPolicy);
+        this.lockTimeoutMillis = checkLockTimeout(lockTimeoutMillis);
+    }
+
+    public boolean isActive() {
+        return mode == WalletLockMode.DATABASE || redisFallback;
+    }
+
+    void setRedisFallback(boolean redisFallback) {
+        this.redisFallback = redisFallback;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code lockTimeoutMillis} is not positive
+     */
+    public void configure(WalletLockMode mode, RowLockWaitPolicy waitPolicy, long lockTimeoutMillis) {
+        checkLockTimeout(lockTimeoutMillis);
+        this.mode = mode;
+        this.waitPolicy = waitPolicy;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        log.info("Wallet lock mode set to {} (wait policy {}, lock timeout {} ms)", mode, waitPolicy, lockTimeoutMillis);
+    }
+
+    /**
+     * Locks the wallets' rows for the rest of the current transaction. Missing wallets are not locked and are
+     * left for the transfer itself to report.
+     */
+    public void lock(Collection<Long> walletIds) {
+        List<Long> ids = walletIds.stream().distinct().sorted().toList();
+        boolean locked = false;
+        TransferTrace.PhaseTimer phase = TransferTrace.phase(TransferPhase.LOCK_ROW);
+        try {
+            lockRows(ids);
+            locked = true;
+        } finally {
+            contendedWallets.recordLockWait(ids, phase.stop(), !locked);
+        }
+        TransferTrace.untilCompletion(TransferPhase.LOCK_HOLD);
+    }
+
+    private void lockRows(List<Long> ids) {
+        RowLockWaitPolicy policy = waitPolicy;
+        List<Long> locked;
+        try {
+            locked = switch (policy) {
+                case WAIT -> {
+                    walletRepository.setLockTimeout(lockTimeoutMillis + "ms");
+                    yield walletRepository.lockForUpdate(ids);
+                }
+                case NOWAIT -> walletRepository.lockForUpdateNowait(ids);
+                case SKIP_LOCKED -> walletRepository.lockForUpdateSkipLocked(ids);
+            };
+        } catch (PessimisticLockingFailureException e) {
+            throw new LockAcquisitionException("wallet rows " + ids + " are locked by another transaction");
+        }
+
+        if (policy == RowLockWaitPolicy.SKIP_LOCKED && locked.size() < ids.size()) {
+            // A skipped row is either locked or missing; only the former is a lock failure
+            List<Long> skipped = ids.stream().filter(id -> !locked.contains(id)).toList();
+            if (walletRepository.countByIdIn(skipped) > 0) {
+                throw new LockAcquisitionException("wallet rows " + skipped + " are locked by another transaction");
+            }
+        }
+    }
+
+    // lock_timeout = 0 disables the timeout in Postgres: every row-locked transfer would wait forever
+    private static long checkLockTimeout(long lockTimeoutMillis) {
+        if (lockTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("lock timeout must be positive, was " + lockTimeoutMillis + " ms");
+        }
+        return lockTimeoutMillis;
+    }
+}
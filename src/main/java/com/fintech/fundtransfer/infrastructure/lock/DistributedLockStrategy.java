@@ -0,0 +1,46 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remote tier of the {@link WalletLockManager}: how a set of wallet locks is taken from and returned to Redis.
+ * Implementations store locks in Redisson's lock format so that strategies can be switched pod by pod, and issue
+ * fencing tokens from the same per-wallet counter ({@code INCR} on {@value #FENCE_PREFIX}{@code <id>}, hash-tagged on a
+ * cluster, see {@link LockKeys}).
+ */
+public interface DistributedLockStrategy {
+
+    String LOCK_PREFIX = "wallet_lock:";
+    String FENCE_PREFIX = "wallet_fence:";
+
+    /**
+     * Locks all given wallets (already sorted ascending) for {@code ownerId}, or none of them.
+     *
+     * @return the new fencing token of every wallet, in {@code walletIds} order, or {@code null} if the locks could
+     *         not be taken within {@code waitTimeMillis}
+     */
+    long[] tryLock(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis) throws InterruptedException;
+
+    /**
+     * Non-blocking {@link #tryLock}: no thread waits for Redis replies or backoff. Completes with the fencing tokens,
+     * with {@code null} on timeout, or exceptionally with a {@link
+     * com.fintech.fundtransfer.domain.exception.LockAcquisitionException} if a Redis request failed. Cancelling the
+     * future gives up the attempt; locks it takes afterwards are released again.
+     */
+    CompletableFuture<long[]> tryLockAsync(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis);
+
+    void unlock(List<Long> walletIds, long ownerId);
+
+    /**
+     * Extends the leases {@code ownerId} holds on the given wallets to {@code leaseTimeMillis}.
+     *
+     * @return the wallets whose lock {@code ownerId} no longer holds
+     */
+    List<Long> renew(List<Long> walletIds, long ownerId, long leaseTimeMillis);
+
+    /**
+     * Moves the wallet's fencing token counter to at least {@code token}, e.g. after Redis lost it in a failover.
+     */
+    void advanceFencingToken(Long walletId, long token);
+}
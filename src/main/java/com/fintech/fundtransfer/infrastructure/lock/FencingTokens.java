@@ -0,0 +1,23 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import java.util.Map;
+
+/**
+ * Fencing tokens of the Redis leases behind a set of wallet locks. A fenced write stores the token in
+ * {@code wallets.fencing_token} and is rejected if the stored token is newer, so a holder whose lease expired during
+ * a pause cannot write after the next holder did. Wallets without a token (row locks) are written with
+ * {@value #UNFENCED}, which skips the check.
+ */
+public record FencingTokens(Map<Long, Long> tokens) {
+
+    public static final long UNFENCED = 0;
+    public static final FencingTokens NONE = new FencingTokens(Map.of());
+
+    public long of(Long walletId) {
+        return tokens.getOrDefault(walletId, UNFENCED);
+    }
+
+    public boolean isEmpty() {
+        return tokens.isEmpty();
+    }
+}
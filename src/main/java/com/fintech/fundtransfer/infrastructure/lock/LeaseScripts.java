@@ -0,0 +1,71 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lease renewal and fencing token repair shared by the {@link DistributedLockStrategy} implementations; both work
+ * on Redisson's lock hash, whatever strategy took the lock.
+ */
+@Slf4j
+final class LeaseScripts {
+
+    // Returns the 1-based positions of the keys the owner no longer holds
+    private static final String RENEW_SCRIPT =
+            "local lost = {}; " +
+            "for i = 1, #KEYS do " +
+                "if (redis.call('hexists', KEYS[i], ARGV[2]) == 1) then " +
+                    "redis.call('pexpire', KEYS[i], ARGV[1]); " +
+                "else " +
+                    "table.insert(lost, i); " +
+                "end; " +
+            "end; " +
+            "return lost;";
+
+    private static final String ADVANCE_SCRIPT =
+            "if (tonumber(redis.call('get', KEYS[1]) or '0') < tonumber(ARGV[1])) then " +
+                "redis.call('set', KEYS[1], ARGV[1]); " +
+            "end; " +
+            "return nil;";
+
+    private LeaseScripts() {
+    }
+
+    static List<Long> renew(RedissonClient redissonClient, LockKeys lockKeys, List<Long> walletIds, long ownerId,
+                            long leaseTimeMillis) {
+        List<Long> lost = new ArrayList<>();
+        for (List<Long> group : lockKeys.slotGroups(walletIds)) {
+            List<Object> keys = new ArrayList<>(group.size());
+            for (Long id : group) {
+                keys.add(lockKeys.lock(id));
+            }
+            List<Long> lostPositions = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    RENEW_SCRIPT, RScript.ReturnType.MULTI, keys, String.valueOf(leaseTimeMillis), ownerName(redissonClient, ownerId));
+            for (Long position : lostPositions) {
+                lost.add(group.get(position.intValue() - 1));
+            }
+        }
+        return lost;
+    }
+
+    static void advanceFencingToken(RedissonClient redissonClient, LockKeys lockKeys, Long walletId, long token) {
+        redissonClient.getScript(StringCodec.INSTANCE)
+                .evalAsync(RScript.Mode.READ_WRITE, ADVANCE_SCRIPT, RScript.ReturnType.INTEGER,
+                        List.of(lockKeys.fence(walletId)), String.valueOf(token))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to advance the fencing token of wallet {}", walletId, error);
+                    }
+                });
+    }
+
+    // Field name RedissonLock uses for a holder: "<client id>:<thread id>"
+    static String ownerName(RedissonClient redissonClient, long ownerId) {
+        return redissonClient.getId() + ":" + ownerId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.infrastructure.config.RedisTopology;
+import org.redisson.connection.CRC16;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static com.fintech.fundtransfer.infrastructure.lock.DistributedLockStrategy.FENCE_PREFIX;
+import static com.fintech.fundtransfer.infrastructure.lock.DistributedLockStrategy.LOCK_PREFIX;
+
+/**
+ * Redis keys of the wallet locks. On a Redis Cluster the wallet ID is the hash tag of both its lock and its fencing
+ * counter ({@code wallet_lock:{42}}, {@code wallet_fence:{42}}), so one script can take both and wallets are spread
+ * over the cluster's slots. A script may only touch keys of one slot, so multi-wallet scripts run per slot group.
+ * Other topologies keep the plain keys, so existing locks and fencing counters stay valid.
+ */
+final class LockKeys {
+
+    private static final int SLOTS = 16384;
+
+    private final boolean hashTagged;
+
+    LockKeys(RedisTopology topology) {
+        this.hashTagged = topology == RedisTopology.CLUSTER;
+    }
+
+    String lock(Long walletId) {
+        return hashTagged ? LOCK_PREFIX + "{" + walletId + "}" : LOCK_PREFIX + walletId;
+    }
+
+    String fence(Long walletId) {
+        return hashTagged ? FENCE_PREFIX + "{" + walletId + "}" : FENCE_PREFIX + walletId;
+    }
+
+    // Channel RedissonLock publishes unlocks on: the lock name, wrapped in a hash tag unless it has one
+    String unlockChannel(Long walletId) {
+        return hashTagged ? "redisson_lock__channel:" + lock(walletId) : "redisson_lock__channel:{" + lock(walletId) + "}";
+    }
+
+    /**
+     * The wallets grouped by cluster slot, in slot order, each group in the given order; a single group unless
+     * the keys are hash-tagged.
+     */
+    List<List<Long>> slotGroups(List<Long> walletIds) {
+        if (!hashTagged || walletIds.size() < 2) {
+            return List.of(walletIds);
+        }
+        TreeMap<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long walletId : walletIds) {
+            groups.computeIfAbsent(slot(walletId), slot -> new ArrayList<>()).add(walletId);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    static int slot(Long walletId) {
+        return CRC16.crc16(String.valueOf(walletId).getBytes(StandardCharsets.US_ASCII)) % SLOTS;
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.infrastructure.config.RedisTopology;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisClusterMaster;
+import org.redisson.api.redisnode.RedisNodes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Degraded mode of the Redis lock tier: while Redis is unavailable, transfers of this pod serialize on database
+ * row locks ({@link DatabaseWalletLocker}) instead of failing on the Redis locks.
+ * <p>
+ * Redis counts as unavailable after {@code failure-threshold} consecutive failed lock requests or probes; a probe
+ * pings every master the wallet locks live on. After {@code recovery-probes} consecutive successful probes the pod
+ * takes its locks in Redis again. Pods switch independently, which is safe for the same reason a manual switch is.
+ */
+@Component
+@Slf4j
+public class RedisLockHealth {
+
+    private final RedissonClient redissonClient;
+    private final RedisTopology topology;
+    private final DatabaseWalletLocker databaseWalletLocker;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final int recoveryProbes;
+    private final long probeTimeoutMillis;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // Only touched by the probe
+    private int consecutiveRecoveries;
+
+    public RedisLockHealth(RedissonClient redissonClient,
+                           DatabaseWalletLocker databaseWalletLocker,
+                           MeterRegistry meterRegistry,
+                           @Value("${fund-transfer.redis.topology:single}") String topology,
+                           @Value("${fund-transfer.lock.fallback.enabled:true}") boolean enabled,
+                           @Value("${fund-transfer.lock.fallback.failure-threshold:3}") int failureThreshold,
+                           @Value("${fund-transfer.lock.fallback.recovery-probes:3}") int recoveryProbes,
+                           @Value("${fund-transfer.lock.fallback.probe-timeout-ms:500}") long probeTimeoutMillis) {
+        this.redissonClient = redissonClient;
+        this.topology = RedisTopology.parse(topology);
+        this.databaseWalletLocker = databaseWalletLocker;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.recoveryProbes = recoveryProbes;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        Gauge.builder("fund_transfer.lock.redis_fallback", databaseWalletLocker, locker -> locker.isRedisFallback() ? 1 : 0)
+                .description("1 while wallet locks fall back to database row locks because Redis is unavailable")
+                .register(meterRegistry);
+    }
+
+    public void recordSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    public void recordFailure(Throwable cause) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (enabled && failures >= failureThreshold && !databaseWalletLocker.isRedisFallback()) {
+            databaseWalletLocker.setRedisFallback(true);
+            meterRegistry.counter("fund_transfer.lock.redis_fallbacks").increment();
+            log.error("Redis unavailable after {} consecutive failures, wallet locks fall back to database row locks",
+                    failures, cause);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.lock.fallback.probe-interval-ms:1000}")
+    public void probe() {
+        if (!enabled || databaseWalletLocker.getMode() == WalletLockMode.DATABASE) {
+            return;
+        }
+        boolean healthy;
+        try {
+            healthy = pingMasters();
+        } catch (RuntimeException e) {
+            healthy = false;
+        }
+        if (!healthy) {
+            consecutiveRecoveries = 0;
+            recordFailure(null);
+            return;
+        }
+        recordSuccess();
+        if (databaseWalletLocker.isRedisFallback() && ++consecutiveRecoveries >= recoveryProbes) {
+            consecutiveRecoveries = 0;
+            databaseWalletLocker.setRedisFallback(false);
+            log.info("Redis available again, wallet locks are taken in Redis");
+        }
+    }
+
+    private boolean pingMasters() {
+        return switch (topology) {
+            case SINGLE -> redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance()
+                    .ping(probeTimeoutMillis, TimeUnit.MILLISECONDS);
+            case SENTINEL -> redissonClient.getRedisNodes(RedisNodes.SENTINEL_MASTER_SLAVE).getMaster()
+                    .ping(probeTimeoutMillis, TimeUnit.MILLISECONDS);
+            case CLUSTER -> {
+                Collection<RedisClusterMaster> masters = redissonClient.getRedisNodes(RedisNodes.CLUSTER).getMasters();
+                yield !masters.isEmpty() && masters.stream().allMatch(master -> master.ping(probeTimeoutMillis, TimeUnit.MILLISECONDS));
+            }
+        };
+    }
+}
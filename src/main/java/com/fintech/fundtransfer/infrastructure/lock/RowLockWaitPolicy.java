@@ -0,0 +1,17 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+/**
+ * What {@link DatabaseWalletLocker} does when a wallet row is locked by another transaction.
+ */
+public enum RowLockWaitPolicy {
+    /** Wait up to the lock timeout ({@code SET LOCAL lock_timeout}). */
+    WAIT,
+    /** Fail at once ({@code FOR UPDATE NOWAIT}). */
+    NOWAIT,
+    /** Skip the locked row and fail if any was skipped ({@code FOR UPDATE SKIP LOCKED}). */
+    SKIP_LOCKED;
+
+    static RowLockWaitPolicy parse(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
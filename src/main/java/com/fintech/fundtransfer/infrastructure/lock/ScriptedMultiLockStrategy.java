@@ -0,0 +1,270 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.infrastructure.config.RedisTopology;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes all wallet locks of a transfer atomically with one Lua script (one Redis round-trip per attempt).
+ * Instead of parking on the first busy lock while holding the others, a failed attempt holds nothing and is
+ * retried with jittered exponential backoff until the wait budget runs out; the backoff is scheduled, not slept,
+ * so {@link #tryLockAsync} holds no thread while waiting. The fencing tokens are issued by the same script. On a
+ * Redis Cluster one script per slot group is sent in the same attempt; if any group is busy, the groups that were
+ * taken are released again.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fund-transfer.lock.strategy", havingValue = "multi", matchIfMissing = true)
+public class ScriptedMultiLockStrategy implements DistributedLockStrategy {
+
+    // Same hash layout as RedissonLock: field "<client id>:<owner id>" holds the re-entrance count. KEYS holds the
+    // lock keys followed by the fencing counters of the same wallets. Returns the new fencing tokens, or
+    // {0, pttl of the blocking lock}; tokens start at 1.
+    private static final String LOCK_SCRIPT =
+            "local n = #KEYS / 2; " +
+            "for i = 1, n do " +
+                "if (redis.call('exists', KEYS[i]) == 1) and (redis.call('hexists', KEYS[i], ARGV[2]) == 0) then " +
+                    "return {0, redis.call('pttl', KEYS[i])}; " +
+                "end; " +
+            "end; " +
+            "local tokens = {}; " +
+            "for i = 1, n do " +
+                "redis.call('hincrby', KEYS[i], ARGV[2], 1); " +
+                "redis.call('pexpire', KEYS[i], ARGV[1]); " +
+                "tokens[i] = redis.call('incr', KEYS[n + i]); " +
+            "end; " +
+            "return tokens;";
+
+    // Publishes Redisson's unlock message so that RLock waiters on other pods wake up immediately.
+    private static final String UNLOCK_SCRIPT =
+            "for i = 1, #KEYS do " +
+                "if (redis.call('hexists', KEYS[i], ARGV[1]) == 1) then " +
+                    "local counter = redis.call('hincrby', KEYS[i], ARGV[1], -1); " +
+                    "if (counter > 0) then " +
+                        "redis.call('pexpire', KEYS[i], ARGV[2]); " +
+                    "else " +
+                        "redis.call('del', KEYS[i]); " +
+                        "redis.call('publish', ARGV[i + 2], 0); " +
+                    "end; " +
+                "end; " +
+            "end; " +
+            "return nil;";
+
+    private final RedissonClient redissonClient;
+    private final long backoffInitialMillis;
+    private final long backoffMaxMillis;
+    private final long leaseTimeMillis;
+    private final LockKeys lockKeys;
+
+    public ScriptedMultiLockStrategy(RedissonClient redissonClient,
+                                     @Value("${fund-transfer.lock.backoff-initial-ms:5}") long backoffInitialMillis,
+                                     @Value("${fund-transfer.lock.backoff-max-ms:100}") long backoffMaxMillis,
+                                     @Value("${fund-transfer.lock.lease-time-ms:3000}") long leaseTimeMillis,
+                                     @Value("${fund-transfer.redis.topology:single}") String topology) {
+        this.redissonClient = redissonClient;
+        this.lockKeys = new LockKeys(RedisTopology.parse(topology));
+        this.backoffInitialMillis = backoffInitialMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseTimeMillis = leaseTimeMillis;
+    }
+
+    @Override
+    public long[] tryLock(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis) throws InterruptedException {
+        CompletableFuture<long[]> attempt = tryLockAsync(walletIds, ownerId, waitTimeMillis, leaseTimeMillis);
+        try {
+            return attempt.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new LockAcquisitionException("Distributed lock request failed");
+        } catch (InterruptedException e) {
+            // Locks taken by an attempt still in flight are released by it
+            attempt.cancel(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<long[]> tryLockAsync(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis) {
+        LockAttempt attempt = new LockAttempt(walletIds, ownerId, leaseTimeMillis,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeMillis));
+        attempt.send();
+        return attempt.result;
+    }
+
+    @Override
+    public void unlock(List<Long> walletIds, long ownerId) {
+        for (List<Long> group : lockKeys.slotGroups(walletIds)) {
+            List<Object> keys = keys(group);
+            Object[] args = new Object[keys.size() + 2];
+            args[0] = LeaseScripts.ownerName(redissonClient, ownerId);
+            args[1] = String.valueOf(leaseTimeMillis);
+            for (int i = 0; i < group.size(); i++) {
+                args[i + 2] = lockKeys.unlockChannel(group.get(i));
+            }
+
+            redissonClient.getScript(StringCodec.INSTANCE)
+                    .evalAsync(RScript.Mode.READ_WRITE, UNLOCK_SCRIPT, RScript.ReturnType.INTEGER, keys, args)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to release distributed locks for wallets {}", group, error);
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public List<Long> renew(List<Long> walletIds, long ownerId, long leaseTimeMillis) {
+        return LeaseScripts.renew(redissonClient, lockKeys, walletIds, ownerId, leaseTimeMillis);
+    }
+
+    @Override
+    public void advanceFencingToken(Long walletId, long token) {
+        LeaseScripts.advanceFencingToken(redissonClient, lockKeys, walletId, token);
+    }
+
+    /**
+     * One acquisition: sends the scripts, and on busy locks schedules the next round after the backoff instead of
+     * sleeping, so no thread is held while waiting.
+     */
+    private final class LockAttempt {
+
+        private final CompletableFuture<long[]> result = new CompletableFuture<>();
+        private final List<Long> walletIds;
+        private final long ownerId;
+        private final long leaseTimeMillis;
+        private final long deadline;
+        private final List<List<Long>> groups;
+        private final List<List<Object>> groupKeys;
+        private final String owner;
+        private long backoff = backoffInitialMillis;
+
+        private LockAttempt(List<Long> walletIds, long ownerId, long leaseTimeMillis, long deadline) {
+            this.walletIds = walletIds;
+            this.ownerId = ownerId;
+            this.leaseTimeMillis = leaseTimeMillis;
+            this.deadline = deadline;
+            this.groups = lockKeys.slotGroups(walletIds);
+            this.groupKeys = new ArrayList<>(groups.size());
+            for (List<Long> group : groups) {
+                List<Object> keys = keys(group);
+                for (Long id : group) {
+                    keys.add(lockKeys.fence(id));
+                }
+                groupKeys.add(keys);
+            }
+            this.owner = LeaseScripts.ownerName(redissonClient, ownerId);
+        }
+
+        private void send() {
+            if (result.isDone()) {
+                return;
+            }
+            // One script per slot group (a single one outside a cluster), all sent before any reply is handled
+            List<CompletableFuture<List<Long>>> replies = new ArrayList<>(groups.size());
+            try {
+                RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+                for (List<Object> keys : groupKeys) {
+                    RFuture<List<Long>> reply = script.evalAsync(RScript.Mode.READ_WRITE, LOCK_SCRIPT, RScript.ReturnType.MULTI,
+                            keys, String.valueOf(leaseTimeMillis), owner);
+                    replies.add(reply.toCompletableFuture());
+                }
+            } catch (RuntimeException e) {
+                // Groups already sent may still be taken
+                for (int g = 0; g < replies.size(); g++) {
+                    List<Long> group = groups.get(g);
+                    replies.get(g).thenAccept(reply -> {
+                        if (reply.get(0) != 0) {
+                            unlock(group, ownerId);
+                        }
+                    });
+                }
+                fail(e);
+                return;
+            }
+            CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> onReplies(replies));
+        }
+
+        private void onReplies(List<CompletableFuture<List<Long>>> replies) {
+            Map<Long, Long> tokens = new HashMap<>();
+            List<Long> locked = new ArrayList<>();
+            Throwable failure = null;
+            long blockingTtl = -1;
+            for (int g = 0; g < groups.size(); g++) {
+                List<Long> reply;
+                try {
+                    reply = replies.get(g).join();
+                } catch (CompletionException | CancellationException e) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                    continue;
+                }
+                if (reply.get(0) == 0) {
+                    blockingTtl = Math.max(blockingTtl, reply.get(1));
+                    continue;
+                }
+                List<Long> group = groups.get(g);
+                for (int i = 0; i < group.size(); i++) {
+                    tokens.put(group.get(i), reply.get(i));
+                }
+                locked.addAll(group);
+            }
+            if (locked.size() == walletIds.size()) {
+                if (!result.complete(walletIds.stream().mapToLong(tokens::get).toArray())) {
+                    // Given up while the scripts were in flight
+                    unlock(walletIds, ownerId);
+                }
+                return;
+            }
+
+            // All or nothing: slot groups taken by this attempt are released before backing off
+            if (!locked.isEmpty()) {
+                unlock(locked, ownerId);
+            }
+            if (failure != null) {
+                fail(failure);
+                return;
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                result.complete(null);
+                return;
+            }
+            long sleep = ThreadLocalRandom.current().nextLong(backoff + 1);
+            if (blockingTtl > 0) {
+                sleep = Math.min(sleep, blockingTtl);
+            }
+            backoff = Math.min(backoff * 2, backoffMaxMillis);
+            CompletableFuture.delayedExecutor(Math.min(sleep, remainingMillis), TimeUnit.MILLISECONDS).execute(this::send);
+        }
+
+        private void fail(Throwable failure) {
+            log.error("Distributed lock request failed for wallets {}", walletIds, failure);
+            result.completeExceptionally(new LockAcquisitionException("Distributed lock request failed"));
+        }
+    }
+
+    private List<Object> keys(List<Long> walletIds) {
+        List<Object> keys = new ArrayList<>(walletIds.size() * 2);
+        for (Long id : walletIds) {
+            keys.add(lockKeys.lock(id));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,133 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.infrastructure.config.RedisTopology;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One {@code RLock} per wallet, taken one after the other: two Redis round-trips per wallet (lock, fencing token).
+ * {@link #tryLockAsync} chains the same requests on their replies.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fund-transfer.lock.strategy", havingValue = "sequential")
+public class SequentialLockStrategy implements DistributedLockStrategy {
+
+    private final RedissonClient redissonClient;
+    private final LockKeys lockKeys;
+
+    public SequentialLockStrategy(RedissonClient redissonClient,
+                                  @Value("${fund-transfer.redis.topology:single}") String topology) {
+        this.redissonClient = redissonClient;
+        this.lockKeys = new LockKeys(RedisTopology.parse(topology));
+    }
+
+    @Override
+    public long[] tryLock(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeMillis);
+        List<Long> acquired = new ArrayList<>(walletIds.size());
+        long[] tokens = new long[walletIds.size()];
+        try {
+            for (Long id : walletIds) {
+                long remaining = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                boolean locked = redissonClient.getLock(lockKeys.lock(id))
+                        .tryLockAsync(remaining, leaseTimeMillis, TimeUnit.MILLISECONDS, ownerId).get();
+                if (!locked) {
+                    unlock(acquired, ownerId);
+                    return null;
+                }
+                acquired.add(id);
+                tokens[acquired.size() - 1] = redissonClient.getAtomicLong(lockKeys.fence(id)).incrementAndGetAsync().get();
+            }
+            return tokens;
+        } catch (ExecutionException e) {
+            unlock(acquired, ownerId);
+            log.error("Distributed lock request failed for wallets {}", walletIds, e.getCause());
+            throw new LockAcquisitionException("Distributed lock request failed");
+        } catch (InterruptedException e) {
+            unlock(acquired, ownerId);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<long[]> tryLockAsync(List<Long> walletIds, long ownerId, long waitTimeMillis, long leaseTimeMillis) {
+        CompletableFuture<long[]> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeMillis);
+        lockNext(walletIds, 0, new long[walletIds.size()], ownerId, deadline, leaseTimeMillis, result);
+        return result;
+    }
+
+    // Locks walletIds[index] once the wallets before it are held, chained on the replies rather than a waiting thread
+    private void lockNext(List<Long> walletIds, int index, long[] tokens, long ownerId, long deadline, long leaseTimeMillis,
+                          CompletableFuture<long[]> result) {
+        if (index == walletIds.size()) {
+            if (!result.complete(tokens)) {
+                // Given up while the last request was in flight
+                unlock(walletIds, ownerId);
+            }
+            return;
+        }
+        if (result.isDone()) {
+            unlock(walletIds.subList(0, index), ownerId);
+            return;
+        }
+        Long id = walletIds.get(index);
+        long remaining = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        AtomicBoolean locked = new AtomicBoolean();
+        redissonClient.getLock(lockKeys.lock(id)).tryLockAsync(remaining, leaseTimeMillis, TimeUnit.MILLISECONDS, ownerId)
+                .thenCompose(acquired -> {
+                    locked.set(acquired);
+                    return acquired
+                            ? redissonClient.getAtomicLong(lockKeys.fence(id)).incrementAndGetAsync()
+                            : CompletableFuture.<Long>completedFuture(null);
+                })
+                .whenComplete((token, error) -> {
+                    if (error != null || token == null) {
+                        unlock(walletIds.subList(0, locked.get() ? index + 1 : index), ownerId);
+                        if (error != null) {
+                            log.error("Distributed lock request failed for wallets {}", walletIds, error);
+                            result.completeExceptionally(new LockAcquisitionException("Distributed lock request failed"));
+                        } else {
+                            result.complete(null);
+                        }
+                        return;
+                    }
+                    tokens[index] = token;
+                    lockNext(walletIds, index + 1, tokens, ownerId, deadline, leaseTimeMillis, result);
+                });
+    }
+
+    @Override
+    public void unlock(List<Long> walletIds, long ownerId) {
+        for (Long id : walletIds) {
+            redissonClient.getLock(lockKeys.lock(id)).unlockAsync(ownerId)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to release distributed lock for wallet {}", id, error);
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public List<Long> renew(List<Long> walletIds, long ownerId, long leaseTimeMillis) {
+        return LeaseScripts.renew(redissonClient, lockKeys, walletIds, ownerId, leaseTimeMillis);
+    }
+
+    @Override
+    public void advanceFencingToken(Long walletId, long token) {
+        LeaseScripts.advanceFencingToken(redissonClient, lockKeys, walletId, token);
+    }
+}
@@ -0,0 +1,370 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferPhase;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletFencingToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-tier wallet locking.
+ * <p>
+ * Local tier: striped {@link ReentrantLock}s keyed by wallet ID queue up all contenders of the same pod.
+ * Remote tier: the Redis locks are taken through the configured {@link DistributedLockStrategy} on behalf of the
+ * pod (not the thread), so while local waiters remain they are handed from one local holder to the next instead
+ * of being released and re-acquired through Redis.
+ * <p>
+ * Leases are short and renewed by a watchdog every third of the lease time for as long as the pod has local
+ * interest in the wallet, so a crashed pod's locks fail over quickly. Every acquisition issues a fencing token per
+ * wallet; a pod that lost its lease while paused is rejected by the fenced writes rather than by the lock.
+ * {@link #acquireAsync} skips the local tier and takes the Redis locks without blocking a thread. Failed Redis
+ * requests are reported to {@link RedisLockHealth}, which may switch the pod to database row locks.
+ */
+@Component
+@Slf4j
+public class WalletLockManager {
+
+    // Redisson tracks lock ownership by thread id; a negative id never clashes with a real thread
+    // and lets any local thread of this pod release a lock another local thread acquired.
+    private static final long POD_OWNER_ID = -1L;
+
+    private final DistributedLockStrategy lockStrategy;
+    private final RedisLockHealth redisHealth;
+    private final MeterRegistry meterRegistry;
+    private final ContendedWallets contendedWallets;
+    private final ReentrantLock[] stripes;
+    private final ConcurrentHashMap<Long, RemoteLease> leases = new ConcurrentHashMap<>();
+    // Async acquisitions own their locks individually (IDs below POD_OWNER_ID); renewed until released
+    private final ConcurrentHashMap<Long, List<Long>> asyncLeases = new ConcurrentHashMap<>();
+    private final AtomicLong asyncOwnerIds = new AtomicLong(POD_OWNER_ID);
+    private final long waitTimeMillis;
+    private final long leaseTimeMillis;
+    private final int maxHandoffs;
+    private ScheduledExecutorService watchdog;
+
+    public WalletLockManager(DistributedLockStrategy lockStrategy,
+                             RedisLockHealth redisHealth,
+                             MeterRegistry meterRegistry,
+                             ContendedWallets contendedWallets,
+                             @Value("${fund-transfer.lock.stripes:1024}") int stripeCount,
+                             @Value("${fund-transfer.lock.wait-time-ms:5000}") long waitTimeMillis,
+                             @Value("${fund-transfer.lock.lease-time-ms:3000}") long leaseTimeMillis,
+                             @Value("${fund-transfer.lock.max-handoffs:16}") int maxHandoffs) {
+        this.lockStrategy = lockStrategy;
+        this.redisHealth = redisHealth;
+        this.meterRegistry = meterRegistry;
+        this.contendedWallets = contendedWallets;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.waitTimeMillis = waitTimeMillis;
+        this.leaseTimeMillis = leaseTimeMillis;
+        this.maxHandoffs = maxHandoffs;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Own thread: a slow @Scheduled task must not delay renewals past the lease time
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wallet-lock-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, leaseTimeMillis / 3);
+        watchdog.scheduleAtFixedRate(this::renewLeases, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    public WalletLocks acquire(Long... walletIds) {
+        return acquire(List.of(walletIds));
+    }
+
+    public WalletLocks acquire(Collection<Long> walletIds) {
+        // Deadlock Prevention: wallets are locked in ascending ID order, stripes in ascending index order
+        List<Long> ids = new ArrayList<>(new TreeSet<>(walletIds));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeMillis);
+
+        for (Long id : ids) {
+            leases.compute(id, (key, lease) -> {
+                RemoteLease registered = lease != null ? lease : new RemoteLease();
+                registered.interest++;
+                return registered;
+            });
+        }
+
+        List<ReentrantLock> heldStripes = new ArrayList<>();
+        boolean acquired = false;
+        long waitStart = System.nanoTime();
+        TransferTrace.PhaseTimer phase = TransferTrace.phase(TransferPhase.LOCK_LOCAL);
+        try {
+            for (ReentrantLock stripe : stripesFor(ids)) {
+                if (!stripe.tryLock(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                    throw new LockAcquisitionException("Timed out waiting for a local wallet lock");
+                }
+                heldStripes.add(stripe);
+            }
+            meterRegistry.timer("fund_transfer.lock_acquisition_time", "phase", "local").record(phase.stop(), TimeUnit.NANOSECONDS);
+
+            phase = TransferTrace.phase(TransferPhase.LOCK_REMOTE);
+            acquireRemote(ids, deadline);
+            meterRegistry.timer("fund_transfer.lock_acquisition_time", "phase", "remote").record(phase.stop(), TimeUnit.NANOSECONDS);
+
+            Map<Long, Long> tokens = new LinkedHashMap<>();
+            for (Long id : ids) {
+                tokens.put(id, leases.get(id).fencingToken);
+            }
+
+            acquired = true;
+            contendedWallets.recordLockWait(ids, System.nanoTime() - waitStart, false);
+            return new WalletLocks(this, ids, new FencingTokens(tokens), heldStripes, TransferTrace.phase(TransferPhase.LOCK_HOLD));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockAcquisitionException("Lock acquisition process was interrupted");
+        } finally {
+            if (!acquired) {
+                phase.stop();
+                contendedWallets.recordLockWait(ids, System.nanoTime() - waitStart, true);
+                release(ids, heldStripes);
+            }
+        }
+    }
+
+    void release(List<Long> ids, List<ReentrantLock> heldStripes) {
+        List<Long> toRelease = new ArrayList<>();
+
+        // Decided while the stripes are still held: keep the remote lock for the next local waiter
+        // only while it is fresh and the pod has not monopolised it for too long.
+        if (heldStripes.size() == stripesFor(ids).size()) {
+            for (Long id : ids) {
+                RemoteLease lease = leases.get(id);
+                if (lease.held && !lease.canHandOff(leaseTimeMillis, maxHandoffs)) {
+                    toRelease.add(id);
+                    lease.held = false;
+                }
+            }
+        }
+
+        for (int i = heldStripes.size() - 1; i >= 0; i--) {
+            heldStripes.get(i).unlock();
+        }
+
+        for (Long id : ids) {
+            RemoteLease lease = leases.get(id);
+            boolean lastInterest = leases.computeIfPresent(id, (key, l) -> --l.interest == 0 ? null : l) == null;
+            if (lastInterest && lease.held) {
+                toRelease.add(id);
+            }
+        }
+
+        if (!toRelease.isEmpty()) {
+            lockStrategy.unlock(toRelease, POD_OWNER_ID);
+        }
+    }
+
+    /**
+     * Non-blocking {@link #acquire}: the Redis locks are taken through the strategy's async API with an owner ID of
+     * their own, so no thread waits for them and the returned locks may be closed from any thread. The local tier is
+     * bypassed: contenders of this pod wait in Redis like those of other pods, and no lease is handed on.
+     */
+    public CompletableFuture<WalletLocks> acquireAsync(Collection<Long> walletIds) {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(walletIds));
+        long ownerId = asyncOwnerIds.decrementAndGet();
+        long waitStart = System.nanoTime();
+        return lockStrategy.tryLockAsync(ids, ownerId, waitTimeMillis, leaseTimeMillis).handle((tokens, error) -> {
+            long waited = System.nanoTime() - waitStart;
+            if (error != null) {
+                redisHealth.recordFailure(error);
+                contendedWallets.recordLockWait(ids, waited, true);
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            redisHealth.recordSuccess();
+            contendedWallets.recordLockWait(ids, waited, tokens == null);
+            if (tokens == null) {
+                throw new LockAcquisitionException("Unable to acquire locks for wallets " + ids);
+            }
+            meterRegistry.timer("fund_transfer.lock_acquisition_time", "phase", "async").record(waited, TimeUnit.NANOSECONDS);
+
+            Map<Long, Long> fencingTokens = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                fencingTokens.put(ids.get(i), tokens[i]);
+            }
+            asyncLeases.put(ownerId, ids);
+            return new WalletLocks(this, ids, new FencingTokens(fencingTokens), ownerId);
+        });
+    }
+
+    void releaseAsync(List<Long> ids, long ownerId) {
+        asyncLeases.remove(ownerId);
+        lockStrategy.unlock(ids, ownerId);
+    }
+
+    private void acquireRemote(List<Long> ids, long deadline) throws InterruptedException {
+        List<Long> toAcquire = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RemoteLease lease = leases.get(id);
+            if (lease.held) {
+                lease.handoffs++;
+                meterRegistry.counter("fund_transfer.lock_handoffs").increment();
+            } else {
+                toAcquire.add(id);
+            }
+        }
+        if (toAcquire.isEmpty()) {
+            return;
+        }
+
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadline));
+        long[] tokens;
+        try {
+            tokens = lockStrategy.tryLock(toAcquire, POD_OWNER_ID, remainingMillis, leaseTimeMillis);
+        } catch (RuntimeException e) {
+            // Only a failed Redis request throws; busy locks time out with null
+            redisHealth.recordFailure(e);
+            throw e;
+        }
+        redisHealth.recordSuccess();
+        if (tokens == null) {
+            throw new LockAcquisitionException("Unable to acquire locks for wallets " + toAcquire);
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < toAcquire.size(); i++) {
+            RemoteLease lease = leases.get(toAcquire.get(i));
+            lease.fencingToken = tokens[i];
+            lease.lost = false;
+            lease.held = true;
+            lease.handoffs = 0;
+            lease.acquiredAtNanos = now;
+        }
+    }
+
+    /**
+     * Watchdog: extends every lease the pod holds, and those of async acquisitions. A lease Redis no longer has for
+     * the pod (expired during a pause, taken over) is not handed on; its current holder is stopped by the fencing
+     * tokens.
+     */
+    void renewLeases() {
+        List<Long> held = new ArrayList<>();
+        leases.forEach((id, lease) -> {
+            if (lease.held && !lease.lost) {
+                held.add(id);
+            }
+        });
+        if (!held.isEmpty()) {
+            renew(held, POD_OWNER_ID);
+        }
+        asyncLeases.forEach((ownerId, ids) -> renew(ids, ownerId));
+    }
+
+    private void renew(List<Long> ids, long ownerId) {
+        try {
+            List<Long> lost = lockStrategy.renew(ids, ownerId, leaseTimeMillis);
+            if (ownerId != POD_OWNER_ID && !asyncLeases.containsKey(ownerId)) {
+                // Released while being renewed
+                return;
+            }
+            for (Long id : lost) {
+                RemoteLease lease = ownerId == POD_OWNER_ID ? leases.get(id) : null;
+                if (lease != null) {
+                    lease.lost = true;
+                }
+                meterRegistry.counter("fund_transfer.lock_leases_lost").increment();
+                log.warn("Lease on wallet {} was lost", id);
+            }
+        } catch (RuntimeException e) {
+            redisHealth.recordFailure(e);
+            log.warn("Failed to renew wallet lock leases {}", ids, e);
+        }
+    }
+
+    /**
+     * Called after a fenced write under {@code heldTokens} was rejected: throws if a wallet has since been written
+     * with a newer token, i.e. its lease was taken over. The lease is then not handed on, and the wallet's token
+     * counter is moved past the written token in case Redis lost it, so that the next acquisition can write again.
+     */
+    public void checkFencing(FencingTokens heldTokens, List<WalletFencingToken> writtenTokens) {
+        for (WalletFencingToken written : writtenTokens) {
+            long held = heldTokens.of(written.getId());
+            if (held != FencingTokens.UNFENCED && written.getFencingToken() > held) {
+                RemoteLease lease = leases.get(written.getId());
+                if (lease != null) {
+                    lease.lost = true;
+                }
+                lockStrategy.advanceFencingToken(written.getId(), written.getFencingToken());
+                meterRegistry.counter("fund_transfer.lock_fenced").increment();
+                throw new LockAcquisitionException("lock on wallet " + written.getId() + " was taken over (fencing token "
+                        + held + ", wallet written with " + written.getFencingToken() + ")");
+            }
+        }
+    }
+
+    private List<ReentrantLock> stripesFor(List<Long> ids) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long id : ids) {
+            indexes.add(stripeIndex(id));
+        }
+        List<ReentrantLock> result = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            result.add(stripes[index]);
+        }
+        return result;
+    }
+
+    private int stripeIndex(Long id) {
+        int h = Long.hashCode(id);
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Pod-level view of one wallet's Redisson lock. {@code interest} counts local threads waiting for or holding
+     * the wallet and is only changed inside {@link ConcurrentHashMap#compute}; {@code lost} may be set by any
+     * thread; the remaining fields are only written by the thread holding the wallet's stripe.
+     */
+    private static final class RemoteLease {
+        private int interest;
+        private volatile boolean held;
+        // Set by the watchdog or a rejected write; the lease is released instead of handed on
+        private volatile boolean lost;
+        private long fencingToken;
+        private int handoffs;
+        private long acquiredAtNanos;
+
+        private boolean canHandOff(long leaseTimeMillis, int maxHandoffs) {
+            long age = System.nanoTime() - acquiredAtNanos;
+            return !lost && handoffs < maxHandoffs && age < TimeUnit.MILLISECONDS.toNanos(leaseTimeMillis) / 2;
+        }
+    }
+}
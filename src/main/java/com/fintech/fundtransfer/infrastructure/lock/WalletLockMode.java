@@ -0,0 +1,15 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+/**
+ * How transfers serialize on their wallets ({@code fund-transfer.lock.mode}).
+ */
+public enum WalletLockMode {
+    /** Redis locks through the {@link WalletLockManager}, taken before the transaction starts. */
+    REDIS,
+    /** {@code SELECT ... FOR UPDATE} row locks taken inside the transaction, see {@link DatabaseWalletLocker}. */
+    DATABASE;
+
+    static WalletLockMode parse(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
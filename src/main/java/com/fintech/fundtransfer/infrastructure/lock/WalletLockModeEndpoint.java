@@ -0,0 +1,46 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/walletlocks}: shows and switches the wallet lock mode of this pod at runtime. The switch is not
+ * authenticated, so the endpoint is not exposed over HTTP by default; expose it only on an internal
+ * {@code management.server.port}.
+ */
+@Component
+@Endpoint(id = "walletlocks")
+@RequiredArgsConstructor
+public class WalletLockModeEndpoint {
+
+    private final DatabaseWalletLocker databaseWalletLocker;
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        return Map.of(
+                "mode", databaseWalletLocker.getMode(),
+                "waitPolicy", databaseWalletLocker.getWaitPolicy(),
+                "lockTimeoutMs", databaseWalletLocker.getLockTimeoutMillis(),
+                "redisFallback", databaseWalletLocker.isRedisFallback());
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable String mode, @Nullable String waitPolicy, @Nullable Long lockTimeoutMs) {
+        try {
+            databaseWalletLocker.configure(
+                    mode != null ? WalletLockMode.parse(mode) : databaseWalletLocker.getMode(),
+                    waitPolicy != null ? RowLockWaitPolicy.parse(waitPolicy) : databaseWalletLocker.getWaitPolicy(),
+                    lockTimeoutMs != null ? lockTimeoutMs : databaseWalletLocker.getLockTimeoutMillis());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Invalid wallet lock settings");
+        }
+        return settings();
+    }
+}
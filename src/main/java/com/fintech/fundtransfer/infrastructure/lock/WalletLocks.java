@@ -0,0 +1,58 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.infrastructure.metrics.TransferPhase;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Set of wallet locks held by the current thread, or by an async acquisition (then closable from any thread);
+ * closing it hands them back to the {@link WalletLockManager}.
+ * Writes made under the locks pass on their {@link #getFencingTokens() fencing tokens}.
+ */
+public class WalletLocks implements AutoCloseable {
+
+    private final WalletLockManager manager;
+    @Getter
+    private final List<Long> walletIds;
+    @Getter
+    private final FencingTokens fencingTokens;
+    private final List<ReentrantLock> stripes;
+    private final TransferTrace.PhaseTimer hold;
+    private final long asyncOwnerId;
+    private boolean released;
+
+    WalletLocks(WalletLockManager manager, List<Long> walletIds, FencingTokens fencingTokens, List<ReentrantLock> stripes,
+                TransferTrace.PhaseTimer hold) {
+        this.manager = manager;
+        this.walletIds = walletIds;
+        this.fencingTokens = fencingTokens;
+        this.stripes = stripes;
+        this.hold = hold;
+        this.asyncOwnerId = 0;
+    }
+
+    WalletLocks(WalletLockManager manager, List<Long> walletIds, FencingTokens fencingTokens, long asyncOwnerId) {
+        this.manager = manager;
+        this.walletIds = walletIds;
+        this.fencingTokens = fencingTokens;
+        this.stripes = List.of();
+        this.hold = TransferTrace.phase(TransferPhase.LOCK_HOLD);
+        this.asyncOwnerId = asyncOwnerId;
+    }
+
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            hold.stop();
+            if (asyncOwnerId != 0) {
+                manager.releaseAsync(walletIds, asyncOwnerId);
+            } else {
+                manager.release(walletIds, stripes);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Most contended wallets: time spent waiting for their locks or lost to retried attempts.
+ * <p>
+ * Wallets are counted with the Space-Saving algorithm in a fixed number of slots, so a heavy hitter is found
+ * however many wallets are contended; a wallet that took over a slot inherits the evicted count as its possible
+ * overestimate ({@code error}). Waits below {@code threshold-ms} are not counted and never take the monitor. The
+ * top wallets of the last window are exported as gauges tagged by {@code rank}, never by wallet ID, so the number
+ * of series stays fixed.
+ */
+@Component
+public class ContendedWallets {
+
+    private final int topN;
+    private final int slots;
+    private final long thresholdNanos;
+    private final Map<Long, Slot> counts = new HashMap<>();
+    private volatile List<ContendedWallet> lastWindow = List.of();
+
+    public ContendedWallets(MeterRegistry meterRegistry,
+                            @Value("${fund-transfer.metrics.contention.top-n:10}") int topN,
+                            @Value("${fund-transfer.metrics.contention.tracked-wallets:256}") int slots,
+                            @Value("${fund-transfer.metrics.contention.threshold-ms:1}") long thresholdMillis) {
+        this.topN = topN;
+        this.slots = Math.max(slots, topN);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        for (int rank = 1; rank <= topN; rank++) {
+            int index = rank - 1;
+            Gauge.builder("fund_transfer.contention.top_wallet", this, c -> c.valueAt(index, true))
+                    .tag("rank", String.valueOf(rank))
+                    .description("ID of the wallet at this contention rank in the last window")
+                    .register(meterRegistry);
+            Gauge.builder("fund_transfer.contention.top_wallet_seconds", this, c -> c.valueAt(index, false))
+                    .tag("rank", String.valueOf(rank))
+                    .description("Lock wait and retry time of the wallet at this rank in the last window")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * A lock acquisition for {@code walletIds} waited {@code waitNanos}; {@code timedOut} if it gave up.
+     */
+    public void recordLockWait(Collection<Long> walletIds, long waitNanos, boolean timedOut) {
+        if (waitNanos < thresholdNanos && !timedOut) {
+            return;
+        }
+        synchronized (this) {
+            for (Long walletId : walletIds) {
+                Slot slot = slot(walletId, waitNanos);
+                slot.lockWaits++;
+                if (timedOut) {
+                    slot.lockTimeouts++;
+                }
+            }
+        }
+    }
+
+    /**
+     * An attempt on {@code walletIds} failed with a concurrency failure after {@code lostNanos} (attempt and backoff).
+     */
+    public void recordRetry(Collection<Long> walletIds, long lostNanos) {
+        synchronized (this) {
+            for (Long walletId : walletIds) {
+                slot(walletId, lostNanos).retries++;
+            }
+        }
+    }
+
+    /**
+     * Top wallets of the current window so far.
+     */
+    public synchronized List<ContendedWallet> current() {
+        return top();
+    }
+
+    public List<ContendedWallet> lastWindow() {
+        return lastWindow;
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.metrics.contention.window-ms:60000}")
+    public synchronized void rollWindow() {
+        lastWindow = top();
+        counts.clear();
+    }
+
+    private Slot slot(Long walletId, long nanos) {
+        Slot slot = counts.get(walletId);
+        if (slot == null) {
+            long inherited = 0;
+            if (counts.size() >= slots) {
+                Map.Entry<Long, Slot> min = counts.entrySet().stream()
+                        .min(Comparator.comparingLong(e -> e.getValue().nanos))
+                        .orElseThrow();
+                counts.remove(min.getKey());
+                inherited = min.getValue().nanos;
+            }
+            slot = new Slot(inherited);
+            counts.put(walletId, slot);
+        }
+        slot.nanos += nanos;
+        return slot;
+    }
+
+    private List<ContendedWallet> top() {
+        List<ContendedWallet> top = new ArrayList<>(counts.size());
+        counts.forEach((walletId, slot) -> top.add(new ContendedWallet(walletId, slot.nanos / 1e9, slot.error / 1e9,
+                slot.lockWaits, slot.lockTimeouts, slot.retries)));
+        top.sort(Comparator.comparingDouble(ContendedWallet::contentionSeconds).reversed());
+        return List.copyOf(top.subList(0, Math.min(topN, top.size())));
+    }
+
+    private double valueAt(int index, boolean walletId) {
+        List<ContendedWallet> top = lastWindow;
+        if (index >= top.size()) {
+            return Double.NaN;
+        }
+        return walletId ? top.get(index).walletId() : top.get(index).contentionSeconds();
+    }
+
+    public record ContendedWallet(long walletId, double contentionSeconds, double errorSeconds,
+                                  long lockWaits, long lockTimeouts, long retries) {
+    }
+
+    private static final class Slot {
+        private final long error;
+        private long nanos;
+        private long lockWaits;
+        private long lockTimeouts;
+        private long retries;
+
+        private Slot(long inherited) {
+            this.error = inherited;
+            this.nanos = inherited;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/contention}: the most contended wallets of this pod, with their IDs.
+ */
+@Component
+@Endpoint(id = "contention")
+@RequiredArgsConstructor
+public class ContendedWalletsEndpoint {
+
+    private final ContendedWallets contendedWallets;
+
+    @ReadOperation
+    public Map<String, Object> contention() {
+        return Map.of(
+                "currentWindow", contendedWallets.current(),
+                "lastWindow", contendedWallets.lastWindow());
+    }
+}
@@ -0,0 +1,103 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.connection.ClientConnectionsEntry;
+import org.redisson.connection.ConnectionManager;
+import org.redisson.connection.MasterSlaveEntry;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Redisson connection pool gauges, summed over all nodes and tagged by {@code pool} (write: the masters' pools the
+ * lock scripts use, read: the pools of the read balancer): {@code fund_transfer.redis.pool.connections} by
+ * {@code state} (active, idle) and {@code fund_transfer.redis.pool.pending} (commands waiting for a connection);
+ * {@code fund_transfer.redis.nodes} (masters) by {@code state} (up, frozen).
+ * <p>
+ * Redisson has no public pool API, so these read its connection manager, and the write pools a non-public field;
+ * nothing is registered for other client implementations.
+ */
+@Component
+@Slf4j
+public class RedisPoolMetrics {
+
+    private final ConnectionManager connectionManager;
+    private final Field masterEntry;
+
+    public RedisPoolMetrics(RedissonClient redissonClient, MeterRegistry meterRegistry) {
+        if (!(redissonClient instanceof Redisson redisson)) {
+            connectionManager = null;
+            masterEntry = null;
+            return;
+        }
+        connectionManager = redisson.getConnectionManager();
+        masterEntry = masterEntryField();
+        for (boolean write : new boolean[] {true, false}) {
+            String pool = write ? "write" : "read";
+            register(meterRegistry, "fund_transfer.redis.pool.connections", pool, "active", write, entry ->
+                    entry.getConnectionsHolder().getAllConnections().size() - entry.getConnectionsHolder().getFreeConnections().size());
+            register(meterRegistry, "fund_transfer.redis.pool.connections", pool, "idle", write,
+                    entry -> entry.getConnectionsHolder().getFreeConnections().size());
+            Gauge.builder("fund_transfer.redis.pool.pending", this,
+                            metrics -> metrics.sum(write, entry -> entry.getConnectionsHolder().getFreeConnectionsCounter().queueSize()))
+                    .tag("pool", pool)
+                    .description("Redis commands waiting for a pooled connection")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("fund_transfer.redis.nodes", this, metrics -> metrics.sum(true, entry -> entry.isFreezed() ? 0 : 1))
+                .tag("state", "up")
+                .register(meterRegistry);
+        Gauge.builder("fund_transfer.redis.nodes", this, metrics -> metrics.sum(true, entry -> entry.isFreezed() ? 1 : 0))
+                .tag("state", "frozen")
+                .register(meterRegistry);
+    }
+
+    private void register(MeterRegistry meterRegistry, String name, String pool, String state, boolean write,
+                          ToIntFunction<ClientConnectionsEntry> value) {
+        Gauge.builder(name, this, metrics -> metrics.sum(write, value))
+                .tag("pool", pool)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private double sum(boolean write, ToIntFunction<ClientConnectionsEntry> value) {
+        if (write && masterEntry == null) {
+            return Double.NaN;
+        }
+        List<ClientConnectionsEntry> entries = new ArrayList<>();
+        for (MasterSlaveEntry entry : connectionManager.getEntrySet()) {
+            if (!write) {
+                entries.addAll(entry.getAllEntries());
+                continue;
+            }
+            try {
+                // Not set until the master's connection is established
+                ClientConnectionsEntry master = (ClientConnectionsEntry) masterEntry.get(entry);
+                if (master != null) {
+                    entries.add(master);
+                }
+            } catch (IllegalAccessException e) {
+                return Double.NaN;
+            }
+        }
+        return entries.stream().mapToInt(value).sum();
+    }
+
+    private static Field masterEntryField() {
+        try {
+            Field field = MasterSlaveEntry.class.getDeclaredField("masterEntry");
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Redis write pool metrics unavailable with this Redisson version", e);
+            return null;
+        }
+    }
+}
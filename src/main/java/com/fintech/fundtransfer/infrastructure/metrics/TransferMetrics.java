@@ -0,0 +1,72 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Tracer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer timers with percentile histograms: {@code fund_transfer.transaction_duration} per outcome and
+ * {@code fund_transfer.phase_duration} per phase and outcome. Spans are created when tracing is enabled
+ * ({@code management.tracing.enabled=true}).
+ */
+@Component
+public class TransferMetrics {
+
+    private static final TransferPhase[] PHASES = TransferPhase.values();
+    private static final TransferOutcome[] OUTCOMES = TransferOutcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    // Registered on first use, so only phase/outcome combinations that occur are exported
+    private final Timer[] durations = new Timer[OUTCOMES.length];
+    private final Timer[][] phaseDurations = new Timer[PHASES.length][OUTCOMES.length];
+
+    public TransferMetrics(MeterRegistry meterRegistry, Optional<Tracer> tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer.filter(t -> t != Tracer.NOOP).orElse(null);
+    }
+
+    /**
+     * Starts tracing a transfer on the current thread; close the trace when the transfer ends.
+     */
+    public TransferTrace start() {
+        return new TransferTrace(this, tracer);
+    }
+
+    void record(TransferOutcome outcome, long totalNanos, long[] phaseNanos) {
+        int o = outcome.ordinal();
+        Timer duration = durations[o];
+        if (duration == null) {
+            duration = durations[o] = histogram("fund_transfer.transaction_duration")
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry);
+        }
+        duration.record(totalNanos, TimeUnit.NANOSECONDS);
+
+        for (int p = 0; p < PHASES.length; p++) {
+            if (phaseNanos[p] == 0) {
+                continue;
+            }
+            Timer phaseDuration = phaseDurations[p][o];
+            if (phaseDuration == null) {
+                phaseDuration = phaseDurations[p][o] = histogram("fund_transfer.phase_duration")
+                        .tag("phase", PHASES[p].tag())
+                        .tag("outcome", outcome.tag())
+                        .register(meterRegistry);
+            }
+            phaseDuration.record(phaseNanos[p], TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer.Builder histogram(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,52 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import com.fintech.fundtransfer.domain.exception.DuplicateTransactionException;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * How a transfer ended, as the {@code outcome} tag of the transfer timers.
+ */
+public enum TransferOutcome {
+    SUCCESS("success"),
+    // Committed, but only after at least one attempt failed with a concurrency failure
+    RETRY("retry"),
+    DUPLICATE("duplicate"),
+    INSUFFICIENT("insufficient"),
+    NOT_FOUND("not_found"),
+    LOCK_TIMEOUT("lock_timeout"),
+    // Concurrency failures until the retries ran out
+    CONFLICT("conflict"),
+    ERROR("error");
+
+    private final String tag;
+
+    TransferOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public static TransferOutcome of(Throwable failure) {
+        if (failure instanceof InsufficientBalanceException) {
+            return INSUFFICIENT;
+        }
+        if (failure instanceof WalletNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (failure instanceof LockAcquisitionException) {
+            return LOCK_TIMEOUT;
+        }
+        if (failure instanceof DuplicateTransactionException) {
+            return DUPLICATE;
+        }
+        if (failure instanceof ConcurrencyFailureException) {
+            return CONFLICT;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,33 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+/**
+ * Phases of a single transfer, as the {@code phase} tag of {@code fund_transfer.phase_duration}.
+ */
+public enum TransferPhase {
+    IDEMPOTENCY("idempotency"),
+    LOCK_LOCAL("lock_local"),
+    LOCK_REMOTE("lock_remote"),
+    LOCK_ROW("lock_row"),
+    // From acquisition to release; for row locks until the transaction completes
+    LOCK_HOLD("lock_hold"),
+    DB_TRANSFER("db_transfer"),
+    DB_DEBIT("db_debit"),
+    DB_CREDIT("db_credit"),
+    DB_LOG("db_log"),
+    DB_OUTBOX("db_outbox"),
+    // Includes the flush of pending inserts
+    COMMIT("commit"),
+    RETRY_BACKOFF("retry_backoff"),
+    GROUP_COMMIT("group_commit"),
+    LEDGER("ledger");
+
+    private final String tag;
+
+    TransferPhase(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
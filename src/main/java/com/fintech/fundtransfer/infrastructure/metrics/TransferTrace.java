@@ -0,0 +1,188 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Phase timings of the transfer running on the current thread.
+ * <p>
+ * Components on the transfer's path (locks, retry, repositories) time their phase through the static methods, which
+ * do nothing outside a trace, e.g. for batch transfers. Durations are summed per phase and recorded once the
+ * outcome is known, so every phase timer can be tagged with it. With a {@link Tracer} every timed phase is also
+ * a child span of the transfer's span.
+ */
+public final class TransferTrace implements AutoCloseable {
+
+    private static final ThreadLocal<TransferTrace> CURRENT = new ThreadLocal<>();
+
+    private final TransferMetrics metrics;
+    private final Tracer tracer;
+    private final TransferTrace previous;
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[TransferPhase.values().length];
+    private final Span span;
+    private final Tracer.SpanInScope spanInScope;
+    private TransferOutcome outcome = TransferOutcome.ERROR;
+    private boolean duplicate;
+    private int retries;
+    private boolean closed;
+
+    TransferTrace(TransferMetrics metrics, Tracer tracer) {
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.previous = CURRENT.get();
+        this.span = tracer != null ? tracer.nextSpan().name("transfer").start() : null;
+        this.spanInScope = span != null ? tracer.withSpan(span) : null;
+        CURRENT.set(this);
+    }
+
+    /**
+     * Starts timing {@code phase} of the current transfer. The returned timer measures even outside a trace.
+     */
+    public static PhaseTimer phase(TransferPhase phase) {
+        return new PhaseTimer(CURRENT.get(), phase);
+    }
+
+    public static <T> T time(TransferPhase phase, Supplier<T> work) {
+        try (PhaseTimer ignored = phase(phase)) {
+            return work.get();
+        }
+    }
+
+    public static void run(TransferPhase phase, Runnable work) {
+        try (PhaseTimer ignored = phase(phase)) {
+            work.run();
+        }
+    }
+
+    /**
+     * Times {@code phase} from now until the current transaction completes, e.g. row locks held until commit.
+     */
+    public static void untilCompletion(TransferPhase phase) {
+        TransferTrace trace = CURRENT.get();
+        if (trace == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PhaseTimer timer = new PhaseTimer(trace, phase);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                timer.close();
+            }
+        });
+    }
+
+    /**
+     * Times the commit of the current transaction, including the flush of pending inserts.
+     */
+    public static void commitPhase() {
+        TransferTrace trace = CURRENT.get();
+        if (trace == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private PhaseTimer timer;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                timer = new PhaseTimer(trace, TransferPhase.COMMIT);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (timer != null) {
+                    timer.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * An attempt of the current transfer failed with a concurrency failure and is retried after {@code backoffNanos}.
+     */
+    public static void retried(long backoffNanos) {
+        TransferTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.retries++;
+            trace.phaseNanos[TransferPhase.RETRY_BACKOFF.ordinal()] += backoffNanos;
+        }
+    }
+
+    public void duplicate() {
+        duplicate = true;
+    }
+
+    public void succeeded() {
+        outcome = duplicate ? TransferOutcome.DUPLICATE : retries > 0 ? TransferOutcome.RETRY : TransferOutcome.SUCCESS;
+    }
+
+    public void failed(Throwable failure) {
+        outcome = TransferOutcome.of(failure);
+        if (span != null) {
+            span.error(failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        metrics.record(outcome, System.nanoTime() - startNanos, phaseNanos);
+        if (span != null) {
+            spanInScope.close();
+            span.tag("outcome", outcome.tag()).end();
+        }
+    }
+
+    /**
+     * Measures one phase; closing it adds the elapsed time to the trace it was started in, if any.
+     */
+    public static final class PhaseTimer implements AutoCloseable {
+
+        private final TransferTrace trace;
+        private final TransferPhase phase;
+        private final long startNanos = System.nanoTime();
+        private final Span span;
+        private long elapsedNanos = -1;
+
+        private PhaseTimer(TransferTrace trace, TransferPhase phase) {
+            this.trace = trace;
+            this.phase = phase;
+            this.span = trace != null && trace.tracer != null
+                    ? trace.tracer.nextSpan(trace.span).name(phase.tag()).start()
+                    : null;
+        }
+
+        /**
+         * Stops the timer (once) and returns the elapsed nanoseconds.
+         */
+        public long stop() {
+            if (elapsedNanos < 0) {
+                elapsedNanos = System.nanoTime() - startNanos;
+                if (trace != null) {
+                    trace.phaseNanos[phase.ordinal()] += elapsedNanos;
+                }
+                if (span != null) {
+                    span.end();
+                }
+            }
+            return elapsedNanos;
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+}
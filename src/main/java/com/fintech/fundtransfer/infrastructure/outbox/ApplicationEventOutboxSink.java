@@ -0,0 +1,25 @@
+package com.fintech.fundtransfer.infrastructure.outbox;
+
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands events to in-process {@code @EventListener}s on the relay thread.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fund-transfer.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<TransferEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
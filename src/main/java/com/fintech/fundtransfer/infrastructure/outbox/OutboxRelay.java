@@ -0,0 +1,133 @@
+package com.fintech.fundtransfer.infrastructure.outbox;
+
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains {@code outbox_events} into the configured {@link OutboxSink}.
+ * <p>
+ * Each relay thread owns a subset of the partitions. A partition is drained in a transaction that first claims
+ * its {@code outbox_partitions} row with {@code FOR UPDATE SKIP LOCKED}, so relays on other pods skip it instead
+ * of publishing the same wallet's events out of order. Events are deleted only after the sink accepted them, in
+ * the same transaction: a crash in between republishes the batch (at-least-once).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fund-transfer.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxJdbcRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int threadCount;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final long errorBackoffNanos;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public OutboxRelay(OutboxJdbcRepository outboxRepository,
+                       OutboxSink sink,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${fund-transfer.outbox.relay-threads:2}") int threadCount,
+                       @Value("${fund-transfer.outbox.batch-size:500}") int batchSize,
+                       @Value("${fund-transfer.outbox.poll-interval-ms:100}") long pollIntervalMillis,
+                       @Value("${fund-transfer.outbox.error-backoff-ms:1000}") long errorBackoffMillis) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.threadCount = Math.min(threadCount, outboxRepository.partitions());
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        this.errorBackoffNanos = TimeUnit.MILLISECONDS.toNanos(errorBackoffMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        outboxRepository.createPartitions();
+        running = true;
+        for (int i = 0; i < threadCount; i++) {
+            int first = i;
+            Thread thread = new Thread(() -> relayLoop(first), "outbox-relay-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Outbox relay started with {} threads over {} partitions", threadCount, outboxRepository.partitions());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+
+    private void relayLoop(int firstPartition) {
+        while (running) {
+            int published = 0;
+            try {
+                for (int p = firstPartition; p < outboxRepository.partitions(); p += threadCount) {
+                    published += drainPartition(p);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying in {} ms", TimeUnit.NANOSECONDS.toMillis(errorBackoffNanos), e);
+                meterRegistry.counter("fund_transfer.outbox.publish_failures").increment();
+                LockSupport.parkNanos(this, errorBackoffNanos);
+                continue;
+            }
+            // A full pass without events: wait for new ones instead of polling the table in a tight loop
+            if (published == 0) {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Publishes the oldest batch of a partition.
+     *
+     * @return the number of events published, 0 if the partition was empty or claimed by another relay
+     */
+    int drainPartition(int partition) {
+        Integer published = transactionTemplate.execute(status -> {
+            if (!outboxRepository.claimPartition(partition)) {
+                return 0;
+            }
+            List<TransferEvent> events = outboxRepository.findOldest(partition, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            Timer.Sample publishTimerSample = Timer.start(meterRegistry);
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected " + events.size() + " events of partition " + partition, e);
+            } finally {
+                publishTimerSample.stop(meterRegistry.timer("fund_transfer.outbox.publish_duration"));
+            }
+            outboxRepository.delete(events.stream().map(TransferEvent::getEventId).toList());
+            return events.size();
+        });
+        meterRegistry.counter("fund_transfer.outbox.published").increment(published);
+        return published;
+    }
+}
@@ -0,0 +1,17 @@
+package com.fintech.fundtransfer.infrastructure.outbox;
+
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the {@link OutboxRelay}, selected with {@code fund-transfer.outbox.sink}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes the events in the given order. Returns only once they are delivered; on failure the whole batch
+     * is published again later, so a sink may deliver an event more than once.
+     */
+    void publish(List<TransferEvent> events) throws Exception;
+}
@@ -0,0 +1,53 @@
+package com.fintech.fundtransfer.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local broker stand-in: appends events to a capped Redis stream, one pipelined round-trip per batch.
+ */
+@Component
+@ConditionalOnProperty(name = "fund-transfer.outbox.sink", havingValue = "redis-stream")
+public class RedisStreamOutboxSink implements OutboxSink {
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final String streamName;
+    private final int maxLength;
+
+    public RedisStreamOutboxSink(RedissonClient redissonClient,
+                                 ObjectMapper objectMapper,
+                                 @Value("${fund-transfer.outbox.redis.stream:transfer-events}") String streamName,
+                                 @Value("${fund-transfer.outbox.redis.max-length:1000000}") int maxLength) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.streamName = streamName;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public void publish(List<TransferEvent> events) throws JsonProcessingException {
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<String, String> stream = batch.getStream(streamName, StringCodec.INSTANCE);
+        for (TransferEvent event : events) {
+            stream.addAsync(StreamAddArgs.entries(Map.of(
+                            "eventId", event.getEventId().toString(),
+                            "walletId", event.getWalletId().toString(),
+                            "payload", objectMapper.writeValueAsString(event)))
+                    .trimNonStrict().maxLen(maxLength).noLimit());
+        }
+        batch.execute();
+    }
+}
@@ -0,0 +1,46 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the ID sequences past rows that were inserted while the tables still used {@code IDENTITY} columns.
+ * Once a sequence is in use every ID is at most its {@code last_value}, so this is a no-op after the first start.
+ * <p>
+ * A fresh sequence is advanced past its start value: Hibernate's pooled optimizer treats that first value
+ * specially, which would break the {@code (v - 50, v]} ranges that ledger ID allocation relies on.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private static final String[][] SEQUENCES = {
+            {"wallets", "wallets_seq"},
+            {"transaction_logs", "transaction_logs_seq"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void alignSequences() {
+        for (String[] sequence : SEQUENCES) {
+            String table = sequence[0];
+            String name = sequence[1];
+            Long aligned = jdbcTemplate.query(
+                    "SELECT setval('" + name + "', m.max_id) FROM (SELECT MAX(id) AS max_id FROM " + table + ") m, " + name + " s " +
+                            "WHERE m.max_id > s.last_value OR (NOT s.is_called AND m.max_id >= s.last_value)",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (aligned != null) {
+                log.info("Aligned sequence {} with existing {} rows at {}", name, table, aligned);
+            } else {
+                jdbcTemplate.queryForList("SELECT nextval('" + name + "') FROM " + name + " WHERE NOT is_called", Long.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox ({@code outbox_events}). Rows are appended with one JDBC batch inside the transfer's
+ * transaction and deleted by the relay once published.
+ */
+@Repository
+public class OutboxJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox_events (id, partition_key, wallet_id, transaction_id, source_id, destination_id, amount, reference_code, created_at)
+            VALUES (nextval('outbox_events_seq'), ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int partitions;
+
+    public OutboxJdbcRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${fund-transfer.outbox.enabled:true}") boolean enabled,
+                                @Value("${fund-transfer.outbox.partitions:16}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.partitions = partitions;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    /**
+     * Appends one event per wallet touched by each transfer. Must run in the transaction that writes the logs.
+     */
+    public void append(List<TransactionLog> logs) {
+        if (!enabled || logs.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(logs.size() * 2);
+        for (TransactionLog log : logs) {
+            rows.add(row(log.getSourceId(), log, now));
+            if (!log.getDestinationId().equals(log.getSourceId())) {
+                rows.add(row(log.getDestinationId(), log, now));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private Object[] row(Long walletId, TransactionLog log, Timestamp now) {
+        return new Object[]{Math.floorMod(walletId, partitions), walletId, log.getId(), log.getSourceId(),
+                log.getDestinationId(), log.getAmount().minorUnits(), log.getReferenceCode(), now};
+    }
+
+    public void createPartitions() {
+        jdbcTemplate.update("INSERT INTO outbox_partitions (partition_key) SELECT i FROM generate_series(0, ? - 1) i ON CONFLICT DO NOTHING",
+                partitions);
+    }
+
+    /**
+     * Locks the partition for the current transaction unless another relay holds it.
+     */
+    public boolean claimPartition(int partition) {
+        return !jdbcTemplate.queryForList("SELECT partition_key FROM outbox_partitions WHERE partition_key = ? FOR UPDATE SKIP LOCKED",
+                Integer.class, partition).isEmpty();
+    }
+
+    public List<TransferEvent> findOldest(int partition, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT id, wallet_id, transaction_id, reference_code, source_id, destination_id, amount, created_at
+                        FROM outbox_events WHERE partition_key = ? ORDER BY id LIMIT ?
+                        """,
+                (rs, rowNum) -> TransferEvent.builder()
+                        .eventId(rs.getLong(1))
+                        .walletId(rs.getLong(2))
+                        .transactionId(rs.getLong(3))
+                        .referenceCode(rs.getString(4))
+                        .sourceWalletId(rs.getLong(5))
+                        .destinationWalletId(rs.getLong(6))
+                        .amount(Money.ofMinor(rs.getLong(7)))
+                        .createdAt(rs.getTimestamp(8).toInstant())
+                        .build(),
+                partition, limit);
+    }
+
+    public void delete(List<Long> eventIds) {
+        // By ID rather than by range: rows committed after the read may have lower IDs than the last one published
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", eventIds.toArray())));
+    }
+}
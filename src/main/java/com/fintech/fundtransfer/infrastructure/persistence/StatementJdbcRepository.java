@@ -0,0 +1,85 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Wallet statements: the wallet's live and archived logs in one {@code (created_at, id)} ordered query, read
+ * through a server-side cursor. Rows are handed over column by column; nothing is materialized per row.
+ */
+@Repository
+public class StatementJdbcRepository {
+
+    private static final String BRANCH = """
+            SELECT id, created_at, source_id, destination_id, amount, status, reference_code FROM %s
+            WHERE %s AND created_at >= ? AND created_at < ? AND (created_at, id) > (?, ?)
+            """;
+
+    // Live partitions are read per side so each branch walks its (wallet, created_at, id) index; the archive
+    // only has a BRIN index on created_at and is scanned once
+    private static final String STATEMENT_SQL = "SELECT id, "
+            + "to_char(created_at AT TIME ZONE 'UTC', 'YYYY-MM-DD\"T\"HH24:MI:SS.US\"Z\"') AS created_at, "
+            + "source_id, destination_id, amount, status, reference_code FROM ("
+            + BRANCH.formatted("transaction_logs_archive", "(source_id = ? OR destination_id = ?)") + " UNION ALL "
+            + BRANCH.formatted("transaction_logs", "source_id = ?") + " UNION ALL "
+            + BRANCH.formatted("transaction_logs", "destination_id = ? AND source_id <> ?")
+            + ") statement ORDER BY statement.created_at, statement.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatementJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the statement to {@code handler}. Must run in a transaction, otherwise the driver fetches the whole
+     * result instead of {@code fetchSize} rows at a time.
+     */
+    public void stream(StatementQuery query, int fetchSize, RowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STATEMENT_SQL);
+            ps.setFetchSize(fetchSize);
+            int index = 1;
+            ps.setLong(index++, query.walletId());
+            ps.setLong(index++, query.walletId());
+            index = bindRange(ps, index, query);
+            ps.setLong(index++, query.walletId());
+            index = bindRange(ps, index, query);
+            ps.setLong(index++, query.walletId());
+            ps.setLong(index++, query.walletId());
+            bindRange(ps, index, query);
+            return ps;
+        }, rs -> {
+            try {
+                handler.row(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                        rs.getString(6), rs.getString(7));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static int bindRange(PreparedStatement ps, int index, StatementQuery query) throws SQLException {
+        // The plain lower bound prunes partitions; the row comparison alone would not
+        Instant lowerBound = query.afterCreatedAt().isAfter(query.from()) ? query.afterCreatedAt() : query.from();
+        ps.setTimestamp(index++, Timestamp.from(lowerBound));
+        ps.setTimestamp(index++, Timestamp.from(query.to()));
+        ps.setTimestamp(index++, Timestamp.from(query.afterCreatedAt()));
+        ps.setLong(index++, query.afterId());
+        return index;
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        // amount in minor units
+        void row(long id, String createdAt, long sourceId, long destinationId, long amount, String status,
+                 String referenceCode) throws IOException;
+    }
+}
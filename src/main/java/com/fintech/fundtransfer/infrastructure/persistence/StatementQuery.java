@@ -0,0 +1,14 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import java.time.Instant;
+
+/**
+ * Logs of {@code walletId} created in {@code [from, to)}, after the keyset position ({@code afterCreatedAt},
+ * {@code afterId}) of the last row already exported.
+ */
+public record StatementQuery(long walletId, Instant from, Instant to, Instant afterCreatedAt, long afterId) {
+
+    public static StatementQuery of(long walletId, Instant from, Instant to) {
+        return new StatementQuery(walletId, from, to, from, Long.MIN_VALUE);
+    }
+}
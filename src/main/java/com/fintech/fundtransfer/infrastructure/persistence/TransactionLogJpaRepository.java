@@ -2,11 +2,29 @@ package com.fintech.fundtransfer.infrastructure.persistence;
 
 import com.fintech.fundtransfer.domain.model.TransactionLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionLogJpaRepository extends JpaRepository<TransactionLog, Long> {
-    Optional<TransactionLog> findByReferenceCode(String referenceCode);
+    // Native: balances are Money attributes, which JPQL cannot add up
+    @Query(value = "SELECT t.id AS \"transactionId\", t.reference_code AS \"referenceCode\", "
+            + "w.balance + CAST(COALESCE((SELECT SUM(s.balance) FROM wallet_balance_shards s WHERE s.wallet_id = w.id), 0) AS bigint) "
+            + "AS \"sourceBalance\" "
+            + "FROM transaction_logs t JOIN wallets w ON w.id = t.source_id "
+            + "WHERE t.reference_code = :referenceCode AND t.leg = 0 AND t.created_at >= :since", nativeQuery = true)
+    Optional<TransferSnapshot> findSnapshotByReferenceCode(@Param("referenceCode") String referenceCode,
+                                                           @Param("since") Instant since);
+
+    // Bounded by creation time so only the partitions of the idempotency window are searched
+    List<TransactionLog> findByReferenceCodeInAndCreatedAtGreaterThanEqual(Collection<String> referenceCodes, Instant since);
+
+    // Legs of a multi-leg transfer in order
+    List<TransactionLog> findByReferenceCodeAndCreatedAtGreaterThanEqualOrderByLeg(String referenceCode, Instant since);
 }
@@ -0,0 +1,99 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Daily partitions of {@code transaction_logs} ({@code transaction_logs_pYYYYMMDD}, UTC days), their archive
+ * and the {@code transaction_reference_codes} claims. DDL methods must run in a transaction, after
+ * {@link #tryMaintenanceLock()} succeeded.
+ */
+@Repository
+public class TransactionLogPartitionJdbcRepository {
+
+    private static final String PARTITION_PREFIX = "transaction_logs_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ddlLockTimeoutMillis;
+
+    public TransactionLogPartitionJdbcRepository(JdbcTemplate jdbcTemplate,
+                                                 @Value("${fund-transfer.transaction-log.ddl-lock-timeout-ms:2000}") long ddlLockTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ddlLockTimeoutMillis = ddlLockTimeoutMillis;
+    }
+
+    /**
+     * Transaction-scoped advisory lock, so only one pod runs a maintenance step at a time.
+     */
+    public boolean tryMaintenanceLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('transaction_logs_maintenance'))", Boolean.class));
+    }
+
+    public List<LocalDate> findPartitionDays() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'transaction_logs'::regclass AND c.relname LIKE 'transaction\\_logs\\_p%'
+                        ORDER BY c.relname
+                        """, String.class).stream()
+                .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .toList();
+    }
+
+    public void createPartition(LocalDate day) {
+        setDdlLockTimeout();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF transaction_logs "
+                + "FOR VALUES FROM ('" + startOf(day) + "') TO ('" + startOf(day.plusDays(1)) + "')");
+    }
+
+    /**
+     * Copies the day's rows to {@code transaction_logs_archive}, then detaches and drops the partition. The copy
+     * only reads the partition; the parent is locked (briefly, bounded by the DDL lock timeout) for the detach.
+     *
+     * @return the number of archived rows, or -1 if the partition no longer exists
+     */
+    public int archivePartition(LocalDate day) {
+        String partition = partitionName(day);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, partition)) {
+            return -1;
+        }
+        int archived = jdbcTemplate.update("INSERT INTO transaction_logs_archive "
+                + "(id, source_id, destination_id, amount, status, reference_code, leg, created_at) "
+                + "SELECT id, source_id, destination_id, amount, status, reference_code, leg, created_at FROM " + partition);
+        setDdlLockTimeout();
+        jdbcTemplate.execute("ALTER TABLE transaction_logs DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return archived;
+    }
+
+    /**
+     * Frees up to {@code limit} reference codes claimed before {@code before}.
+     */
+    public int deleteReferenceCodesBefore(Instant before, int limit) {
+        return jdbcTemplate.update("""
+                DELETE FROM transaction_reference_codes WHERE reference_code IN (
+                    SELECT reference_code FROM transaction_reference_codes WHERE created_at < ? LIMIT ?)
+                """, Timestamp.from(before), limit);
+    }
+
+    private void setDdlLockTimeout() {
+        jdbcTemplate.queryForObject("SELECT set_config('lock_timeout', ?, true)", String.class, ddlLockTimeoutMillis + "ms");
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,113 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Set-oriented wallet writes for batched transfers: one JDBC batch instead of one round-trip per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransferBatchJdbcRepository {
+
+    private static final String APPLY_DELTAS_SQL = """
+            UPDATE wallets w
+            SET balance = w.balance + d.delta, version = w.version + 1, fencing_token = GREATEST(w.fencing_token, d.token)
+            FROM unnest(?, ?, ?) AS d(id, delta, token)
+            WHERE w.id = d.id AND w.balance + d.delta >= 0 AND (d.token = 0 OR w.fencing_token <= d.token)
+            RETURNING w.id, w.balance, w.version
+            """;
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO transaction_logs (id, source_id, destination_id, amount, status, reference_code) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Must match the allocationSize of TransactionLog's pooled sequence generator
+    public static final int TRANSACTION_LOG_ID_BLOCK = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the net balance change (minor units) of every wallet in one statement. Debits are guarded like
+     * {@code decrementBalance}, and writes are fenced like {@link WalletJpaRepository#transfer} with the wallet's token
+     * in {@code fencingTokens}, if any.
+     *
+     * @return the balance and version each written wallet was left at; a wallet missing from it was rejected
+     * (missing, would go negative or fenced)
+     */
+    public Map<Long, WalletBalanceUpdate> applyBalanceDeltas(Map<Long, Long> deltas, Map<Long, Long> fencingTokens) {
+        Long[] ids = deltas.keySet().toArray(Long[]::new);
+        Long[] amounts = new Long[ids.length];
+        Long[] tokens = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            amounts[i] = deltas.get(ids[i]);
+            tokens[i] = fencingTokens.getOrDefault(ids[i], 0L);
+        }
+        Map<Long, WalletBalanceUpdate> written = new HashMap<>();
+        jdbcTemplate.query(APPLY_DELTAS_SQL,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", amounts));
+                    ps.setArray(3, ps.getConnection().createArrayOf("bigint", tokens));
+                },
+                rs -> {
+                    long id = rs.getLong(1);
+                    written.put(id, new WalletBalanceUpdate(id, rs.getLong(2), rs.getObject(3, Long.class)));
+                });
+        return written;
+    }
+
+    /**
+     * The first wallet of {@code deltas} that {@link #applyBalanceDeltas} did not write, if any.
+     */
+    public static Optional<Long> firstRejected(Map<Long, Long> deltas, Map<Long, WalletBalanceUpdate> written) {
+        return deltas.keySet().stream().filter(id -> !written.containsKey(id)).findFirst();
+    }
+
+    /**
+     * Inserts log rows whose IDs were assigned up front (see {@link #allocateTransactionLogIds}).
+     */
+    public void insertTransactionLogs(List<TransactionLog> logs) {
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, logs, logs.size(), (ps, log) -> {
+            ps.setLong(1, log.getId());
+            ps.setLong(2, log.getSourceId());
+            ps.setLong(3, log.getDestinationId());
+            ps.setLong(4, log.getAmount().minorUnits());
+            ps.setString(5, log.getStatus().name());
+            ps.setString(6, log.getReferenceCode());
+        });
+    }
+
+    /**
+     * Reserves {@code blocks} ranges of {@value #TRANSACTION_LOG_ID_BLOCK} IDs from {@code transaction_logs_seq} in
+     * one round-trip. Like Hibernate's pooled optimizer, a sequence value {@code v} owns the IDs
+     * {@code (v - TRANSACTION_LOG_ID_BLOCK, v]}, so the ranges never overlap with IDs Hibernate hands out.
+     *
+     * @return the upper bound of each range
+     */
+    public List<Long> allocateTransactionLogIds(int blocks) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval('transaction_logs_seq') FROM generate_series(1, ?)", Long.class, blocks);
+    }
+
+    public Set<Long> findExistingTransactionLogIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query("SELECT id FROM transaction_logs WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                rs -> {
+                    existing.add(rs.getLong(1));
+                });
+        return existing;
+    }
+}
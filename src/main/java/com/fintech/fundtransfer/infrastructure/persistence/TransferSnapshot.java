@@ -0,0 +1,13 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+/**
+ * A committed transfer together with the current balance (minor units) of its source wallet, read in one query.
+ */
+public interface TransferSnapshot {
+
+    Long getTransactionId();
+
+    String getReferenceCode();
+
+    Long getSourceBalance();
+}
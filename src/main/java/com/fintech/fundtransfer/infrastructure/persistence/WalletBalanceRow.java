@@ -0,0 +1,15 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+/**
+ * A wallet's balance in minor units (including its balance shards) and the {@code version} it was read or written at.
+ */
+public interface WalletBalanceRow {
+
+    Long getId();
+
+    Long getBalance();
+
+    Long getVersion();
+
+    Boolean getSharded();
+}
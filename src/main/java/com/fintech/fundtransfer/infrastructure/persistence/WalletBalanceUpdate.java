@@ -0,0 +1,13 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import lombok.Value;
+
+/**
+ * A wallet's balance in minor units and its {@code version} as written by {@link TransferBatchJdbcRepository#applyBalanceDeltas}.
+ */
+@Value
+public class WalletBalanceUpdate {
+    Long id;
+    long balance;
+    Long version;
+}
@@ -0,0 +1,11 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+/**
+ * Fencing token a wallet was last written with, see {@link WalletJpaRepository#findFencingTokens}.
+ */
+public interface WalletFencingToken {
+
+    Long getId();
+
+    Long getFencingToken();
+}
@@ -2,21 +2,138 @@ package com.fintech.fundtransfer.infrastructure.persistence;
 
 import com.fintech.fundtransfer.domain.model.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WalletJpaRepository extends JpaRepository<Wallet, Long> {
 
-    @Modifying
-    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount WHERE w.id = :id AND w.balance >= :amount")
-    int decrementBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+    // Amounts and balances are minor units (Money#minorUnits)
 
-    @Modifying
-    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount WHERE w.id = :id")
-    int incrementBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+    /**
+     * Debits the source and credits the destination in one statement. The debit is guarded by
+     * {@code balance >= :amount} and only happens if the destination exists; the credit only happens if the
+     * debit did. A self-transfer is a single no-op write on the source row.
+     * <p>
+     * Both writes are fenced: a wallet whose {@code fencing_token} is newer than the caller's token is not written
+     * (token {@code 0} skips the check). If the credit is fenced after the debit was applied, the destination's new
+     * balance is {@code null} and the caller must roll back.
+     */
+    @Query(value = """
+            WITH debit AS (
+                UPDATE wallets
+                SET balance = balance - CASE WHEN id = :destinationId THEN 0 ELSE :amount END,
+                    version = version + 1,
+                    fencing_token = GREATEST(fencing_token, :sourceToken)
+                WHERE id = :sourceId
+                  AND balance >= :amount
+                  AND (:sourceToken = 0 OR fencing_token <= :sourceToken)
+                  AND EXISTS (SELECT 1 FROM wallets WHERE id = :destinationId
+                                  AND (:destinationToken = 0 OR fencing_token <= :destinationToken))
+                RETURNING balance, version
+            ), credit AS (
+                UPDATE wallets
+                SET balance = balance + :amount,
+                    version = version + 1,
+                    fencing_token = GREATEST(fencing_token, :destinationToken)
+                WHERE id = :destinationId
+                  AND id <> :sourceId
+                  AND (:destinationToken = 0 OR fencing_token <= :destinationToken)
+                  AND EXISTS (SELECT 1 FROM debit)
+                RETURNING balance, version
+            )
+            SELECT (SELECT balance FROM debit) AS "sourceBalanceAfter",
+                   (SELECT version FROM debit) AS "sourceVersion",
+                   (SELECT balance FROM credit) AS "destinationBalanceAfter",
+                   (SELECT version FROM credit) AS "destinationVersion",
+                   EXISTS (SELECT 1 FROM wallets WHERE id = :sourceId) AS "sourceExists",
+                   EXISTS (SELECT 1 FROM wallets WHERE id = :destinationId) AS "destinationExists",
+                   EXISTS (SELECT 1 FROM wallets WHERE id = :sourceId AND balance_shards IS NOT NULL) AS "sourceSharded"
+            """, nativeQuery = true)
+    WalletTransferResult transfer(@Param("sourceId") Long sourceId,
+                                  @Param("destinationId") Long destinationId,
+                                  @Param("amount") long amount,
+                                  @Param("sourceToken") long sourceToken,
+                                  @Param("destinationToken") long destinationToken);
+
+    /**
+     * Debit-only variant of {@link #transfer} for transfers whose destination is a sharded hot wallet.
+     */
+    @Query(value = """
+            WITH debit AS (
+                UPDATE wallets
+                SET balance = balance - :amount,
+                    version = version + 1,
+                    fencing_token = GREATEST(fencing_token, :sourceToken)
+                WHERE id = :sourceId AND balance >= :amount
+                  AND (:sourceToken = 0 OR fencing_token <= :sourceToken)
+                RETURNING balance, version
+            )
+            SELECT (SELECT balance FROM debit) AS "sourceBalanceAfter",
+                   (SELECT version FROM debit) AS "sourceVersion",
+                   CAST(NULL AS bigint) AS "destinationBalanceAfter",
+                   CAST(NULL AS bigint) AS "destinationVersion",
+                   EXISTS (SELECT 1 FROM wallets WHERE id = :sourceId) AS "sourceExists",
+                   TRUE AS "destinationExists",
+                   EXISTS (SELECT 1 FROM wallets WHERE id = :sourceId AND balance_shards IS NOT NULL) AS "sourceSharded"
+            """, nativeQuery = true)
+    WalletTransferResult debit(@Param("sourceId") Long sourceId, @Param("amount") long amount,
+                               @Param("sourceToken") long sourceToken);
+
+    /**
+     * Credits a wallet, fenced like {@link #transfer}; empty if it does not exist or the write was fenced.
+     */
+    @Query(value = """
+            WITH credit AS (
+                UPDATE wallets
+                SET balance = balance + :amount, version = version + 1, fencing_token = GREATEST(fencing_token, :token)
+                WHERE id = :id AND (:token = 0 OR fencing_token <= :token)
+                RETURNING id, balance, version
+            )
+            SELECT id AS "id", balance AS "balance", version AS "version", FALSE AS "sharded" FROM credit
+            """, nativeQuery = true)
+    Optional<WalletBalanceRow> credit(@Param("id") Long id, @Param("amount") long amount, @Param("token") long token);
+
+    /**
+     * Current fencing tokens, read after a fenced write was rejected to tell a lost lock from a business failure.
+     */
+    @Query(value = "SELECT id AS \"id\", fencing_token AS \"fencingToken\" FROM wallets WHERE id IN (:ids)", nativeQuery = true)
+    List<WalletFencingToken> findFencingTokens(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Balances for the read API: {@code wallets.balance} plus the wallet's balance shards, if any.
+     */
+    @Query(value = """
+            SELECT w.id AS "id",
+                   w.balance + CAST(COALESCE((SELECT SUM(s.balance) FROM wallet_balance_shards s WHERE s.wallet_id = w.id), 0) AS bigint) AS "balance",
+                   w.version AS "version",
+                   w.balance_shards IS NOT NULL AS "sharded"
+            FROM wallets w WHERE w.id IN (:ids)
+            """, nativeQuery = true)
+    List<WalletBalanceRow> findBalances(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Row locks for {@code fund-transfer.lock.mode=database}, taken in ascending ID order.
+     */
+    @Query(value = "SELECT id FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE NOWAIT", nativeQuery = true)
+    List<Long> lockForUpdateNowait(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockForUpdateSkipLocked(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sets {@code lock_timeout} for the rest of the current transaction, e.g. {@code "5000ms"}.
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String setLockTimeout(@Param("timeout") String timeout);
+
+    long countByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,133 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Balance shards of hot wallets ({@code wallet_balance_shards}). Shard rows are picked with
+ * {@code FOR UPDATE SKIP LOCKED}, so concurrent writers spread over the shards instead of queueing on one row.
+ * Amounts and balances are minor units.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletShardJdbcRepository {
+
+    private static final String CREDIT_SQL = """
+            WITH target AS (
+                SELECT wallet_id, shard_index FROM wallet_balance_shards
+                WHERE wallet_id = ?
+                ORDER BY shard_index = ? DESC, shard_index
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE wallet_balance_shards s SET balance = s.balance + ?
+            FROM target
+            WHERE s.wallet_id = target.wallet_id AND s.shard_index = target.shard_index
+            """;
+
+    private static final String DEBIT_SQL = """
+            WITH target AS (
+                SELECT wallet_id, shard_index FROM wallet_balance_shards
+                WHERE wallet_id = ? AND balance >= ?
+                ORDER BY shard_index = ? DESC, balance DESC
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE wallet_balance_shards s SET balance = s.balance - ?
+            FROM target
+            WHERE s.wallet_id = target.wallet_id AND s.shard_index = target.shard_index
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Credits the preferred shard, or any other one that is not locked right now.
+     *
+     * @return false if every shard was locked
+     */
+    public boolean creditAnyShard(Long walletId, int preferredShard, long amount) {
+        return jdbcTemplate.update(CREDIT_SQL, walletId, preferredShard, amount) > 0;
+    }
+
+    /**
+     * Credits one specific shard, waiting for its row lock.
+     *
+     * @return false if the shard does not exist
+     */
+    public boolean creditShard(Long walletId, int shard, long amount) {
+        return jdbcTemplate.update("UPDATE wallet_balance_shards SET balance = balance + ? WHERE wallet_id = ? AND shard_index = ?",
+                amount, walletId, shard) > 0;
+    }
+
+    /**
+     * Debits an unlocked shard that covers the amount on its own, preferring the given one.
+     *
+     * @return false if no such shard was available
+     */
+    public boolean debitAnyShard(Long walletId, int preferredShard, long amount) {
+        return jdbcTemplate.update(DEBIT_SQL, walletId, amount, preferredShard, amount) > 0;
+    }
+
+    /**
+     * Locks the wallet's {@code wallets} row, then all of its shards in index order.
+     *
+     * @return the {@code wallets} balance followed by the shard balances
+     */
+    public List<Long> lockAllBalances(Long walletId) {
+        List<Long> balances = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT balance FROM wallets WHERE id = ? FOR UPDATE", Long.class, walletId));
+        balances.addAll(jdbcTemplate.queryForList(
+                "SELECT balance FROM wallet_balance_shards WHERE wallet_id = ? ORDER BY shard_index FOR UPDATE",
+                Long.class, walletId));
+        return balances;
+    }
+
+    /**
+     * Overwrites the shard balances and empties the {@code wallets} row, which regular credits may have filled.
+     * Requires {@link #lockAllBalances} in the same transaction.
+     */
+    public void writeShards(Long walletId, List<Long> balances) {
+        jdbcTemplate.update("UPDATE wallets SET balance = 0, version = version + 1 WHERE id = ?", walletId);
+        List<Integer> shards = IntStream.range(0, balances.size()).boxed().toList();
+        jdbcTemplate.batchUpdate("UPDATE wallet_balance_shards SET balance = ? WHERE wallet_id = ? AND shard_index = ?",
+                shards, shards.size(), (ps, shard) -> {
+                    ps.setLong(1, balances.get(shard));
+                    ps.setLong(2, walletId);
+                    ps.setInt(3, shard);
+                });
+    }
+
+    public long totalBalance(Long walletId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT w.balance + CAST(COALESCE((SELECT SUM(s.balance) FROM wallet_balance_shards s WHERE s.wallet_id = w.id), 0) AS bigint) " +
+                        "FROM wallets w WHERE w.id = ?", Long.class, walletId);
+    }
+
+    /**
+     * Adds missing shard rows (balance 0) so that the wallet has {@code shards} of them and flags the wallet.
+     */
+    public void createShards(Long walletId, int shards) {
+        jdbcTemplate.update("""
+                INSERT INTO wallet_balance_shards (wallet_id, shard_index, balance)
+                SELECT ?, i, 0 FROM generate_series(0, ? - 1) i
+                ON CONFLICT DO NOTHING
+                """, walletId, shards);
+        jdbcTemplate.update("UPDATE wallets SET balance_shards = ?, version = version + 1 WHERE id = ?", shards, walletId);
+    }
+
+    public Map<Long, Integer> findShardedWallets() {
+        Map<Long, Integer> sharded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, balance_shards FROM wallets WHERE balance_shards > 0",
+                rs -> {
+                    sharded.put(rs.getLong(1), rs.getInt(2));
+                });
+        return sharded;
+    }
+}
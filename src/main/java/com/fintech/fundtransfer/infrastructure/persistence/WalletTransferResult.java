@@ -0,0 +1,29 @@
+package com.fintech.fundtransfer.infrastructure.persistence;
+
+/**
+ * Outcome of {@link WalletJpaRepository#transfer}: the new source balance is {@code null} when nothing was written.
+ * The destination's new balance and version are {@code null} for a self-transfer and for {@link WalletJpaRepository#debit}.
+ * Balances are in minor units ({@link com.fintech.fundtransfer.domain.model.Money#minorUnits()}).
+ * {@code sourceSharded} tells a debit rejected because the source's balance now lives in its balance shards apart
+ * from a plain overdraft.
+ */
+public interface WalletTransferResult {
+
+    Long getSourceBalanceAfter();
+
+    Long getSourceVersion();
+
+    Long getDestinationBalanceAfter();
+
+    Long getDestinationVersion();
+
+    Boolean getSourceExists();
+
+    Boolean getDestinationExists();
+
+    Boolean getSourceSharded();
+
+    default boolean isApplied() {
+        return getSourceBalanceAfter() != null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.fintech.fundtransfer.infrastructure.retry;
+
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Retries the database section of a transfer after a concurrency failure (optimistic conflict, deadlock or
+ * serialization failure).
+ * <p>
+ * Backoff uses decorrelated jitter ({@code sleep = min(cap, random(base, 3 * previous sleep))}), so a burst of
+ * conflicts on one wallet spreads out instead of retrying in lockstep. Each wallet also has a retry budget (a
+ * token bucket): a contended wallet spends its tokens and further conflicts on it fail at once until the bucket
+ * refills, which keeps retries from amplifying the contention.
+ */
+@Component
+@Slf4j
+public class ContentionAwareRetry {
+
+    private final MeterRegistry meterRegistry;
+    private final ContendedWallets contendedWallets;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetTokens;
+    private final double refillPerNano;
+    private final Map<Long, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private final Counter retries;
+    private final Timer wastedInAttempts;
+    private final Timer wastedInBackoff;
+
+    public ContentionAwareRetry(MeterRegistry meterRegistry,
+                                ContendedWallets contendedWallets,
+                                @Value("${fund-transfer.retry.max-attempts:4}") int maxAttempts,
+                                @Value("${fund-transfer.retry.base-delay-ms:5}") long baseDelayMillis,
+                                @Value("${fund-transfer.retry.max-delay-ms:200}") long maxDelayMillis,
+                                @Value("${fund-transfer.retry.wallet-budget:10}") int budgetTokens,
+                                @Value("${fund-transfer.retry.wallet-budget-refill-per-second:5}") double refillPerSecond) {
+        this.meterRegistry = meterRegistry;
+        this.contendedWallets = contendedWallets;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(baseDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.budgetTokens = budgetTokens;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.retries = meterRegistry.counter("fund_transfer.retry.retries");
+        this.wastedInAttempts = meterRegistry.timer("fund_transfer.retry.wasted_time", "phase", "attempt");
+        this.wastedInBackoff = meterRegistry.timer("fund_transfer.retry.wasted_time", "phase", "backoff");
+    }
+
+    /**
+     * Runs {@code attempt} until it succeeds, fails with a non-retryable error, or the attempts or a wallet's
+     * budget run out; then the last failure is rethrown.
+     */
+    public <T> T execute(Collection<Long> walletIds, Supplier<T> attempt) {
+        long sleepNanos = baseDelayNanos;
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            long start = System.nanoTime();
+            try {
+                return attempt.get();
+            } catch (ConcurrencyFailureException e) {
+                long now = System.nanoTime();
+                wastedInAttempts.record(now - start, TimeUnit.NANOSECONDS);
+                if (attemptNumber >= maxAttempts) {
+                    exhausted("max_attempts");
+                    throw e;
+                }
+                if (!spendBudget(walletIds, now)) {
+                    exhausted("wallet_budget");
+                    throw e;
+                }
+
+                sleepNanos = Math.min(maxDelayNanos,
+                        ThreadLocalRandom.current().nextLong(baseDelayNanos, Math.max(baseDelayNanos, sleepNanos * 3) + 1));
+                log.debug("Concurrency failure on wallets {} (attempt {}), retrying in {} us", walletIds, attemptNumber,
+                        TimeUnit.NANOSECONDS.toMicros(sleepNanos));
+                retries.increment();
+                LockSupport.parkNanos(this, sleepNanos);
+                long backoffNanos = System.nanoTime() - now;
+                wastedInBackoff.record(backoffNanos, TimeUnit.NANOSECONDS);
+                TransferTrace.retried(backoffNanos);
+                contendedWallets.recordRetry(walletIds, now - start + backoffNanos);
+            }
+        }
+    }
+
+    private boolean spendBudget(Collection<Long> walletIds, long now) {
+        // All wallets must have a token; a wallet out of budget fails the retry without charging the others
+        for (Long walletId : walletIds) {
+            if (!budget(walletId).hasToken(now)) {
+                return false;
+            }
+        }
+        for (Long walletId : walletIds) {
+            budget(walletId).spend(now);
+        }
+        return true;
+    }
+
+    private RetryBudget budget(Long walletId) {
+        return budgets.computeIfAbsent(walletId, id -> new RetryBudget(budgetTokens, System.nanoTime()));
+    }
+
+    private void exhausted(String reason) {
+        meterRegistry.counter("fund_transfer.retry.exhausted", "reason", reason).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${fund-transfer.retry.budget-cleanup-ms:60000}")
+    public void evictRefilledBudgets() {
+        long now = System.nanoTime();
+        budgets.values().removeIf(budget -> budget.isFull(now));
+    }
+
+    private final class RetryBudget {
+        private double tokens;
+        private long refilledAt;
+
+        private RetryBudget(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        private synchronized boolean hasToken(long now) {
+            refill(now);
+            return tokens >= 1;
+        }
+
+        private synchronized void spend(long now) {
+            refill(now);
+            tokens = Math.max(0, tokens - 1);
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= budgetTokens;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(budgetTokens, tokens + (now - refilledAt) * refillPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.fintech.fundtransfer.infrastructure.web;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.AsyncTransferService;
+import com.fintech.fundtransfer.infrastructure.admission.AdmissionControl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link TransferController}: the request thread is released while the transfer waits
+ * for its locks and a database thread. Spring MVC serves the {@link Mono} as an async request; the same
+ * controller runs unchanged on WebFlux.
+ */
+@RestController
+@RequestMapping("/api/v1/transfers")
+@RequiredArgsConstructor
+public class AsyncTransferController {
+
+    private final AsyncTransferService asyncTransferService;
+    private final AdmissionControl admissionControl;
+
+    @PostMapping("/async")
+    public Mono<ResponseEntity<TransferResponse>> transfer(@RequestBody TransferRequest request) {
+        return Mono.fromFuture(() -> admissionControl.admitAsync(request, () -> asyncTransferService.transferFundsAsync(request)))
+                .map(ResponseEntity::ok);
+    }
+}
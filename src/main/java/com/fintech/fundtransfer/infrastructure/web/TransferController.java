@@ -1,8 +1,11 @@
 package com.fintech.fundtransfer.infrastructure.web;
 
+import com.fintech.fundtransfer.application.dto.BatchTransferResponse;
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.BatchTransferService;
 import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.infrastructure.admission.AdmissionControl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,16 +13,26 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/transfers")
 @RequiredArgsConstructor
 public class TransferController {
 
     private final TransferService transferService;
+    private final BatchTransferService batchTransferService;
+    private final AdmissionControl admissionControl;
 
     @PostMapping
     public ResponseEntity<TransferResponse> transfer(@RequestBody TransferRequest request) {
-        TransferResponse response = transferService.transferFunds(request);
+        TransferResponse response = admissionControl.admit(request, () -> transferService.transferFunds(request));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(@RequestBody List<TransferRequest> requests) {
+        BatchTransferResponse response = admissionControl.admitBatch(() -> batchTransferService.transferBatch(requests));
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,63 @@
+package com.fintech.fundtransfer.infrastructure.web;
+
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.application.service.StatementExportService;
+import com.fintech.fundtransfer.application.service.WalletQueryService;
+import com.fintech.fundtransfer.infrastructure.export.StatementFormat;
+import com.fintech.fundtransfer.infrastructure.persistence.StatementQuery;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/wallets")
+@RequiredArgsConstructor
+public class WalletController {
+
+    private final WalletQueryService walletQueryService;
+    private final StatementExportService statementExportService;
+
+    @GetMapping("/{walletId}")
+    public ResponseEntity<WalletBalanceResponse> getWallet(@PathVariable Long walletId,
+                                                           @RequestParam(defaultValue = "0") long minVersion) {
+        return ResponseEntity.ok(walletQueryService.getBalance(walletId, minVersion));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<WalletBalanceResponse>> getWallets(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(walletQueryService.getBalances(ids));
+    }
+
+    /**
+     * Streams the wallet's transfers of the UTC days {@code from} to {@code to} (inclusive) as CSV or NDJSON.
+     */
+    @GetMapping("/{walletId}/statement")
+    public void exportStatement(@PathVariable Long walletId,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(defaultValue = "csv") String format,
+                                @RequestParam(required = false) String after,
+                                HttpServletResponse response) throws IOException {
+        StatementFormat statementFormat = StatementFormat.of(format);
+        LocalDate until = to != null ? to : from;
+        StatementQuery query = statementExportService.prepare(walletId, from, until, after);
+
+        response.setContentType(statementFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"wallet-" + walletId + "-"
+                + from + "-" + until + "." + statementFormat.fileExtension() + "\"");
+        statementExportService.export(query, statementFormat, Channels.newChannel(response.getOutputStream()));
+    }
+}
@@ -1,9 +1,14 @@
 package com.fintech.fundtransfer.infrastructure.web.exception;
 
 import com.fintech.fundtransfer.domain.exception.BaseException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.RateLimitedException;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -25,6 +30,28 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    // Load shedding is expected under overload and counted in metrics; an error log per rejection would add to the load
+    @ExceptionHandler({RateLimitedException.class, ServiceOverloadedException.class})
+    public ResponseEntity<ErrorResponse> handleRejected(BaseException ex) {
+        log.debug("Request rejected: {} - Code: {}", ex.getMessage(), ex.getErrorCode());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus());
+        if (ex instanceof RateLimitedException rateLimited) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimited.getRetryAfterSeconds()));
+        }
+        return response.body(ErrorResponse.builder()
+                .message(ex.getMessage())
+                .errorCode(ex.getErrorCode().getValue())
+                .status(ex.getStatus().value())
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    // Malformed body, e.g. an amount with more fraction digits than the currency has
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleUnreadableRequest(HttpMessageNotReadableException ex) {
+        return handleBaseException(new InvalidRequestException(ex.getMostSpecificCause().getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         log.error("Unhandled exception occurred", ex);
@@ -0,0 +1,56 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Existing databases are baselined at version 0 and
+-- run this migration too, so every statement only adds what is missing: a database from before sequence IDs has
+-- IDENTITY columns and neither the sequences nor the sharding and outbox tables, one from ddl-auto=update has all of it.
+
+CREATE SEQUENCE IF NOT EXISTS wallets_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transaction_logs_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS wallets (
+    id             bigint         NOT NULL PRIMARY KEY,
+    user_id        varchar(255)   NOT NULL UNIQUE,
+    balance        numeric(38, 2) NOT NULL,
+    version        bigint,
+    balance_shards integer
+);
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS balance_shards integer;
+
+CREATE TABLE IF NOT EXISTS transaction_logs (
+    id             bigint         NOT NULL PRIMARY KEY,
+    source_id      bigint         NOT NULL,
+    destination_id bigint         NOT NULL,
+    amount         numeric(38, 2) NOT NULL,
+    status         varchar(255)   NOT NULL CHECK (status IN ('PENDING', 'SUCCESS', 'FAILED')),
+    reference_code varchar(255)   NOT NULL UNIQUE
+);
+
+-- IDs come from the sequences now; they start past the rows inserted through the IDENTITY columns
+ALTER TABLE wallets ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transaction_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('wallets_seq', MAX(id)) FROM wallets HAVING MAX(id) >= (SELECT last_value FROM wallets_seq);
+SELECT setval('transaction_logs_seq', MAX(id)) FROM transaction_logs
+HAVING MAX(id) >= (SELECT last_value FROM transaction_logs_seq);
+
+CREATE TABLE IF NOT EXISTS wallet_balance_shards (
+    wallet_id   bigint         NOT NULL,
+    shard_index integer        NOT NULL,
+    balance     numeric(38, 2) NOT NULL,
+    PRIMARY KEY (wallet_id, shard_index)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             bigint                      NOT NULL PRIMARY KEY,
+    partition_key  integer                     NOT NULL,
+    wallet_id      bigint                      NOT NULL,
+    transaction_id bigint                      NOT NULL,
+    source_id      bigint                      NOT NULL,
+    destination_id bigint                      NOT NULL,
+    amount         numeric(38, 2)              NOT NULL,
+    reference_code varchar(255)                NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_partition ON outbox_events (partition_key, id);
+
+CREATE TABLE IF NOT EXISTS outbox_partitions (
+    partition_key integer NOT NULL PRIMARY KEY
+);
@@ -0,0 +1,78 @@
+-- transaction_logs becomes range-partitioned by day on created_at. Daily partitions are created ahead of time
+-- and archived by the service (TransactionLogRetention); the default partition only catches rows no daily
+-- partition covers.
+
+-- A partitioned table cannot enforce a unique index without its partition key, so reference codes are claimed
+-- here. Rows outside the idempotency window are pruned, which keeps this table (and its index) bounded.
+CREATE TABLE transaction_reference_codes (
+    reference_code varchar(255)                NOT NULL PRIMARY KEY,
+    created_at     timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX idx_transaction_reference_codes_created_at ON transaction_reference_codes (created_at);
+
+ALTER TABLE transaction_logs RENAME TO transaction_logs_unpartitioned;
+
+CREATE TABLE transaction_logs (
+    id             bigint                      NOT NULL,
+    source_id      bigint                      NOT NULL,
+    destination_id bigint                      NOT NULL,
+    amount         numeric(38, 2)              NOT NULL,
+    status         varchar(255)                NOT NULL CHECK (status IN ('PENDING', 'SUCCESS', 'FAILED')),
+    reference_code varchar(255)                NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX idx_transaction_logs_reference_code ON transaction_logs (reference_code, created_at);
+
+CREATE TABLE transaction_logs_default PARTITION OF transaction_logs DEFAULT;
+
+-- Rows written before partitioning carry no timestamp. They get the last instant before today (UTC) and go to
+-- the partition named after yesterday, which also covers everything older, so they are archived like any other day.
+DO $$
+DECLARE
+    today timestamptz := date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+BEGIN
+    EXECUTE format('CREATE TABLE %I PARTITION OF transaction_logs FOR VALUES FROM (MINVALUE) TO (%L)',
+                   'transaction_logs_p' || to_char(today - interval '1 day', 'YYYYMMDD'), today);
+END $$;
+
+INSERT INTO transaction_logs (id, source_id, destination_id, amount, status, reference_code, created_at)
+SELECT id, source_id, destination_id, amount, status, reference_code,
+       (date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC') - interval '1 microsecond'
+FROM transaction_logs_unpartitioned;
+
+INSERT INTO transaction_reference_codes (reference_code, created_at)
+SELECT reference_code, created_at FROM transaction_logs;
+
+DROP TABLE transaction_logs_unpartitioned;
+
+-- Every insert path (JPA, JDBC batches, ledger flush) claims its reference code in the same transaction; a
+-- duplicate fails with a unique violation as before. Deleting a log row frees its code, dropping a partition does not.
+CREATE FUNCTION transaction_logs_claim_reference_code() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO transaction_reference_codes (reference_code, created_at) VALUES (NEW.reference_code, NEW.created_at);
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE FUNCTION transaction_logs_release_reference_code() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM transaction_reference_codes WHERE reference_code = OLD.reference_code AND created_at = OLD.created_at;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE TRIGGER transaction_logs_claim_reference_code AFTER INSERT ON transaction_logs
+    FOR EACH ROW EXECUTE FUNCTION transaction_logs_claim_reference_code();
+CREATE TRIGGER transaction_logs_release_reference_code AFTER DELETE ON transaction_logs
+    FOR EACH ROW EXECUTE FUNCTION transaction_logs_release_reference_code();
+
+-- Archived rows: no primary key or B-tree indexes, only a BRIN index on the append-ordered timestamp
+CREATE TABLE transaction_logs_archive (
+    id             bigint                      NOT NULL,
+    source_id      bigint                      NOT NULL,
+    destination_id bigint                      NOT NULL,
+    amount         numeric(38, 2)              NOT NULL,
+    status         varchar(255)                NOT NULL,
+    reference_code varchar(255)                NOT NULL,
+    created_at     timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX idx_transaction_logs_archive_created_at ON transaction_logs_archive USING brin (created_at);
@@ -0,0 +1,4 @@
+-- Statement exports read a wallet's logs in (created_at, id) order. One index per side of the transfer lets each
+-- partition be read in that order; archived days are scanned through their BRIN index instead.
+CREATE INDEX idx_transaction_logs_source ON transaction_logs (source_id, created_at, id);
+CREATE INDEX idx_transaction_logs_destination ON transaction_logs (destination_id, created_at, id);
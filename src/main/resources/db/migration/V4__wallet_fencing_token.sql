@@ -0,0 +1,4 @@
+-- Fencing token of the Redis lock lease that last wrote the wallet (0 = never written under a Redis lock). Writes
+-- under a lease require the stored token not to be newer than theirs, so a holder whose lease expired is rejected
+-- once the next holder has written. A constant default does not rewrite the table.
+ALTER TABLE wallets ADD COLUMN fencing_token bigint NOT NULL DEFAULT 0;
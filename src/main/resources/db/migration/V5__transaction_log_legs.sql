@@ -0,0 +1,20 @@
+-- Legs of a multi-leg transfer are logged as one row each under the same reference code, numbered from 0. Only
+-- leg 0 claims the code, so a repeated reference code still fails with a unique violation; single transfers are leg 0.
+ALTER TABLE transaction_logs ADD COLUMN leg smallint NOT NULL DEFAULT 0;
+ALTER TABLE transaction_logs_archive ADD COLUMN leg smallint NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION transaction_logs_claim_reference_code() RETURNS trigger AS $$
+BEGIN
+    IF NEW.leg = 0 THEN
+        INSERT INTO transaction_reference_codes (reference_code, created_at) VALUES (NEW.reference_code, NEW.created_at);
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION transaction_logs_release_reference_code() RETURNS trigger AS $$
+BEGIN
+    IF OLD.leg = 0 THEN
+        DELETE FROM transaction_reference_codes WHERE reference_code = OLD.reference_code AND created_at = OLD.created_at;
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
@@ -0,0 +1,10 @@
+-- Amounts and balances are stored as bigint minor units (cents) instead of numeric(38, 2), the way the service
+-- holds them in memory (Money). numeric(38, 2) values have no further fraction digits, so the conversion is exact;
+-- values beyond the bigint range fail the migration instead of being truncated.
+-- Each statement rewrites its table (on transaction_logs: every partition) under an ACCESS EXCLUSIVE lock, so on
+-- large databases run it in a maintenance window, or archive old days first (TransactionLogRetention).
+ALTER TABLE wallets ALTER COLUMN balance TYPE bigint USING (balance * 100)::bigint;
+ALTER TABLE wallet_balance_shards ALTER COLUMN balance TYPE bigint USING (balance * 100)::bigint;
+ALTER TABLE outbox_events ALTER COLUMN amount TYPE bigint USING (amount * 100)::bigint;
+ALTER TABLE transaction_logs ALTER COLUMN amount TYPE bigint USING (amount * 100)::bigint;
+ALTER TABLE transaction_logs_archive ALTER COLUMN amount TYPE bigint USING (amount * 100)::bigint;
@@ -0,0 +1,338 @@
+package com.fintech.fundtransfer.application.ledger;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.TransactionLogRetention;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.ledger.LedgerJournal;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceUpdate;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LedgerEngineTest {
+
+    private static final int WALLETS = 4;
+    private static final Money INITIAL_BALANCE = Money.parse("1000.00");
+
+    @Mock
+    private WalletJpaRepository walletRepository;
+    @Mock
+    private TransactionLogJpaRepository transactionLogRepository;
+    @Mock
+    private TransactionLogRetention transactionLogRetention;
+    @Mock
+    private TransferBatchJdbcRepository batchRepository;
+    @Mock
+    private OutboxJdbcRepository outboxRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDirectory;
+
+    private final ConcurrentLinkedQueue<TransactionLog> persisted = new ConcurrentLinkedQueue<>();
+    private LedgerEngine engine;
+
+    private LedgerEngine newEngine() throws Exception {
+        AtomicLong sequence = new AtomicLong(1);
+        when(batchRepository.allocateTransactionLogIds(anyInt())).thenAnswer(invocation -> {
+            int blocks = invocation.getArgument(0);
+            List<Long> hiValues = new ArrayList<>();
+            for (int i = 0; i < blocks; i++) {
+                hiValues.add(sequence.addAndGet(TransferBatchJdbcRepository.TRANSACTION_LOG_ID_BLOCK));
+            }
+            return hiValues;
+        });
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenAnswer(invocation -> {
+            Map<Long, Long> deltas = invocation.getArgument(0);
+            Map<Long, WalletBalanceUpdate> written = new HashMap<>();
+            deltas.keySet().forEach(id -> written.put(id, new WalletBalanceUpdate(id, 0L, null)));
+            return written;
+        });
+        doAnswer(invocation -> {
+            List<TransactionLog> logs = invocation.getArgument(0);
+            if (logs.stream().anyMatch(log -> log.getReferenceCode().startsWith("committed-"))) {
+                throw new DuplicateKeyException("duplicate key value violates unique constraint");
+            }
+            return persisted.addAll(logs);
+        }).when(batchRepository).insertTransactionLogs(anyList());
+        when(transactionLogRetention.idempotencyWindowStart()).thenReturn(Instant.EPOCH);
+        for (long id = 1; id <= WALLETS; id++) {
+            when(walletRepository.findById(id))
+                    .thenReturn(Optional.of(Wallet.builder().id(id).balance(INITIAL_BALANCE).build()));
+        }
+
+        LedgerEngine ledgerEngine = new LedgerEngine(walletRepository, transactionLogRepository, transactionLogRetention,
+                batchRepository, outboxRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(),
+                4, 65536, 256, journalDirectory.toString(), 1024 * 1024, false, 5, 1000, 4);
+        ledgerEngine.start();
+        return ledgerEngine;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void testConcurrentTransfers_ConserveMoneyAndPersistEveryTransfer() throws Exception {
+        engine = newEngine();
+        int threads = 8;
+        int transfersPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ConcurrentLinkedQueue<TransferResponse> responses = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<?>[] futures = new CompletableFuture[threads];
+        for (int t = 0; t < threads; t++) {
+            futures[t] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < transfersPerThread; i++) {
+                    long source = ThreadLocalRandom.current().nextLong(1, WALLETS + 1);
+                    long destination = source % WALLETS + 1;
+                    try {
+                        responses.add(engine.transfer(new TransferRequest(source, destination,
+                                Money.parse("3.00"), UUID.randomUUID().toString())));
+                    } catch (InsufficientBalanceException ignored) {
+                        // Expected once a wallet runs dry
+                    }
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        executor.shutdown();
+
+        // Wait for the write-behind flush and the cross-shard credits to catch up
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!writeBehindCaughtUp(responses.size()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        responses.forEach(response -> ids.add(response.getTransactionId()));
+        assertThat(ids).hasSize(responses.size());
+        assertThat(persisted).hasSize(responses.size());
+        Money total = Money.ZERO;
+        for (long id = 1; id <= WALLETS; id++) {
+            assertThat(engine.balance(id)).isEqualTo(persistedBalance(id)).isGreaterThanOrEqualTo(Money.ZERO);
+            total = total.plus(engine.balance(id));
+        }
+        assertThat(total).isEqualTo(INITIAL_BALANCE.times(WALLETS));
+    }
+
+    @Test
+    void testTransfer_RejectsOverdraftAndAnswersDuplicateFromMemory() throws Exception {
+        engine = newEngine();
+
+        TransferResponse first = engine.transfer(new TransferRequest(1L, 2L, Money.parse("600.00"), "ref-1"));
+        TransferResponse duplicate = engine.transfer(new TransferRequest(1L, 2L, Money.parse("600.00"), "ref-1"));
+
+        assertThat(first.getSourceWalletBalanceAfter()).isEqualTo(Money.parse("400.00"));
+        assertThat(duplicate.getTransactionId()).isEqualTo(first.getTransactionId());
+        assertThrows(InsufficientBalanceException.class,
+                () -> engine.transfer(new TransferRequest(1L, 2L, Money.parse("600.00"), "ref-2")));
+        assertThat(engine.balance(1L)).isEqualTo(Money.parse("400.00"));
+    }
+
+    @Test
+    void testFlush_DeadLettersRefusedTransferAndKeepsPersistingTheRest() throws Exception {
+        engine = newEngine();
+
+        // Accepted by the ledger, but the database already has the reference code
+        engine.transfer(new TransferRequest(1L, 2L, Money.parse("1.00"), "ref-before"));
+        engine.transfer(new TransferRequest(1L, 2L, Money.parse("1.00"), "committed-elsewhere"));
+        engine.transfer(new TransferRequest(1L, 2L, Money.parse("1.00"), "ref-after"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (persisted.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        engine.transfer(new TransferRequest(1L, 2L, Money.parse("1.00"), "ref-later"));
+        while (persisted.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(persisted).extracting(TransactionLog::getReferenceCode)
+                .containsExactly("ref-before", "ref-after", "ref-later");
+        assertThat(LedgerJournal.readAll(journalDirectory.resolve("dead-letter")))
+                .extracting(TransactionLog::getReferenceCode).containsExactly("committed-elsewhere");
+    }
+
+    @Test
+    void testFlush_RetriesRejectedBalanceChangeInsteadOfDeadLettering() throws Exception {
+        engine = newEngine();
+        AtomicLong rejections = new AtomicLong();
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenAnswer(invocation -> {
+            Map<Long, Long> deltas = invocation.getArgument(0);
+            Map<Long, WalletBalanceUpdate> written = new HashMap<>();
+            // The first attempt is turned away by the non-negative balance guard
+            if (rejections.getAndIncrement() > 0) {
+                deltas.keySet().forEach(id -> written.put(id, new WalletBalanceUpdate(id, 0L, null)));
+            }
+            return written;
+        });
+
+        engine.transfer(new TransferRequest(1L, 2L, Money.parse("1.00"), "ref-guarded"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (persisted.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(persisted).extracting(TransactionLog::getReferenceCode).containsExactly("ref-guarded");
+        assertThat(LedgerJournal.readAll(journalDirectory.resolve("dead-letter"))).isEmpty();
+    }
+
+    @Test
+    void testTransfer_RejectsShardedWallet() throws Exception {
+        engine = newEngine();
+        long hotWallet = WALLETS + 1;
+        when(walletRepository.findById(hotWallet))
+                .thenReturn(Optional.of(Wallet.builder().id(hotWallet).balance(Money.ZERO).balanceShards(8).build()));
+
+        assertThrows(InvalidRequestException.class,
+                () -> engine.transfer(new TransferRequest(hotWallet, 1L, Money.parse("1.00"), "ref-hot")));
+        assertThat(engine.balance(hotWallet)).isNull();
+    }
+
+    @Test
+    void testTransfer_RejectsNonPositiveAmountAndMissingWallet() throws Exception {
+        engine = newEngine();
+
+        assertThrows(InvalidRequestException.class,
+                () -> engine.transfer(new TransferRequest(1L, 2L, Money.parse("-5.00"), "ref-negative")));
+        assertThrows(InvalidRequestException.class,
+                () -> engine.transfer(new TransferRequest(1L, 2L, Money.ZERO, "ref-zero")));
+        assertThrows(InvalidRequestException.class,
+                () -> engine.transfer(new TransferRequest(1L, null, Money.parse("5.00"), "ref-no-destination")));
+        assertThat(engine.balance(1L)).isNull();
+        assertThat(engine.balance(2L)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStart_ReplaysJournaledTransfersMissingFromDatabase() throws Exception {
+        try (LedgerJournal journal = new LedgerJournal(journalDirectory, 0, 1024, false)) {
+            journal.append(List.of(journalEntry(101L, "ref-a"), journalEntry(102L, "ref-b")));
+        }
+        when(batchRepository.findExistingTransactionLogIds(any())).thenReturn(Set.of(101L));
+
+        engine = newEngine();
+
+        ArgumentCaptor<List<TransactionLog>> replayed = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository).insertTransactionLogs(replayed.capture());
+        assertThat(replayed.getValue()).extracting(TransactionLog::getReferenceCode).containsExactly("ref-b");
+        assertThat(replayed.getValue().get(0).getAmount()).isEqualTo(Money.parse("12.34"));
+        assertThat(LedgerJournal.readAll(journalDirectory)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStart_NetsJournalsOfAllShardsAndDeadLettersCommittedCodes() throws Exception {
+        // Shard 0's file is read first, but its transfer spends the credit journaled by shard 1
+        try (LedgerJournal journal = new LedgerJournal(journalDirectory, 0, 1024, false)) {
+            journal.append(List.of(journalEntry(202L, "ref-spend", 2L, 3L)));
+        }
+        try (LedgerJournal journal = new LedgerJournal(journalDirectory, 1, 1024, false)) {
+            journal.append(List.of(journalEntry(201L, "ref-fund", 1L, 2L), journalEntry(203L, "ref-taken", 1L, 4L)));
+        }
+        when(transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(any(), any()))
+                .thenReturn(List.of(journalEntry(99L, "ref-taken", 1L, 4L)));
+
+        engine = newEngine();
+
+        ArgumentCaptor<Map<Long, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(batchRepository).applyBalanceDeltas(deltas.capture(), any());
+        assertThat(deltas.getValue()).containsEntry(1L, -2468L).doesNotContainKey(2L).containsEntry(3L, 1234L)
+                .containsEntry(4L, 1234L);
+        assertThat(persisted).extracting(TransactionLog::getReferenceCode).containsExactlyInAnyOrder("ref-spend", "ref-fund");
+        assertThat(LedgerJournal.readAll(journalDirectory.resolve("dead-letter")))
+                .extracting(TransactionLog::getReferenceCode).containsExactly("ref-taken");
+    }
+
+    private boolean writeBehindCaughtUp(int transfers) {
+        if (persisted.size() < transfers) {
+            return false;
+        }
+        for (long id = 1; id <= WALLETS; id++) {
+            if (engine.balance(id).compareTo(persistedBalance(id)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Money persistedBalance(long walletId) {
+        // Balance as the database sees it once the flushed log rows are applied
+        Money balance = INITIAL_BALANCE;
+        for (TransactionLog log : persisted) {
+            if (log.getSourceId() == walletId) {
+                balance = balance.minus(log.getAmount());
+            }
+            if (log.getDestinationId() == walletId) {
+                balance = balance.plus(log.getAmount());
+            }
+        }
+        return balance;
+    }
+
+    private static TransactionLog journalEntry(long id, String referenceCode) {
+        return journalEntry(id, referenceCode, 1L, 2L);
+    }
+
+    private static TransactionLog journalEntry(long id, String referenceCode, long sourceId, long destinationId) {
+        return TransactionLog.builder()
+                .id(id)
+                .sourceId(sourceId)
+                .destinationId(destinationId)
+                .amount(Money.parse("12.34"))
+                .status(TransactionLog.TransactionStatus.SUCCESS)
+                .referenceCode(referenceCode)
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransferServiceTest {
+
+    @Mock
+    private TransferService transferService;
+    @Mock
+    private WalletLockManager walletLockManager;
+    @Mock
+    private WalletLocks locks;
+
+    private AsyncTransferService asyncTransferService;
+    private TransferRequest request;
+    private final IdempotencyReservation acquired = new IdempotencyReservation(State.ACQUIRED, null);
+
+    @BeforeEach
+    void setUp() {
+        asyncTransferService = new AsyncTransferService(transferService, walletLockManager, new SimpleMeterRegistry(), 1, 1);
+        request = new TransferRequest(1L, 2L, Money.parse("10.00"), "REF-1", null);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncTransferService.stop();
+    }
+
+    @Test
+    void testTransferFundsAsync_RunsUnderPipelinedLocksAndReleasesThem() throws Exception {
+        TransferResponse response = TransferResponse.builder().transactionId(100L).build();
+        when(transferService.reserveAsync(request)).thenReturn(CompletableFuture.completedFuture(acquired));
+        when(transferService.redisLockIds(request)).thenReturn(List.of(1L, 2L));
+        when(walletLockManager.acquireAsync(List.of(1L, 2L))).thenReturn(CompletableFuture.completedFuture(locks));
+        when(transferService.transferFunds(request, acquired, locks)).thenReturn(response);
+
+        assertThat(asyncTransferService.transferFundsAsync(request).get(5, TimeUnit.SECONDS)).isSameAs(response);
+        verify(locks).close();
+    }
+
+    @Test
+    void testTransferFundsAsync_CompletedReferenceCode_AnsweredWithoutLocks() throws Exception {
+        IdempotencyReservation completed = new IdempotencyReservation(State.COMPLETED,
+                TransferResponse.builder().transactionId(100L).build());
+        TransferResponse duplicate = TransferResponse.builder().transactionId(100L).duplicate(true).build();
+        when(transferService.reserveAsync(request)).thenReturn(CompletableFuture.completedFuture(completed));
+        when(transferService.transferFunds(request, completed, null)).thenReturn(duplicate);
+
+        assertThat(asyncTransferService.transferFundsAsync(request).get(5, TimeUnit.SECONDS)).isSameAs(duplicate);
+        verify(transferService, never()).redisLockIds(any());
+        verifyNoInteractions(walletLockManager);
+    }
+
+    @Test
+    void testTransferFundsAsync_LockFailure_ReleasesReservation() {
+        when(transferService.reserveAsync(request)).thenReturn(CompletableFuture.completedFuture(acquired));
+        when(transferService.redisLockIds(request)).thenReturn(List.of(1L, 2L));
+        when(walletLockManager.acquireAsync(List.of(1L, 2L)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("lock timeout")));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> asyncTransferService.transferFundsAsync(request).get(5, TimeUnit.SECONDS));
+        assertThat(thrown.getCause()).isInstanceOf(IllegalStateException.class);
+        verify(transferService).release(request, acquired);
+        verify(transferService, never()).transferFunds(any(), any(), any());
+    }
+
+    @Test
+    void testTransferFundsAsync_ExecutorStopped_ReleasesLocks() throws Exception {
+        CompletableFuture<WalletLocks> pending = new CompletableFuture<>();
+        when(transferService.reserveAsync(request)).thenReturn(CompletableFuture.completedFuture(acquired));
+        when(transferService.redisLockIds(request)).thenReturn(List.of(1L, 2L));
+        when(walletLockManager.acquireAsync(List.of(1L, 2L))).thenReturn(pending);
+
+        CompletableFuture<TransferResponse> result = asyncTransferService.transferFundsAsync(request);
+        asyncTransferService.stop();
+        pending.complete(locks);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(thrown.getCause()).isInstanceOf(ServiceOverloadedException.class);
+        verify(locks).close();
+        verify(transferService).release(request, acquired);
+        verify(transferService, never()).transferFunds(any(), any(), any());
+    }
+
+    @Test
+    void testTransferFundsAsync_QueueFull_RejectedBeforeLocking() {
+        when(transferService.reserveAsync(any())).thenReturn(CompletableFuture.completedFuture(acquired));
+        when(transferService.redisLockIds(any())).thenReturn(List.of(1L, 2L));
+        // Both slots (one thread, one queued) are taken by transfers still waiting for their locks
+        when(walletLockManager.acquireAsync(any())).thenReturn(new CompletableFuture<>());
+        asyncTransferService.transferFundsAsync(request);
+        asyncTransferService.transferFundsAsync(request);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> asyncTransferService.transferFundsAsync(request).get(5, TimeUnit.SECONDS));
+        assertThat(thrown.getCause()).isInstanceOf(ServiceOverloadedException.class);
+        verify(walletLockManager, times(2)).acquireAsync(any());
+    }
+}
@@ -0,0 +1,249 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult.ItemStatus;
+import com.fintech.fundtransfer.application.dto.BatchTransferResponse;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyGuard;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceUpdate;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.retry.ContentionAwareRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransferServiceUnitTest {
+
+    @Mock
+    private WalletJpaRepository walletRepository;
+    @Mock
+    private TransactionLogJpaRepository transactionLogRepository;
+    @Mock
+    private TransferBatchJdbcRepository batchRepository;
+    @Mock
+    private OutboxJdbcRepository outboxRepository;
+    @Mock
+    private TransactionLogRetention transactionLogRetention;
+    @Mock
+    private WalletBalanceCache balanceCache;
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+    @Mock
+    private WalletLockManager walletLockManager;
+    @Mock
+    private DatabaseWalletLocker databaseWalletLocker;
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private WalletLocks walletLocks;
+
+    private BatchTransferService batchTransferService;
+
+    @BeforeEach
+    void setUp() {
+        batchTransferService = batchTransferService(500);
+        lenient().when(idempotencyGuard.reserveAll(anyList())).thenAnswer(invocation -> {
+            List<String> referenceCodes = invocation.getArgument(0);
+            return referenceCodes.stream().map(code -> new IdempotencyReservation(State.ACQUIRED, null)).toList();
+        });
+    }
+
+    private BatchTransferService batchTransferService(int chunkSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new BatchTransferService(walletRepository, transactionLogRepository, batchRepository,
+                outboxRepository, transactionLogRetention, balanceCache, shardedBalanceService, walletLockManager, databaseWalletLocker, idempotencyGuard, new TransactionTemplate(transactionManager),
+                new ContentionAwareRetry(meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 3, 1, 5, 10, 5), meterRegistry, chunkSize, Optional.empty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatch_ChecksBalancesInOrderAndNetsDeltas() {
+        List<TransferRequest> requests = List.of(
+                new TransferRequest(1L, 2L, Money.parse("60.00"), "ref-1"),
+                new TransferRequest(1L, 2L, Money.parse("60.00"), "ref-2"),
+                new TransferRequest(2L, 1L, Money.parse("10.00"), "ref-3"),
+                new TransferRequest(1L, 2L, Money.parse("5.00"), "ref-1"),
+                new TransferRequest(1L, 2L, Money.parse("5.00"), "ref-old"));
+
+        when(transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(anyCollection(), any()))
+                .thenReturn(List.of(TransactionLog.builder().id(7L).referenceCode("ref-old").build()));
+        when(walletLockManager.acquire(anyCollection())).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L, 2L, 3L)));
+        when(walletRepository.findAllById(any())).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.parse("100.00")).version(4L).build(),
+                Wallet.builder().id(2L).balance(Money.parse("0.00")).version(1L).build()));
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(
+                1L, new WalletBalanceUpdate(1L, 5000L, 5L),
+                2L, new WalletBalanceUpdate(2L, 5000L, 2L)));
+        when(transactionLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TransactionLog> logs = invocation.getArgument(0);
+            logs.forEach(log -> log.setId(10L + Long.parseLong(log.getReferenceCode().substring(4))));
+            return logs;
+        });
+
+        BatchTransferResponse response = batchTransferService.transferBatch(requests);
+
+        assertThat(response.getResults()).extracting("status").containsExactly(
+                ItemStatus.SUCCESS, ItemStatus.FAILED, ItemStatus.SUCCESS, ItemStatus.FAILED, ItemStatus.DUPLICATE);
+        assertThat(response.getResults().get(0).getTransactionId()).isEqualTo(11L);
+        assertThat(response.getResults().get(0).getSourceWalletVersion()).isEqualTo(5L);
+        assertThat(response.getResults().get(1).getErrorCode()).isEqualTo("INSUFFICIENT_BALANCE");
+        assertThat(response.getResults().get(3).getErrorCode()).isEqualTo("DUPLICATE_TRANSACTION");
+        assertThat(response.getResults().get(4).getTransactionId()).isEqualTo(7L);
+        assertThat(response.getSucceeded()).isEqualTo(2);
+
+        ArgumentCaptor<Map<Long, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(batchRepository).applyBalanceDeltas(deltas.capture(), eq(Map.of(1L, 7L, 2L, 3L)));
+        assertThat(deltas.getValue().get(1L)).isEqualTo(-5000L);
+        assertThat(deltas.getValue().get(2L)).isEqualTo(5000L);
+        verify(walletLockManager, times(1)).acquire(anyCollection());
+        verify(walletLocks).close();
+    }
+
+    @Test
+    void testTransferBatch_DebitsShardedSourceThroughItsShards() {
+        // Hot wallet 1: its wallets row is emptied by sharding, the shards hold the funds
+        when(shardedBalanceService.isSharded(2L)).thenReturn(false);
+        when(transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(anyCollection(), any()))
+                .thenReturn(List.of());
+        when(walletLockManager.acquire(anyCollection())).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(FencingTokens.NONE);
+        when(walletRepository.findAllById(any())).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.ZERO).version(4L).balanceShards(8).build(),
+                Wallet.builder().id(2L).balance(Money.ZERO).version(1L).build()));
+        when(shardedBalanceService.balance(1L)).thenReturn(Money.parse("100.00"));
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(2L, new WalletBalanceUpdate(2L, 9000L, 3L)));
+        when(transactionLogRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(
+                new TransferRequest(1L, 2L, Money.parse("60.00"), "ref-1"),
+                new TransferRequest(1L, 2L, Money.parse("30.00"), "ref-2"),
+                new TransferRequest(1L, 2L, Money.parse("30.00"), "ref-3")));
+
+        assertThat(response.getResults()).extracting("status")
+                .containsExactly(ItemStatus.SUCCESS, ItemStatus.SUCCESS, ItemStatus.FAILED);
+        assertThat(response.getResults().get(1).getSourceWalletBalanceAfter()).isEqualTo(Money.parse("10.00"));
+        assertThat(response.getResults().get(1).getSourceWalletVersion()).isNull();
+        verify(batchRepository).applyBalanceDeltas(eq(Map.of(2L, 9000L)), any());
+        verify(shardedBalanceService).apply(Map.of(1L, -9000L));
+    }
+
+    @Test
+    void testTransferBatch_FailedChunkFailsOnlyItsItems() {
+        when(transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(anyCollection(), any()))
+                .thenReturn(List.of());
+        when(walletLockManager.acquire(anyCollection()))
+                .thenThrow(new LockAcquisitionException("Wallet 1 is busy"))
+                .thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(FencingTokens.NONE);
+        when(walletRepository.findAllById(any())).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.parse("100.00")).version(4L).build(),
+                Wallet.builder().id(2L).balance(Money.parse("0.00")).version(1L).build()));
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(
+                1L, new WalletBalanceUpdate(1L, 9000L, 5L),
+                2L, new WalletBalanceUpdate(2L, 1000L, 2L)));
+        // The third reference code is committed by a concurrent single transfer in the meantime
+        when(transactionLogRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        BatchTransferResponse response = batchTransferService(1).transferBatch(List.of(
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-1"),
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-2"),
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-3")));
+
+        assertThat(response.getResults()).extracting("status")
+                .containsExactly(ItemStatus.FAILED, ItemStatus.SUCCESS, ItemStatus.FAILED);
+        assertThat(response.getResults()).extracting("errorCode")
+                .containsExactly("LOCK_ACQUISITION_FAILED", null, "DUPLICATE_TRANSACTION");
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    void testTransferBatch_ConcurrentlyCommittedCodeFailsOnlyItsItem() {
+        when(transactionLogRepository.findByReferenceCodeInAndCreatedAtGreaterThanEqual(anyCollection(), any()))
+                .thenReturn(List.of());
+        when(walletLockManager.acquire(anyCollection())).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(FencingTokens.NONE);
+        when(walletRepository.findAllById(any())).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.parse("100.00")).version(4L).build(),
+                Wallet.builder().id(2L).balance(Money.parse("0.00")).version(1L).build()));
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(
+                1L, new WalletBalanceUpdate(1L, 9000L, 5L),
+                2L, new WalletBalanceUpdate(2L, 1000L, 2L)));
+        // ref-2 was committed by a transfer the Redis reservation did not cover: every transaction holding it rolls back
+        when(transactionLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TransactionLog> logs = invocation.getArgument(0);
+            if (logs.stream().anyMatch(log -> log.getReferenceCode().equals("ref-2"))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            logs.forEach(log -> log.setId(10L + Long.parseLong(log.getReferenceCode().substring(4))));
+            return logs;
+        });
+
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-1"),
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-2"),
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-3")));
+
+        assertThat(response.getResults()).extracting("status")
+                .containsExactly(ItemStatus.SUCCESS, ItemStatus.FAILED, ItemStatus.SUCCESS);
+        assertThat(response.getResults().get(1).getErrorCode()).isEqualTo("DUPLICATE_TRANSACTION");
+        verify(idempotencyGuard).complete(eq("ref-1"), any());
+        verify(idempotencyGuard).complete(eq("ref-3"), any());
+        verify(idempotencyGuard).release("ref-2");
+    }
+
+    @Test
+    void testTransferBatch_AnswersCompletedAndInFlightCodesFromTheIdempotencyTier() {
+        when(idempotencyGuard.reserveAll(List.of("ref-done", "ref-busy"))).thenReturn(List.of(
+                new IdempotencyReservation(State.COMPLETED, TransferResponse.builder().transactionId(42L).build()),
+                new IdempotencyReservation(State.IN_FLIGHT, null)));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-done"),
+                new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-busy")));
+
+        assertThat(response.getResults()).extracting("status").containsExactly(ItemStatus.DUPLICATE, ItemStatus.FAILED);
+        assertThat(response.getResults().get(0).getTransactionId()).isEqualTo(42L);
+        assertThat(response.getResults().get(1).getErrorCode()).isEqualTo("DUPLICATE_TRANSACTION");
+        verifyNoInteractions(transactionLogRepository, walletLockManager);
+        verify(idempotencyGuard, never()).release(any());
+    }
+}
@@ -0,0 +1,165 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.TransferLeg;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.TransactionLog;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferBatchJdbcRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceUpdate;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultiLegTransferServiceTest {
+
+    @Mock
+    private WalletJpaRepository walletRepository;
+    @Mock
+    private TransactionLogJpaRepository transactionLogRepository;
+    @Mock
+    private TransferBatchJdbcRepository batchRepository;
+    @Mock
+    private OutboxJdbcRepository outboxRepository;
+    @Mock
+    private WalletLockManager walletLockManager;
+    @Mock
+    private WalletBalanceCache balanceCache;
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+
+    private MultiLegTransferService multiLegTransferService;
+
+    @BeforeEach
+    void setUp() {
+        multiLegTransferService = new MultiLegTransferService(walletRepository, transactionLogRepository,
+                batchRepository, outboxRepository, walletLockManager, balanceCache, shardedBalanceService, 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExecute_NetsLegsIntoOneUpdatePerWalletAndLogsEveryLeg() {
+        TransferRequest request = split(leg(3L, "30.00"), leg(2L, "20.00"), leg(3L, "5.00"));
+        List<Long> walletIds = multiLegTransferService.walletIds(request);
+
+        when(walletRepository.findAllById(walletIds)).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.parse("100.00")).version(4L).build(),
+                Wallet.builder().id(2L).balance(Money.parse("0.00")).version(1L).build(),
+                Wallet.builder().id(3L).balance(Money.parse("0.00")).version(1L).build()));
+        // A credit of 1.00 to the source committed between the read and the UPDATE by a writer without our locks
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(
+                1L, new WalletBalanceUpdate(1L, 4600L, 6L),
+                2L, new WalletBalanceUpdate(2L, 2000L, 2L),
+                3L, new WalletBalanceUpdate(3L, 3500L, 2L)));
+        when(transactionLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TransactionLog> logs = invocation.getArgument(0);
+            logs.forEach(log -> log.setId(50L + log.getLeg()));
+            return logs;
+        });
+
+        TransferResponse response = multiLegTransferService.execute(request, walletIds, new FencingTokens(Map.of(1L, 9L)));
+
+        assertThat(walletIds).containsExactly(1L, 2L, 3L);
+        ArgumentCaptor<Map<Long, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(batchRepository).applyBalanceDeltas(deltas.capture(), eq(Map.of(1L, 9L)));
+        assertThat(deltas.getValue()).hasSize(3);
+        assertThat(deltas.getValue().get(1L)).isEqualTo(-5500L);
+        assertThat(deltas.getValue().get(3L)).isEqualTo(3500L);
+
+        assertThat(response.getTransactionId()).isEqualTo(50L);
+        assertThat(response.getSourceWalletBalanceAfter()).isEqualTo(Money.parse("46.00"));
+        assertThat(response.getSourceWalletVersion()).isEqualTo(6L);
+        ArgumentCaptor<List<WalletBalanceResponse>> cached = ArgumentCaptor.forClass(List.class);
+        verify(balanceCache).putAfterCommit(cached.capture());
+        assertThat(cached.getValue()).contains(new WalletBalanceResponse(1L, Money.parse("46.00"), 6L));
+        assertThat(response.getLegs()).extracting("leg").containsExactly(0, 1, 2);
+        assertThat(response.getLegs()).extracting("transactionId").containsExactly(50L, 51L, 52L);
+        verify(outboxRepository).append(anyList());
+    }
+
+    @Test
+    void testExecute_RejectsSplitAboveSourceBalanceBeforeWriting() {
+        TransferRequest request = split(leg(2L, "60.00"), leg(3L, "60.00"));
+        List<Long> walletIds = multiLegTransferService.walletIds(request);
+        when(walletRepository.findAllById(walletIds)).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.parse("100.00")).build(),
+                Wallet.builder().id(2L).balance(Money.ZERO).build(),
+                Wallet.builder().id(3L).balance(Money.ZERO).build()));
+
+        assertThatThrownBy(() -> multiLegTransferService.execute(request, walletIds, FencingTokens.NONE))
+                .isInstanceOf(InsufficientBalanceException.class);
+        verifyNoInteractions(batchRepository, outboxRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExecute_PaysOutFromShardedSourceThroughItsShards() {
+        // Hot payout wallet 1: its wallets row is emptied by sharding, the shards hold the funds; wallet 3 is sharded too
+        when(shardedBalanceService.isSharded(2L)).thenReturn(false);
+        when(shardedBalanceService.isSharded(3L)).thenReturn(true);
+        TransferRequest request = split(leg(2L, "20.00"), leg(3L, "30.00"));
+        List<Long> walletIds = multiLegTransferService.walletIds(request);
+        when(walletRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                Wallet.builder().id(1L).balance(Money.ZERO).version(4L).balanceShards(8).build(),
+                Wallet.builder().id(2L).balance(Money.ZERO).version(1L).build(),
+                Wallet.builder().id(3L).balance(Money.ZERO).version(1L).balanceShards(8).build()));
+        when(shardedBalanceService.balance(1L)).thenReturn(Money.parse("100.00"));
+        when(batchRepository.applyBalanceDeltas(any(), any())).thenReturn(Map.of(2L, new WalletBalanceUpdate(2L, 2000L, 2L)));
+        when(shardedBalanceService.apply(any())).thenReturn(Map.of(1L, Money.parse("50.00")));
+        when(transactionLogRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResponse response = multiLegTransferService.execute(request, walletIds, FencingTokens.NONE);
+
+        // The sharded destination is credited without its lock
+        assertThat(walletIds).containsExactly(1L, 2L);
+        verify(batchRepository).applyBalanceDeltas(eq(Map.of(2L, 2000L)), any());
+        ArgumentCaptor<Map<Long, Long>> shardDeltas = ArgumentCaptor.forClass(Map.class);
+        verify(shardedBalanceService).apply(shardDeltas.capture());
+        assertThat(shardDeltas.getValue()).isEqualTo(Map.of(1L, -5000L, 3L, 3000L));
+        assertThat(response.getSourceWalletBalanceAfter()).isEqualTo(Money.parse("50.00"));
+        assertThat(response.getSourceWalletVersion()).isNull();
+    }
+
+    @Test
+    void testWalletIds_RejectsInvalidLegs() {
+        assertThatThrownBy(() -> multiLegTransferService.walletIds(split(leg(2L, "0.00"))))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> multiLegTransferService.walletIds(
+                split(leg(2L, "1.00"), leg(3L, "1.00"), leg(4L, "1.00"), leg(5L, "1.00"))))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> multiLegTransferService.walletIds(
+                new TransferRequest(1L, 2L, Money.parse("1.00"), "ref-1", List.of(leg(3L, "1.00")))))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private static TransferRequest split(TransferLeg... legs) {
+        return TransferRequest.builder().sourceWalletId(1L).referenceCode("payout-1").legs(List.of(legs)).build();
+    }
+
+    private static TransferLeg leg(Long destinationWalletId, String amount) {
+        return new TransferLeg(destinationWalletId, Money.parse(amount));
+    }
+}
@@ -0,0 +1,77 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogPartitionJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionLogRetentionTest {
+
+    @Mock
+    private TransactionLogPartitionJdbcRepository partitionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionLogRetention retention;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retention = new TransactionLogRetention(partitionRepository, new TransactionTemplate(transactionManager),
+                meterRegistry, 3, 7, 90, 100);
+    }
+
+    @Test
+    void testMaintain_CreatesMissingDaysArchivesExpiredAndReleasesCodes() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(partitionRepository.findPartitionDays()).thenReturn(List.of(today.minusDays(91), today.minusDays(90), today, today.plusDays(1)));
+        when(partitionRepository.tryMaintenanceLock()).thenReturn(true);
+        when(partitionRepository.archivePartition(today.minusDays(91))).thenReturn(42);
+        when(partitionRepository.deleteReferenceCodesBefore(any(), anyInt())).thenReturn(100, 7);
+
+        retention.maintain();
+
+        verify(partitionRepository).createPartition(today.plusDays(2));
+        verify(partitionRepository).createPartition(today.plusDays(3));
+        verify(partitionRepository, times(2)).createPartition(any());
+        // Day 90 still has rows inside the retention period
+        verify(partitionRepository, times(1)).archivePartition(any());
+        verify(partitionRepository, times(2)).deleteReferenceCodesBefore(any(), eq(100));
+        assertThat(meterRegistry.get("fund_transfer.transaction_log.archived_rows").counter().count()).isEqualTo(42);
+        assertThat(meterRegistry.get("fund_transfer.transaction_log.released_reference_codes").counter().count()).isEqualTo(107);
+    }
+
+    @Test
+    void testMaintain_SkipsStepsHeldByAnotherPod() {
+        when(partitionRepository.findPartitionDays()).thenReturn(List.of());
+        when(partitionRepository.tryMaintenanceLock()).thenReturn(false);
+
+        retention.maintain();
+
+        verify(partitionRepository, never()).createPartition(any());
+        verify(partitionRepository, never()).deleteReferenceCodesBefore(any(), anyInt());
+    }
+
+    @Test
+    void testConstructor_RejectsRetentionInsideIdempotencyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionLogRetention(partitionRepository,
+                new TransactionTemplate(transactionManager), meterRegistry, 3, 30, 30, 100));
+    }
+}
@@ -0,0 +1,127 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult;
+import com.fintech.fundtransfer.application.dto.BatchTransferItemResult.ItemStatus;
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferCoalescerTest {
+
+    @Mock
+    private BatchTransferService batchTransferService;
+    @Mock
+    private WalletJpaRepository walletRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new TransferCoalescer(batchTransferService, walletRepository, meterRegistry, 50, 200, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_CommitsTransfersFromOneWalletAsOneGroup() throws Exception {
+        when(batchTransferService.transferGroup(anyList())).thenReturn(List.of(
+                success("ref-1", 11L, "40.00"),
+                BatchTransferItemResult.builder().referenceCode("ref-2").status(ItemStatus.FAILED)
+                        .errorCode("INSUFFICIENT_BALANCE").message("Insufficient balance in wallet: 1").build(),
+                success("ref-3", 13L, "30.00")));
+
+        CompletableFuture<TransferResponse> first = coalescer.submit(new TransferRequest(1L, 2L, Money.parse("60.00"), "ref-1"));
+        CompletableFuture<TransferResponse> second = coalescer.submit(new TransferRequest(1L, 3L, Money.parse("60.00"), "ref-2"));
+        CompletableFuture<TransferResponse> third = coalescer.submit(new TransferRequest(1L, 4L, Money.parse("10.00"), "ref-3"));
+
+        assertThat(first.get().getTransactionId()).isEqualTo(11L);
+        ExecutionException failure = assertThrows(ExecutionException.class, second::get);
+        assertThat(failure.getCause()).isInstanceOf(InsufficientBalanceException.class);
+        assertThat(third.get().getSourceWalletBalanceAfter()).isEqualTo(Money.parse("30.00"));
+
+        ArgumentCaptor<List<TransferRequest>> group = ArgumentCaptor.forClass(List.class);
+        verify(batchTransferService, times(1)).transferGroup(group.capture());
+        assertThat(group.getValue()).extracting(TransferRequest::getReferenceCode).containsExactly("ref-1", "ref-2", "ref-3");
+        assertThat(meterRegistry.get("fund_transfer.coalescing.group_size").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void testTransfer_GroupFailureReachesEveryCaller() {
+        when(batchTransferService.transferGroup(anyList())).thenThrow(new LockAcquisitionException("Wallets 1 are busy"));
+
+        assertThrows(LockAcquisitionException.class,
+                () -> coalescer.transfer(new TransferRequest(1L, 2L, Money.parse("5.00"), "ref-9")));
+    }
+
+    @Test
+    void testSubmit_GroupFailureFailsOnlyTheOffendingTransfer() throws Exception {
+        // ref-2 was committed by another pod: any group containing it violates the unique constraint
+        when(batchTransferService.transferGroup(anyList())).thenAnswer(invocation -> {
+            List<TransferRequest> group = invocation.getArgument(0);
+            if (group.stream().anyMatch(request -> request.getReferenceCode().equals("ref-2"))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return group.stream()
+                    .map(request -> success(request.getReferenceCode(), 10L + group.indexOf(request), "50.00"))
+                    .toList();
+        });
+
+        CompletableFuture<TransferResponse> first = coalescer.submit(new TransferRequest(1L, 2L, Money.parse("5.00"), "ref-1"));
+        CompletableFuture<TransferResponse> second = coalescer.submit(new TransferRequest(1L, 3L, Money.parse("5.00"), "ref-2"));
+        CompletableFuture<TransferResponse> third = coalescer.submit(new TransferRequest(1L, 4L, Money.parse("5.00"), "ref-3"));
+
+        assertThat(first.get().getReferenceCode()).isEqualTo("ref-1");
+        ExecutionException failure = assertThrows(ExecutionException.class, second::get);
+        assertThat(failure.getCause()).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(third.get().getReferenceCode()).isEqualTo("ref-3");
+        assertThat(meterRegistry.get("fund_transfer.coalescing.group_size").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTransfer_InvalidItemIsABadRequest() {
+        when(batchTransferService.transferGroup(anyList())).thenReturn(List.of(
+                BatchTransferItemResult.builder().referenceCode("ref-4").status(ItemStatus.FAILED)
+                        .errorCode("INVALID_REQUEST").message("Missing wallet, amount or reference code").build()));
+
+        assertThrows(InvalidRequestException.class,
+                () -> coalescer.transfer(new TransferRequest(1L, 2L, Money.parse("-5.00"), "ref-4")));
+    }
+
+    private static BatchTransferItemResult success(String referenceCode, Long transactionId, String balanceAfter) {
+        return BatchTransferItemResult.builder()
+                .referenceCode(referenceCode)
+                .status(ItemStatus.SUCCESS)
+                .transactionId(transactionId)
+                .sourceWalletBalanceAfter(Money.parse(balanceAfter))
+                .build();
+    }
+}
@@ -2,32 +2,53 @@ package com.fintech.fundtransfer.application.service;
 
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
 import com.fintech.fundtransfer.domain.exception.BaseException;
+import com.fintech.fundtransfer.domain.exception.DuplicateTransactionException;
 import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.model.Money;
 import com.fintech.fundtransfer.domain.model.TransactionLog;
-import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyGuard;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation;
+import com.fintech.fundtransfer.infrastructure.idempotency.IdempotencyReservation.State;
+import com.fintech.fundtransfer.infrastructure.lock.DatabaseWalletLocker;
+import com.fintech.fundtransfer.infrastructure.lock.FencingTokens;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLockManager;
+import com.fintech.fundtransfer.infrastructure.lock.WalletLocks;
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.metrics.TransferMetrics;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
 import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.TransferSnapshot;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceRow;
 import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletTransferResult;
+import com.fintech.fundtransfer.infrastructure.retry.ContentionAwareRetry;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,57 +59,257 @@ class TransferServiceUnitTest {
     @Mock
     private TransactionLogJpaRepository transactionLogRepository;
     @Mock
-    private RedissonClient redissonClient;
+    private OutboxJdbcRepository outboxRepository;
+    @Mock
+    private WalletLockManager walletLockManager;
+    @Mock
+    private DatabaseWalletLocker databaseWalletLocker;
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+    @Mock
+    private MultiLegTransferService multiLegTransferService;
+    @Mock
+    private TransactionLogRetention transactionLogRetention;
+    @Mock
+    private WalletBalanceCache balanceCache;
     
     private MeterRegistry meterRegistry;
 
     private TransferService transferService;
 
     @Mock
-    private RLock lock1;
-    @Mock
-    private RLock lock2;
+    private WalletLocks walletLocks;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        transferService = new TransferService(walletRepository, transactionLogRepository, redissonClient, meterRegistry);
+        transferService = new TransferService(walletRepository, transactionLogRepository, outboxRepository,
+                walletLockManager, databaseWalletLocker, idempotencyGuard, new TransactionTemplate(transactionManager),
+                new ContentionAwareRetry(meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 3, 1, 5, 10, 5),
+                meterRegistry, new TransferMetrics(meterRegistry, Optional.empty()), shardedBalanceService,
+                multiLegTransferService, transactionLogRetention, balanceCache, Optional.empty(), Optional.empty());
     }
 
     @Test
     void testTransferFunds_IdempotencySuccess() {
-        TransferRequest request = new TransferRequest(1L, 2L, new BigDecimal("100.00"), "ref-1");
-        TransactionLog tx = TransactionLog.builder().id(100L).referenceCode("ref-1").build();
-        when(transactionLogRepository.findByReferenceCode("ref-1")).thenReturn(Optional.of(tx));
-        when(walletRepository.findById(1L)).thenReturn(Optional.of(Wallet.builder().id(1L).balance(new BigDecimal("500.00")).build()));
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-1");
+        TransferSnapshot tx = mock(TransferSnapshot.class);
+        when(tx.getTransactionId()).thenReturn(100L);
+        when(tx.getReferenceCode()).thenReturn("ref-1");
+        when(tx.getSourceBalance()).thenReturn(50000L);
+        when(idempotencyGuard.reserve("ref-1")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        when(idempotencyGuard.mightHaveCompleted("ref-1")).thenReturn(true);
+        when(transactionLogRepository.findSnapshotByReferenceCode(eq("ref-1"), any())).thenReturn(Optional.of(tx));
 
         TransferResponse response = transferService.transferFunds(request);
 
         assertNotNull(response);
         assertEquals(100L, response.getTransactionId());
-        verify(walletRepository, never()).decrementBalance(anyLong(), any());
+        verifyNoInteractions(walletRepository);
+        verify(idempotencyGuard).complete(eq("ref-1"), any());
     }
 
     @Test
-    void testTransferFunds_InsufficientBalance_ThrowsException() throws InterruptedException {
-        TransferRequest request = new TransferRequest(1L, 2L, new BigDecimal("1000.00"), "ref-2");
-        
-        when(transactionLogRepository.findByReferenceCode(anyString())).thenReturn(Optional.empty());
-        when(redissonClient.getLock(anyString())).thenReturn(lock1).thenReturn(lock2);
-        when(lock1.tryLock(anyLong(), anyLong(), any())).thenReturn(true);
-        when(lock2.tryLock(anyLong(), anyLong(), any())).thenReturn(true);
-        when(lock1.isHeldByCurrentThread()).thenReturn(true);
-        when(lock2.isHeldByCurrentThread()).thenReturn(true);
-
-        when(walletRepository.findById(1L)).thenReturn(Optional.of(Wallet.builder().id(1L).balance(new BigDecimal("100.00")).build()));
-        when(walletRepository.findById(2L)).thenReturn(Optional.of(Wallet.builder().id(2L).balance(new BigDecimal("50.00")).build()));
+    void testTransferFunds_CompletedReservation_AnsweredWithoutDatabase() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-3");
+        TransferResponse original = TransferResponse.builder()
+                .transactionId(300L)
+                .referenceCode("ref-3")
+                .sourceWalletBalanceAfter(Money.parse("400.00"))
+                .message("Transfer successful")
+                .build();
+        when(idempotencyGuard.reserve("ref-3")).thenReturn(new IdempotencyReservation(State.COMPLETED, original));
+
+        TransferResponse response = transferService.transferFunds(request);
+
+        assertEquals(300L, response.getTransactionId());
+        verifyNoInteractions(transactionLogRepository, walletRepository, walletLockManager);
+    }
+
+    @Test
+    void testTransferFunds_InvalidRequest_RejectedBeforeReservation() {
+        assertThrows(InvalidRequestException.class,
+                () -> transferService.transferFunds(new TransferRequest(1L, null, Money.parse("100.00"), "ref-5")));
+        assertThrows(InvalidRequestException.class,
+                () -> transferService.transferFunds(new TransferRequest(1L, 2L, Money.ZERO, "ref-5")));
+        assertThrows(InvalidRequestException.class,
+                () -> transferService.transferFunds(new TransferRequest(1L, 2L, Money.parse("100.00"), " ")));
+        verifyNoInteractions(idempotencyGuard, walletLockManager, walletRepository);
+    }
+
+    @Test
+    void testTransferFunds_InFlightDuplicate_Rejected() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-4");
+        when(idempotencyGuard.reserve("ref-4")).thenReturn(new IdempotencyReservation(State.IN_FLIGHT, null));
+
+        assertThrows(DuplicateTransactionException.class, () -> transferService.transferFunds(request));
+        verifyNoInteractions(walletLockManager);
+    }
+
+    @Test
+    void testTransferFunds_InsufficientBalance_ThrowsException() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("1000.00"), "ref-2");
         
-        // Layer 3 check fails
-        when(walletRepository.decrementBalance(anyLong(), any())).thenReturn(0);
+        when(idempotencyGuard.reserve("ref-2")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        when(walletLockManager.acquire(List.of(1L, 2L))).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L, 2L, 3L)));
+
+        // Layer 3 check fails: both wallets exist but nothing was debited
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.getSourceExists()).thenReturn(true);
+        when(result.getDestinationExists()).thenReturn(true);
+        when(walletRepository.transfer(1L, 2L, 100000L, 7L, 3L)).thenReturn(result);
 
         assertThrows(InsufficientBalanceException.class, () -> transferService.transferFunds(request));
         
-        verify(lock1).unlock();
-        verify(lock2).unlock();
+        // The locks were not taken over: the rejection is a business failure
+        verify(walletLockManager).checkFencing(eq(new FencingTokens(Map.of(1L, 7L, 2L, 3L))), any());
+        verify(walletLocks).close();
+        verify(idempotencyGuard).release("ref-2");
+        verify(transactionLogRepository, never()).findSnapshotByReferenceCode(anyString(), any());
+        verify(transactionLogRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("fund_transfer.transaction_duration").tag("outcome", "insufficient").timer().count());
+        assertEquals(1, meterRegistry.get("fund_transfer.phase_duration").tags("phase", "db_transfer", "outcome", "insufficient").timer().count());
+    }
+
+    @Test
+    void testTransferFunds_FencedCredit_RollsBackDebit() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("10.00"), "ref-7");
+        when(idempotencyGuard.reserve("ref-7")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        when(walletLockManager.acquire(List.of(1L, 2L))).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L, 2L, 3L)));
+
+        // Debit applied, credit rejected because wallet 2 was written by a newer lock holder
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.isApplied()).thenReturn(true);
+        when(result.getDestinationVersion()).thenReturn(null);
+        when(walletRepository.transfer(1L, 2L, 1000L, 7L, 3L)).thenReturn(result);
+
+        assertThrows(LockAcquisitionException.class, () -> transferService.transferFunds(request));
+
+        verify(walletLockManager).checkFencing(eq(new FencingTokens(Map.of(1L, 7L, 2L, 3L))), any());
+        verify(transactionLogRepository, never()).save(any());
+        verify(balanceCache, never()).putAfterCommit(any());
+        verify(idempotencyGuard).release("ref-7");
+        assertEquals(1, meterRegistry.get("fund_transfer.transaction_duration").tag("outcome", "lock_timeout").timer().count());
+    }
+
+    @Test
+    void testTransferFunds_HotDestination_LocksSourceOnlyAndCreditsShard() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-5");
+        when(idempotencyGuard.reserve("ref-5")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        when(shardedBalanceService.isSharded(1L)).thenReturn(false);
+        when(shardedBalanceService.isSharded(2L)).thenReturn(true);
+        when(walletLockManager.acquire(List.of(1L))).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L)));
+
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.isApplied()).thenReturn(true);
+        when(result.getSourceBalanceAfter()).thenReturn(40000L);
+        when(walletRepository.debit(1L, 10000L, 7L)).thenReturn(result);
+        when(transactionLogRepository.save(any())).thenAnswer(invocation -> {
+            TransactionLog saved = invocation.getArgument(0);
+            saved.setId(500L);
+            return saved;
+        });
+
+        TransferResponse response = transferService.transferFunds(request);
+
+        assertEquals(500L, response.getTransactionId());
+        assertEquals(Money.parse("400.00"), response.getSourceWalletBalanceAfter());
+        verify(shardedBalanceService).credit(2L, Money.parse("100.00"));
+        verify(outboxRepository).append(argThat(logs -> logs.size() == 1 && logs.get(0).getId() == 500L));
+        verify(walletRepository, never()).credit(any(), anyLong(), anyLong());
+        verify(walletRepository, never()).transfer(any(), any(), anyLong(), anyLong(), anyLong());
+        verify(walletLocks).close();
+    }
+
+    @Test
+    void testTransferFunds_SourceShardedByAnotherPod_DebitsThroughShardsAfterRefresh() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-8");
+        when(idempotencyGuard.reserve("ref-8")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        // Not sharded in this pod's map until the refresh
+        when(shardedBalanceService.isSharded(1L)).thenReturn(false, true);
+        when(walletLockManager.acquire(List.of(1L, 2L))).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L, 2L, 3L)));
+
+        // The emptied wallets row rejects the debit
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.getSourceExists()).thenReturn(true);
+        when(result.getDestinationExists()).thenReturn(true);
+        when(result.getSourceSharded()).thenReturn(true);
+        when(walletRepository.transfer(1L, 2L, 10000L, 7L, 3L)).thenReturn(result);
+        when(shardedBalanceService.debit(1L, Money.parse("100.00"))).thenReturn(Money.parse("900.00"));
+        WalletBalanceRow credited = mock(WalletBalanceRow.class);
+        when(credited.getBalance()).thenReturn(20000L);
+        when(credited.getVersion()).thenReturn(4L);
+        when(walletRepository.credit(2L, 10000L, 3L)).thenReturn(Optional.of(credited));
+        when(transactionLogRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResponse response = transferService.transferFunds(request);
+
+        assertEquals(Money.parse("900.00"), response.getSourceWalletBalanceAfter());
+        verify(shardedBalanceService).refresh();
+        verify(walletLockManager).checkFencing(eq(new FencingTokens(Map.of(1L, 7L, 2L, 3L))), any());
+        verify(walletLockManager).acquire(List.of(1L, 2L));
+        verify(idempotencyGuard).complete(eq("ref-8"), any());
+        assertEquals(1, meterRegistry.counter("fund_transfer.stale_shard_routes").count());
+    }
+
+    @Test
+    void testTransferFunds_PreAcquiredLocksOfAnotherRoute_ReleasedBeforeAcquiring() {
+        TransferRequest request = new TransferRequest(1L, 2L, Money.parse("100.00"), "ref-9");
+        // Taken for both wallets; the destination has been sharded since, so the route locks the source only
+        WalletLocks preAcquired = mock(WalletLocks.class);
+        when(preAcquired.getWalletIds()).thenReturn(List.of(1L, 2L));
+        when(shardedBalanceService.isSharded(2L)).thenReturn(true);
+        when(walletLockManager.acquire(List.of(1L))).thenReturn(walletLocks);
+        when(walletLocks.getFencingTokens()).thenReturn(new FencingTokens(Map.of(1L, 7L)));
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.isApplied()).thenReturn(true);
+        when(result.getSourceBalanceAfter()).thenReturn(40000L);
+        when(walletRepository.debit(1L, 10000L, 7L)).thenReturn(result);
+        when(transactionLogRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        transferService.transferFunds(request, new IdempotencyReservation(State.ACQUIRED, null), preAcquired);
+
+        InOrder inOrder = inOrder(preAcquired, walletLockManager);
+        inOrder.verify(preAcquired).close();
+        inOrder.verify(walletLockManager).acquire(List.of(1L));
+        verify(idempotencyGuard, never()).reserve(any());
+        verify(idempotencyGuard).complete(eq("ref-9"), any());
+    }
+
+    @Test
+    void testTransferFunds_DatabaseLockMode_LocksRowsAndCachesCommittedBalances() {
+        TransferRequest request = new TransferRequest(2L, 1L, Money.parse("10.00"), "ref-6");
+        when(idempotencyGuard.reserve("ref-6")).thenReturn(new IdempotencyReservation(State.ACQUIRED, null));
+        when(databaseWalletLocker.isActive()).thenReturn(true);
+
+        WalletTransferResult result = mock(WalletTransferResult.class);
+        when(result.isApplied()).thenReturn(true);
+        when(result.getSourceBalanceAfter()).thenReturn(9000L);
+        when(result.getSourceVersion()).thenReturn(8L);
+        when(result.getDestinationBalanceAfter()).thenReturn(11000L);
+        when(result.getDestinationVersion()).thenReturn(4L);
+        when(walletRepository.transfer(2L, 1L, 1000L, 0L, 0L)).thenReturn(result);
+        when(transactionLogRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResponse response = transferService.transferFunds(request);
+
+        InOrder inOrder = inOrder(databaseWalletLocker, walletRepository);
+        inOrder.verify(databaseWalletLocker).lock(List.of(2L, 1L));
+        inOrder.verify(walletRepository).transfer(2L, 1L, 1000L, 0L, 0L);
+        verifyNoInteractions(walletLockManager);
+        assertEquals(8L, response.getSourceWalletVersion());
+        assertEquals(1, meterRegistry.get("fund_transfer.transaction_duration").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("fund_transfer.phase_duration").tags("phase", "db_log", "outcome", "success").timer().count());
+        verify(balanceCache).putAfterCommit(List.of(
+                new WalletBalanceResponse(2L, Money.parse("90.00"), 8L),
+                new WalletBalanceResponse(1L, Money.parse("110.00"), 4L)));
     }
 }
@@ -0,0 +1,106 @@
+package com.fintech.fundtransfer.application.service;
+
+import com.fintech.fundtransfer.application.dto.WalletBalanceResponse;
+import com.fintech.fundtransfer.domain.exception.InvalidRequestException;
+import com.fintech.fundtransfer.domain.exception.WalletNotFoundException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.cache.WalletBalanceCache;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletBalanceRow;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletQueryServiceTest {
+
+    @Mock
+    private WalletJpaRepository walletRepository;
+    @Mock
+    private WalletBalanceCache balanceCache;
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+
+    private WalletQueryService walletQueryService;
+
+    @BeforeEach
+    void setUp() {
+        walletQueryService = new WalletQueryService(walletRepository, balanceCache, shardedBalanceService, Optional.empty(), 3);
+    }
+
+    @Test
+    void testGetBalance_CacheHit_SkipsDatabase() {
+        WalletBalanceResponse cached = new WalletBalanceResponse(1L, Money.parse("50.00"), 7L);
+        when(balanceCache.get(1L, 7L)).thenReturn(cached);
+
+        assertThat(walletQueryService.getBalance(1L, 7L)).isEqualTo(cached);
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    void testGetBalance_CacheMiss_LoadsAndCaches() {
+        when(walletRepository.findBalances(List.of(1L))).thenReturn(List.of(row(1L, "50.00", 7L, false)));
+
+        WalletBalanceResponse balance = walletQueryService.getBalance(1L, 0);
+
+        WalletBalanceResponse expected = new WalletBalanceResponse(1L, Money.parse("50.00"), 7L);
+        assertThat(balance).isEqualTo(expected);
+        verify(balanceCache).put(List.of(expected));
+    }
+
+    @Test
+    void testGetBalance_ShardedWallet_BypassesCache() {
+        when(shardedBalanceService.isSharded(1L)).thenReturn(true);
+        when(walletRepository.findBalances(List.of(1L))).thenReturn(List.of(row(1L, "500.00", 3L, true)));
+
+        WalletBalanceResponse balance = walletQueryService.getBalance(1L, 0);
+
+        assertThat(balance.getVersion()).isNull();
+        verify(balanceCache, never()).get(any(), anyLong());
+        verify(balanceCache).put(List.of());
+    }
+
+    @Test
+    void testGetBalance_UnknownWallet_Throws() {
+        when(walletRepository.findBalances(List.of(9L))).thenReturn(List.of());
+
+        assertThrows(WalletNotFoundException.class, () -> walletQueryService.getBalance(9L, 0));
+    }
+
+    @Test
+    void testGetBalances_MergesCacheAndDatabaseInRequestOrder() {
+        when(balanceCache.getAll(List.of(3L, 1L, 2L)))
+                .thenReturn(Map.of(1L, new WalletBalanceResponse(1L, Money.parse("10.00"), 1L)));
+        when(walletRepository.findBalances(List.of(3L, 2L))).thenReturn(List.of(row(3L, "30.00", 4L, false)));
+
+        List<WalletBalanceResponse> balances = walletQueryService.getBalances(List.of(3L, 1L, 2L, 3L));
+
+        // Wallet 2 does not exist
+        assertThat(balances).extracting(WalletBalanceResponse::getWalletId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void testGetBalances_RejectsTooManyIds() {
+        assertThrows(InvalidRequestException.class, () -> walletQueryService.getBalances(List.of(1L, 2L, 3L, 4L)));
+        verifyNoInteractions(balanceCache, walletRepository);
+    }
+
+    private static WalletBalanceRow row(Long id, String balance, Long version, boolean sharded) {
+        return new Row(id, Money.parse(balance).minorUnits(), version, sharded);
+    }
+
+    private record Row(Long getId, Long getBalance, Long getVersion, Boolean getSharded) implements WalletBalanceRow {
+    }
+}
@@ -0,0 +1,55 @@
+package com.fintech.fundtransfer.domain.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParse_ExactAtCurrencyScale() {
+        assertThat(Money.parse("10.5").minorUnits()).isEqualTo(1050L);
+        assertThat(Money.parse("-0.05").minorUnits()).isEqualTo(-5L);
+        assertThat(Money.parse("7").minorUnits()).isEqualTo(700L);
+        assertThat(Money.parse("1.2300").minorUnits()).isEqualTo(123L);
+        assertThat(Money.parse("1.5E+2").minorUnits()).isEqualTo(15000L);
+
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThat(Money.of(new BigDecimal("0.005"), RoundingMode.HALF_EVEN)).isEqualTo(Money.ZERO);
+    }
+
+    @Test
+    void testArithmetic_OverflowFailsInsteadOfWrapping() {
+        assertThat(Money.parse("10.00").minus(Money.parse("10.01"))).isEqualTo(Money.ofMinor(-1));
+        assertThat(Money.parse("2.50").times(3)).isEqualTo(Money.parse("7.50"));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void testToString_PlainDecimalAtScale() {
+        assertThat(Money.ofMinor(1050)).hasToString("10.50");
+        assertThat(Money.ofMinor(-5)).hasToString("-0.05");
+        assertThat(Money.ofMinor(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+        assertThat(Money.parse("12.34").toBigDecimal()).isEqualTo(new BigDecimal("12.34"));
+    }
+
+    @Test
+    void testJson_DecimalNumberRoundTrip() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.parse("0.10"))).isEqualTo("0.10");
+        assertThat(objectMapper.readValue("12.5", Money.class)).isEqualTo(Money.ofMinor(1250));
+        assertThat(objectMapper.readValue("\"3.00\"", Money.class)).isEqualTo(Money.ofMinor(300));
+
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("0.125", Money.class));
+    }
+}
@@ -0,0 +1,81 @@
+package com.fintech.fundtransfer.infrastructure.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long ONE_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquire_RejectsAtLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1000);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(ONE_MS, false);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testRelease_GrowsWithoutQueueingUnderLoad() {
+        AdaptiveConcurrencyLimit limit = fullyLoaded(10);
+
+        for (int i = 0; i < 10; i++) {
+            limit.release(ONE_MS, false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    void testRelease_ShrinksWhenLatencyShowsQueueing() {
+        AdaptiveConcurrencyLimit limit = fullyLoaded(20);
+
+        limit.release(ONE_MS, false);
+        for (int i = 1; i < 20; i++) {
+            limit.release(10 * ONE_MS, false);
+        }
+
+        assertThat(limit.limit()).isLessThan(20);
+        assertThat(limit.noLoadNanos()).isEqualTo(ONE_MS);
+    }
+
+    @Test
+    void testRelease_IgnoresLatencyWhileLightlyLoaded() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(i == 0 ? ONE_MS : 10 * ONE_MS, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void testRelease_ShrinksOnDropDownToMinimum() {
+        AdaptiveConcurrencyLimit limit = fullyLoaded(10);
+
+        limit.release(ONE_MS, true);
+        assertThat(limit.limit()).isEqualTo(9);
+
+        for (int i = 0; i < 9; i++) {
+            limit.release(ONE_MS, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    private AdaptiveConcurrencyLimit fullyLoaded(int initialLimit) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, 5, 100, 1000);
+        for (int i = 0; i < initialLimit; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        return limit;
+    }
+}
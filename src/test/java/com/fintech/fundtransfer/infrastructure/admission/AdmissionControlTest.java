@@ -0,0 +1,146 @@
+package com.fintech.fundtransfer.infrastructure.admission;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.dto.TransferResponse;
+import com.fintech.fundtransfer.application.service.ShardedBalanceService;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.domain.exception.RateLimitedException;
+import com.fintech.fundtransfer.domain.exception.ServiceOverloadedException;
+import com.fintech.fundtransfer.domain.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlTest {
+
+    private static final Supplier<TransferResponse> OK = () -> TransferResponse.builder().transactionId(1L).build();
+
+    @Mock
+    private ShardedBalanceService shardedBalanceService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testAdmit_RejectsWalletOverItsRate() {
+        AdmissionControl admissionControl = admissionControl(1, 1, 10);
+
+        assertThat(admissionControl.admit(request(1L, 2L), OK)).isEqualTo(OK.get());
+        RateLimitedException e = assertThrows(RateLimitedException.class,
+                () -> admissionControl.admit(request(1L, 3L), OK));
+
+        assertThat(e.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(meterRegistry.get("fund_transfer.admission.rejected").tag("reason", "wallet_rate").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testAdmit_RejectionOnDestinationRefundsSourceToken() {
+        AdmissionControl admissionControl = admissionControl(1, 1, 10);
+        assertThat(admissionControl.admit(request(3L, 2L), OK)).isEqualTo(OK.get());
+
+        RateLimitedException e = assertThrows(RateLimitedException.class,
+                () -> admissionControl.admit(request(1L, 2L), OK));
+
+        // Wallet 1's only token was given back when wallet 2 turned the request away
+        assertThat(e.getMessage()).endsWith("wallet: 2");
+        assertThat(admissionControl.admit(request(1L, 4L), OK)).isEqualTo(OK.get());
+    }
+
+    @Test
+    void testAdmit_DoesNotRateLimitShardedDestination() {
+        when(shardedBalanceService.isSharded(9L)).thenReturn(true);
+        AdmissionControl admissionControl = admissionControl(1, 1, 10);
+
+        assertThat(admissionControl.admit(request(1L, 9L), OK)).isEqualTo(OK.get());
+        assertThat(admissionControl.admit(request(2L, 9L), OK)).isEqualTo(OK.get());
+    }
+
+    @Test
+    void testAdmit_RejectsWhileLimitIsInUse() throws Exception {
+        AdmissionControl admissionControl = admissionControl(0, 1, 1);
+        CompletableFuture<TransferResponse> pending = new CompletableFuture<>();
+
+        CompletableFuture<TransferResponse> admitted = admissionControl.admitAsync(request(1L, 2L), () -> pending);
+        assertThrows(ServiceOverloadedException.class, () -> admissionControl.admit(request(3L, 4L), OK));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> admissionControl.admitAsync(request(3L, 4L), () -> pending).get());
+        assertThat(rejected.getCause()).isInstanceOf(ServiceOverloadedException.class);
+
+        pending.complete(OK.get());
+        assertThat(admitted.get()).isEqualTo(OK.get());
+        assertThat(admissionControl.admit(request(3L, 4L), OK)).isEqualTo(OK.get());
+        assertThat(meterRegistry.get("fund_transfer.admission.rejected").tag("reason", "concurrency").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void testAdmit_LockTimeoutLowersLimit() {
+        AdmissionControl admissionControl = admissionControl(0, 1, 10);
+
+        assertThrows(LockAcquisitionException.class, () -> admissionControl.admit(request(1L, 2L), () -> {
+            throw new LockAcquisitionException("timed out");
+        }));
+
+        assertThat(admissionControl.currentLimit()).isLessThan(10);
+    }
+
+    @Test
+    void testAdmit_ConcurrencyRejectionKeepsWalletTokens() {
+        AdmissionControl admissionControl = admissionControl(1, 1, 1);
+        CompletableFuture<TransferResponse> pending = new CompletableFuture<>();
+        admissionControl.admitAsync(request(5L, 6L), () -> pending);
+
+        assertThrows(ServiceOverloadedException.class, () -> admissionControl.admit(request(1L, 2L), OK));
+        pending.complete(OK.get());
+
+        // Wallet 1's only token was not spent by the rejected request
+        assertThat(admissionControl.admit(request(1L, 2L), OK)).isEqualTo(OK.get());
+    }
+
+    @Test
+    void testAdmit_OnlyTransfersThatDidTheWorkFeedTheLatencyEstimate() {
+        AdmissionControl admissionControl = admissionControl(0, 1, 10);
+
+        admissionControl.admit(request(1L, 2L), () -> TransferResponse.builder().duplicate(true).build());
+        assertThrows(InsufficientBalanceException.class, () -> admissionControl.admit(request(1L, 2L), () -> {
+            throw new InsufficientBalanceException(1L);
+        }));
+        admissionControl.admitBatch(() -> "batch");
+        assertThat(noLoadLatency()).isZero();
+
+        admissionControl.admit(request(1L, 2L), OK);
+        assertThat(noLoadLatency()).isPositive();
+    }
+
+    private double noLoadLatency() {
+        return meterRegistry.get("fund_transfer.admission.no_load_latency").gauge().value();
+    }
+
+    private AdmissionControl admissionControl(double walletRate, int minLimit, int initialLimit) {
+        WalletRateLimiter walletRateLimiter = new WalletRateLimiter(null, null, meterRegistry, walletRate, 1, "local", 50);
+        return new AdmissionControl(walletRateLimiter, shardedBalanceService, meterRegistry,
+                true, initialLimit, minLimit, initialLimit, 1000);
+    }
+
+    private TransferRequest request(Long sourceWalletId, Long destinationWalletId) {
+        return new TransferRequest(sourceWalletId, destinationWalletId, Money.parse("1.00"), "key-" + sourceWalletId);
+    }
+}
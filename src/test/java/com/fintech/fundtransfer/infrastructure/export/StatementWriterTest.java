@@ -0,0 +1,45 @@
+package com.fintech.fundtransfer.infrastructure.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementWriterTest {
+
+    @Test
+    void testCsv_EscapesReferenceCodesAndMarksDirection() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StatementWriter writer = new StatementWriter(Channels.newChannel(out), StatementFormat.CSV, 7, 64);
+
+        writer.writeHeader();
+        writer.row(1, "2026-10-18T10:00:00.000001Z", 7, 8, 1000, "SUCCESS", "ref-1");
+        writer.row(2, "2026-10-18T10:00:01.000000Z", 9, 7, 250, "SUCCESS", "ref,\"2\"");
+        writer.flush();
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,created_at,source_id,destination_id,direction,amount,status,reference_code
+                1,2026-10-18T10:00:00.000001Z,7,8,DEBIT,10.00,SUCCESS,ref-1
+                2,2026-10-18T10:00:01.000000Z,9,7,CREDIT,2.50,SUCCESS,"ref,""2\"""
+                """);
+        assertThat(writer.rows()).isEqualTo(2);
+    }
+
+    @Test
+    void testNdjson_LinesLongerThanTheBufferAreWrittenWhole() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StatementWriter writer = new StatementWriter(Channels.newChannel(out), StatementFormat.NDJSON, 7, 16);
+        String referenceCode = "überweisung-\"x\"\n" + "y".repeat(100);
+
+        writer.writeHeader();
+        writer.row(1, "2026-10-18T10:00:00.000000Z", 7, 7, 100, "SUCCESS", referenceCode);
+        writer.flush();
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1,\"createdAt\":\"2026-10-18T10:00:00.000000Z\","
+                + "\"sourceId\":7,\"destinationId\":7,\"direction\":\"SELF\",\"amount\":1.00,\"status\":\"SUCCESS\","
+                + "\"referenceCode\":\"überweisung-\\\"x\\\"\\n" + "y".repeat(100) + "\"}\n");
+    }
+}
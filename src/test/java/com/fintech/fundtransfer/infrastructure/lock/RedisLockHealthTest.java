@@ -0,0 +1,79 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisMaster;
+import org.redisson.api.redisnode.RedisNodes;
+import org.redisson.api.redisnode.RedisSingle;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockHealthTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RedisSingle redisSingle;
+    @Mock
+    private RedisMaster redisMaster;
+    @Mock
+    private WalletJpaRepository walletRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DatabaseWalletLocker databaseWalletLocker;
+    private RedisLockHealth redisHealth;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        databaseWalletLocker = new DatabaseWalletLocker(walletRepository, new ContendedWallets(meterRegistry, 10, 256, 1),
+                "redis", "wait", 5000);
+        redisHealth = new RedisLockHealth(redissonClient, databaseWalletLocker, meterRegistry, "single", true, 3, 2, 100);
+        lenient().when(redissonClient.getRedisNodes(RedisNodes.SINGLE)).thenReturn(redisSingle);
+        lenient().when(redisSingle.getInstance()).thenReturn(redisMaster);
+    }
+
+    @Test
+    void testFallsBackToRowLocksAfterConsecutiveFailuresOnly() {
+        redisHealth.recordFailure(new RuntimeException("timeout"));
+        redisHealth.recordFailure(new RuntimeException("timeout"));
+        redisHealth.recordSuccess();
+        redisHealth.recordFailure(new RuntimeException("timeout"));
+        redisHealth.recordFailure(new RuntimeException("timeout"));
+        assertThat(databaseWalletLocker.isActive()).isFalse();
+
+        redisHealth.recordFailure(new RuntimeException("timeout"));
+
+        assertThat(databaseWalletLocker.isActive()).isTrue();
+        assertThat(databaseWalletLocker.getMode()).isEqualTo(WalletLockMode.REDIS);
+        assertThat(meterRegistry.get("fund_transfer.lock.redis_fallback").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testProbesTripAndRecover() {
+        when(redisMaster.ping(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(false, false, false, true, true);
+
+        redisHealth.probe();
+        redisHealth.probe();
+        redisHealth.probe();
+        assertThat(databaseWalletLocker.isRedisFallback()).isTrue();
+
+        redisHealth.probe();
+        assertThat(databaseWalletLocker.isRedisFallback()).isTrue();
+        redisHealth.probe();
+        assertThat(databaseWalletLocker.isRedisFallback()).isFalse();
+    }
+}
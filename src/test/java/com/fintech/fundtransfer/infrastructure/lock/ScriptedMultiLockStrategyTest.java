@@ -0,0 +1,107 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScriptedMultiLockStrategyTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RScript script;
+
+    private ScriptedMultiLockStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new ScriptedMultiLockStrategy(redissonClient, 1, 4, 10000, "single");
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        when(redissonClient.getId()).thenReturn("client");
+    }
+
+    @Test
+    void testTryLock_AllWalletsAndFencingTokensInOneRoundTrip() throws InterruptedException {
+        when(script.evalAsync(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.MULTI),
+                eq(List.of("wallet_lock:1", "wallet_lock:2", "wallet_fence:1", "wallet_fence:2")), eq("10000"), eq("client:-1")))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(7L, 3L)));
+
+        assertThat(strategy.tryLock(List.of(1L, 2L), -1L, 1000, 10000)).containsExactly(7L, 3L);
+        verify(script, times(1)).evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                any(), any(), any());
+    }
+
+    @Test
+    void testTryLock_BacksOffWhileContended() throws InterruptedException {
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class), any(), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(0L, 50L)))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(0L, 50L)))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(7L, 3L)));
+
+        assertThat(strategy.tryLock(List.of(1L, 2L), -1L, 1000, 10000)).containsExactly(7L, 3L);
+        verify(script, times(3)).evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                any(), any(), any());
+    }
+
+    @Test
+    void testTryLock_GivesUpAfterWaitTime() throws InterruptedException {
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class), any(), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(0L, 5000L)));
+
+        assertThat(strategy.tryLock(List.of(1L, 2L), -1L, 20, 10000)).isNull();
+    }
+
+    @Test
+    void testTryLock_ClusterLocksPerSlotAndReleasesPartialAttempt() throws InterruptedException {
+        strategy = new ScriptedMultiLockStrategy(redissonClient, 1, 4, 10000, "cluster");
+        // Wallets 1 and 2 hash to different slots, so each gets its own script
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                eq(List.of("wallet_lock:{1}", "wallet_fence:{1}")), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(0L, 50L)))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(7L)));
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                eq(List.of("wallet_lock:{2}", "wallet_fence:{2}")), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) List.of(3L)));
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                eq(List.of("wallet_lock:{2}")), any(), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) null));
+
+        assertThat(strategy.tryLock(List.of(1L, 2L), -1L, 1000, 10000)).containsExactly(7L, 3L);
+        // The first attempt took wallet 2 only and released it again
+        verify(script).evalAsync(any(RScript.Mode.class), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of("wallet_lock:{2}")), eq("client:-1"), eq("10000"), eq("redisson_lock__channel:wallet_lock:{2}"));
+    }
+
+    @Test
+    void testTryLockAsync_CancelledAttemptReleasesLocksTakenAfterwards() {
+        CompletableFuture<Object> reply = new CompletableFuture<>();
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), eq(RScript.ReturnType.MULTI), any(), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>(reply));
+        when(script.evalAsync(any(RScript.Mode.class), anyString(), eq(RScript.ReturnType.INTEGER), any(), any(), any(), any()))
+                .thenReturn(new CompletableFutureWrapper<>((Object) null));
+
+        CompletableFuture<long[]> attempt = strategy.tryLockAsync(List.of(1L, 2L), -2L, 1000, 10000);
+        assertThat(attempt).isNotDone();
+        attempt.cancel(false);
+        reply.complete(List.of(7L, 3L));
+
+        verify(script).evalAsync(any(RScript.Mode.class), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of("wallet_lock:1", "wallet_lock:2")), eq("client:-2"), eq("10000"), any(), any());
+    }
+}
@@ -0,0 +1,153 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.domain.exception.LockAcquisitionException;
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletFencingToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletLockManagerTest {
+
+    @Mock
+    private DistributedLockStrategy lockStrategy;
+    @Mock
+    private RedisLockHealth redisHealth;
+
+    private MeterRegistry meterRegistry;
+    private WalletLockManager walletLockManager;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        meterRegistry = new SimpleMeterRegistry();
+        walletLockManager = new WalletLockManager(lockStrategy, redisHealth, meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 16, 1000, 10000, 16);
+        lenient().when(lockStrategy.tryLock(anyList(), anyLong(), anyLong(), anyLong())).thenReturn(new long[] {7, 3});
+    }
+
+    @Test
+    void testAcquire_LocksRemoteInSortedOrderAndReleasesOnClose() throws InterruptedException {
+        try (WalletLocks locks = walletLockManager.acquire(2L, 1L)) {
+            assertThat(locks.getWalletIds()).containsExactly(1L, 2L);
+            assertThat(locks.getFencingTokens()).isEqualTo(new FencingTokens(Map.of(1L, 7L, 2L, 3L)));
+        }
+
+        verify(lockStrategy).tryLock(eq(List.of(1L, 2L)), eq(-1L), anyLong(), eq(10000L));
+        verify(lockStrategy).unlock(List.of(1L, 2L), -1L);
+        assertThat(meterRegistry.find("fund_transfer.lock_acquisition_time").tag("phase", "local").timer()).isNotNull();
+        assertThat(meterRegistry.find("fund_transfer.lock_acquisition_time").tag("phase", "remote").timer()).isNotNull();
+    }
+
+    @Test
+    void testAcquire_HandsRemoteLockToLocalWaiter() throws Exception {
+        WalletLocks first = walletLockManager.acquire(1L, 2L);
+
+        CompletableFuture<FencingTokens> waiter = new CompletableFuture<>();
+        Thread waitingThread = new Thread(() -> {
+            try (WalletLocks handedOff = walletLockManager.acquire(1L, 2L)) {
+                waiter.complete(handedOff.getFencingTokens());
+            } catch (Throwable t) {
+                waiter.completeExceptionally(t);
+            }
+        });
+        waitingThread.start();
+        while (waitingThread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        first.close();
+        // The lease is handed on with its fencing tokens
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo(first.getFencingTokens());
+
+        verify(lockStrategy, times(1)).tryLock(anyList(), anyLong(), anyLong(), anyLong());
+        verify(lockStrategy, times(1)).unlock(List.of(1L, 2L), -1L);
+        assertThat(meterRegistry.counter("fund_transfer.lock_handoffs").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testAcquire_RemoteFailure_ReleasesLocalLocks() throws InterruptedException {
+        when(lockStrategy.tryLock(anyList(), anyLong(), anyLong(), anyLong())).thenReturn(null).thenReturn(new long[] {7, 3});
+
+        assertThrows(LockAcquisitionException.class, () -> walletLockManager.acquire(1L, 2L));
+        verify(lockStrategy, never()).unlock(anyList(), anyLong());
+
+        try (WalletLocks locks = walletLockManager.acquire(1L, 2L)) {
+            assertThat(locks.getWalletIds()).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    void testAcquire_FailedRedisRequest_ReportedToHealth() throws InterruptedException {
+        LockAcquisitionException failure = new LockAcquisitionException("Distributed lock request failed");
+        when(lockStrategy.tryLock(anyList(), anyLong(), anyLong(), anyLong())).thenThrow(failure);
+
+        assertThrows(LockAcquisitionException.class, () -> walletLockManager.acquire(1L, 2L));
+        verify(redisHealth).recordFailure(failure);
+        verify(redisHealth, never()).recordSuccess();
+    }
+
+    @Test
+    void testRenewLeases_RenewsHeldLeasesOnly() {
+        try (WalletLocks ignored = walletLockManager.acquire(1L, 2L)) {
+            walletLockManager.renewLeases();
+        }
+        walletLockManager.renewLeases();
+
+        verify(lockStrategy, times(1)).renew(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))), eq(-1L), eq(10000L));
+    }
+
+    @Test
+    void testAcquireAsync_OwnsLocksPerAcquisitionAndRenewsUntilClosed() throws Exception {
+        when(lockStrategy.tryLockAsync(anyList(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new long[] {4, 5}));
+        when(lockStrategy.renew(anyList(), anyLong(), anyLong())).thenReturn(List.of());
+
+        WalletLocks locks = walletLockManager.acquireAsync(List.of(2L, 1L)).get(5, TimeUnit.SECONDS);
+        assertThat(locks.getFencingTokens()).isEqualTo(new FencingTokens(Map.of(1L, 4L, 2L, 5L)));
+        walletLockManager.renewLeases();
+        // Closed from another thread than the one that completed the acquisition
+        CompletableFuture.runAsync(locks::close).get(5, TimeUnit.SECONDS);
+        walletLockManager.renewLeases();
+
+        verify(lockStrategy).tryLockAsync(eq(List.of(1L, 2L)), eq(-2L), anyLong(), eq(10000L));
+        verify(lockStrategy, times(1)).renew(List.of(1L, 2L), -2L, 10000L);
+        verify(lockStrategy).unlock(List.of(1L, 2L), -2L);
+        verify(lockStrategy, never()).tryLock(anyList(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testCheckFencing_NewerTokenWritten_RejectsAndAdvancesCounter() {
+        FencingTokens held = new FencingTokens(Map.of(1L, 7L, 2L, 3L));
+
+        walletLockManager.checkFencing(held, List.of(written(1L, 7L), written(2L, 3L)));
+        LockAcquisitionException e = assertThrows(LockAcquisitionException.class,
+                () -> walletLockManager.checkFencing(held, List.of(written(1L, 7L), written(2L, 9L))));
+
+        assertThat(e.getMessage()).contains("wallet 2");
+        verify(lockStrategy).advanceFencingToken(2L, 9L);
+        assertThat(meterRegistry.counter("fund_transfer.lock_fenced").count()).isEqualTo(1.0);
+    }
+
+    private static WalletFencingToken written(Long id, Long fencingToken) {
+        return new Written(id, fencingToken);
+    }
+
+    private record Written(Long getId, Long getFencingToken) implements WalletFencingToken {
+    }
+}
@@ -0,0 +1,52 @@
+package com.fintech.fundtransfer.infrastructure.lock;
+
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class WalletLockModeEndpointTest {
+
+    @Mock
+    private WalletJpaRepository walletRepository;
+
+    private DatabaseWalletLocker databaseWalletLocker;
+    private WalletLockModeEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        databaseWalletLocker = new DatabaseWalletLocker(walletRepository, new ContendedWallets(meterRegistry, 10, 256, 1),
+                "redis", "wait", 5000);
+        endpoint = new WalletLockModeEndpoint(databaseWalletLocker);
+    }
+
+    @Test
+    void testUpdate_SwitchesModeAndKeepsUnsetSettings() {
+        endpoint.update("database", "nowait", null);
+
+        assertThat(databaseWalletLocker.getMode()).isEqualTo(WalletLockMode.DATABASE);
+        assertThat(databaseWalletLocker.getWaitPolicy()).isEqualTo(RowLockWaitPolicy.NOWAIT);
+        assertThat(databaseWalletLocker.getLockTimeoutMillis()).isEqualTo(5000);
+    }
+
+    @Test
+    void testUpdate_RejectsInvalidSettingsWithoutApplyingThem() {
+        // lock_timeout = 0 would make Postgres wait forever
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.update("database", null, 0L));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.update(null, null, -1L));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.update("none", null, null));
+
+        assertThat(databaseWalletLocker.getMode()).isEqualTo(WalletLockMode.REDIS);
+        assertThat(databaseWalletLocker.getLockTimeoutMillis()).isEqualTo(5000);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fintech.fundtransfer.infrastructure.metrics;
+
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets.ContendedWallet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContendedWalletsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContendedWallets contendedWallets;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        contendedWallets = new ContendedWallets(meterRegistry, 2, 4, 1);
+    }
+
+    @Test
+    void testHeavyHitterSurvivesMoreWalletsThanSlots() {
+        for (long walletId = 100; walletId < 200; walletId++) {
+            contendedWallets.recordLockWait(List.of(walletId), 2 * MS, false);
+            contendedWallets.recordLockWait(List.of(7L), 5 * MS, false);
+        }
+        contendedWallets.recordLockWait(List.of(7L), 0, true);
+
+        List<ContendedWallet> top = contendedWallets.current();
+
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).walletId()).isEqualTo(7L);
+        assertThat(top.get(0).lockWaits()).isEqualTo(101);
+        assertThat(top.get(0).lockTimeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void testWaitsBelowThresholdAreIgnoredAndGaugesShowLastWindowByRank() {
+        contendedWallets.recordLockWait(List.of(1L), MS / 2, false);
+        contendedWallets.recordLockWait(List.of(2L, 3L), 3 * MS, false);
+        contendedWallets.recordRetry(List.of(3L), 4 * MS);
+
+        contendedWallets.rollWindow();
+
+        assertThat(contendedWallets.current()).isEmpty();
+        assertThat(contendedWallets.lastWindow()).extracting(ContendedWallet::walletId).containsExactly(3L, 2L);
+        assertThat(meterRegistry.get("fund_transfer.contention.top_wallet").tag("rank", "1").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("fund_transfer.contention.top_wallet_seconds").tag("rank", "2").gauge().value()).isEqualTo(0.003);
+    }
+}
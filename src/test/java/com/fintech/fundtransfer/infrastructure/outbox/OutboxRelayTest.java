@@ -0,0 +1,93 @@
+package com.fintech.fundtransfer.infrastructure.outbox;
+
+import com.fintech.fundtransfer.application.dto.TransferEvent;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.infrastructure.persistence.OutboxJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxJdbcRepository outboxRepository;
+    @Mock
+    private OutboxSink sink;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(outboxRepository.partitions()).thenReturn(4);
+        relay = new OutboxRelay(outboxRepository, sink, new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry(), 2, 100, 10, 10);
+    }
+
+    @Test
+    void testDrainPartition_PublishesInOrderThenDeletes() throws Exception {
+        List<TransferEvent> events = List.of(event(7L), event(9L));
+        when(outboxRepository.claimPartition(1)).thenReturn(true);
+        when(outboxRepository.findOldest(1, 100)).thenReturn(events);
+
+        assertThat(relay.drainPartition(1)).isEqualTo(2);
+
+        InOrder inOrder = inOrder(sink, outboxRepository);
+        inOrder.verify(sink).publish(events);
+        inOrder.verify(outboxRepository).delete(List.of(7L, 9L));
+    }
+
+    @Test
+    void testDrainPartition_SkipsPartitionClaimedByAnotherRelay() throws Exception {
+        when(outboxRepository.claimPartition(2)).thenReturn(false);
+
+        assertThat(relay.drainPartition(2)).isZero();
+
+        verify(outboxRepository, never()).findOldest(anyInt(), anyInt());
+        verify(sink, never()).publish(any());
+    }
+
+    @Test
+    void testDrainPartition_SinkFailureKeepsEventsAndRollsBack() throws Exception {
+        when(outboxRepository.claimPartition(3)).thenReturn(true);
+        when(outboxRepository.findOldest(3, 100)).thenReturn(List.of(event(11L)));
+        doThrow(new IOException("disk full")).when(sink).publish(anyList());
+
+        assertThrows(IllegalStateException.class, () -> relay.drainPartition(3));
+
+        verify(outboxRepository, never()).delete(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static TransferEvent event(Long id) {
+        return TransferEvent.builder()
+                .eventId(id)
+                .walletId(1L)
+                .transactionId(100L + id)
+                .referenceCode("ref-" + id)
+                .sourceWalletId(1L)
+                .destinationWalletId(2L)
+                .amount(Money.parse("10.00"))
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.fintech.fundtransfer.infrastructure.retry;
+
+import com.fintech.fundtransfer.infrastructure.metrics.ContendedWallets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContentionAwareRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testExecute_RetriesConcurrencyFailuresAndRecordsWastedTime() {
+        ContentionAwareRetry retry = new ContentionAwareRetry(meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 4, 1, 5, 10, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(List.of(1L, 2L), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(meterRegistry.get("fund_transfer.retry.retries").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("fund_transfer.retry.wasted_time").tag("phase", "backoff").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecute_StopsWhenWalletBudgetIsSpent() {
+        // Two tokens, no refill: the third conflict on wallet 1 fails without backing off
+        ContentionAwareRetry retry = new ContentionAwareRetry(meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 10, 1, 5, 2, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(CannotAcquireLockException.class, () -> retry.execute(List.of(1L), () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("deadlock detected");
+        }));
+
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("fund_transfer.retry.exhausted").tag("reason", "wallet_budget").counter().count())
+                .isEqualTo(1);
+        // Wallet 2 has its own budget
+        assertThat(retry.execute(List.of(2L), () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void testExecute_DoesNotRetryOtherFailures() {
+        ContentionAwareRetry retry = new ContentionAwareRetry(meterRegistry, new ContendedWallets(meterRegistry, 10, 256, 1), 4, 1, 5, 10, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> retry.execute(List.of(1L), () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate reference code");
+        }));
+
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+}
@@ -2,6 +2,7 @@ package com.fintech.fundtransfer.integration;
 
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
 import com.fintech.fundtransfer.domain.model.Wallet;
 import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +10,6 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -32,8 +32,8 @@ class DeadlockPreventionIntegrationTest {
     @BeforeEach
     void setup() {
         walletRepository.deleteAll();
-        Wallet a = walletRepository.saveAndFlush(Wallet.builder().userId("A").balance(new BigDecimal("1000.00")).build());
-        Wallet b = walletRepository.saveAndFlush(Wallet.builder().userId("B").balance(new BigDecimal("1000.00")).build());
+        Wallet a = walletRepository.saveAndFlush(Wallet.builder().userId("A").balance(Money.parse("1000.00")).build());
+        Wallet b = walletRepository.saveAndFlush(Wallet.builder().userId("B").balance(Money.parse("1000.00")).build());
         walletAId = a.getId();
         walletBId = b.getId();
     }
@@ -49,7 +49,7 @@ class DeadlockPreventionIntegrationTest {
                 transferService.transferFunds(TransferRequest.builder()
                         .sourceWalletId(walletAId)
                         .destinationWalletId(walletBId)
-                        .amount(new BigDecimal("1.00"))
+                        .amount(Money.parse("1.00"))
                         .referenceCode(UUID.randomUUID().toString())
                         .build());
             }, executor);
@@ -58,7 +58,7 @@ class DeadlockPreventionIntegrationTest {
                 transferService.transferFunds(TransferRequest.builder()
                         .sourceWalletId(walletBId)
                         .destinationWalletId(walletAId)
-                        .amount(new BigDecimal("1.00"))
+                        .amount(Money.parse("1.00"))
                         .referenceCode(UUID.randomUUID().toString())
                         .build());
             }, executor);
@@ -69,7 +69,7 @@ class DeadlockPreventionIntegrationTest {
         Wallet a = walletRepository.findById(walletAId).orElseThrow();
         Wallet b = walletRepository.findById(walletBId).orElseThrow();
 
-        assertThat(a.getBalance()).isEqualByComparingTo(new BigDecimal("1000.00"));
-        assertThat(b.getBalance()).isEqualByComparingTo(new BigDecimal("1000.00"));
+        assertThat(a.getBalance()).isEqualTo(Money.parse("1000.00"));
+        assertThat(b.getBalance()).isEqualTo(Money.parse("1000.00"));
     }
 }
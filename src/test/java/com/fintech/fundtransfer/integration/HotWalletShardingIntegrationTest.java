@@ -0,0 +1,120 @@
+package com.fintech.fundtransfer.integration;
+
+import com.fintech.fundtransfer.application.dto.TransferRequest;
+import com.fintech.fundtransfer.application.service.ShardedBalanceService;
+import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.exception.InsufficientBalanceException;
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletShardJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class HotWalletShardingIntegrationTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private WalletShardJdbcRepository shardRepository;
+
+    @Autowired
+    private WalletJpaRepository walletRepository;
+
+    @Test
+    void testConcurrentCreditsAndDebits_ConserveHotWalletTotal() {
+        Wallet hot = walletRepository.saveAndFlush(Wallet.builder()
+                .userId("merchant")
+                .balance(Money.parse("500.00"))
+                .build());
+        shardedBalanceService.enableSharding(hot.getId(), 8);
+
+        List<Long> customers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            customers.add(walletRepository.saveAndFlush(Wallet.builder()
+                    .userId("customer-" + i)
+                    .balance(Money.parse("100.00"))
+                    .build()).getId());
+        }
+
+        int threads = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger credits = new AtomicInteger();
+        AtomicInteger debits = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture[threads];
+        for (int t = 0; t < threads; t++) {
+            Long customer = customers.get(t);
+            futures[t] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10; i++) {
+                    transferService.transferFunds(request(customer, hot.getId(), "5.00"));
+                    credits.incrementAndGet();
+                    try {
+                        transferService.transferFunds(request(hot.getId(), customer, "7.00"));
+                        debits.incrementAndGet();
+                    } catch (InsufficientBalanceException ignored) {
+                        // Possible once the hot wallet runs low
+                    }
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        executor.shutdown();
+
+        Money expectedHot = Money.parse("500.00")
+                .plus(Money.parse("5.00").times(credits.get()))
+                .minus(Money.parse("7.00").times(debits.get()));
+        assertThat(shardRepository.totalBalance(hot.getId())).isEqualTo(expectedHot.minorUnits());
+
+        Money customersTotal = customers.stream()
+                .map(id -> walletRepository.findById(id).orElseThrow().getBalance())
+                .reduce(Money.ZERO, Money::plus);
+        assertThat(customersTotal.plus(expectedHot)).isEqualTo(Money.parse("2500.00"));
+    }
+
+    @Test
+    void testDebit_RebalancesShardsWhenNoSingleShardCoversAmount() {
+        Wallet hot = walletRepository.saveAndFlush(Wallet.builder()
+                .userId("merchant-2")
+                .balance(Money.parse("80.00"))
+                .build());
+        Wallet customer = walletRepository.saveAndFlush(Wallet.builder()
+                .userId("customer-x")
+                .balance(Money.parse("0.00"))
+                .build());
+        shardedBalanceService.enableSharding(hot.getId(), 8);
+
+        // 10.00 per shard: only a rebalance across all shards can pay 75.00
+        var response = transferService.transferFunds(request(hot.getId(), customer.getId(), "75.00"));
+
+        assertThat(response.getSourceWalletBalanceAfter()).isEqualTo(Money.parse("5.00"));
+        assertThrows(InsufficientBalanceException.class,
+                () -> transferService.transferFunds(request(hot.getId(), customer.getId(), "6.00")));
+        assertThat(shardRepository.totalBalance(hot.getId())).isEqualTo(500L);
+    }
+
+    private static TransferRequest request(Long source, Long destination, String amount) {
+        return TransferRequest.builder()
+                .sourceWalletId(source)
+                .destinationWalletId(destination)
+                .amount(Money.parse(amount))
+                .referenceCode(UUID.randomUUID().toString())
+                .build();
+    }
+}
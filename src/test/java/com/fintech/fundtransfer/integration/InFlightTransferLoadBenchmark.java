@@ -0,0 +1,96 @@
+package com.fintech.fundtransfer.integration;
+
+import com.fintech.fundtransfer.domain.model.Money;
+import com.fintech.fundtransfer.domain.model.Wallet;
+import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.AbstractDoubleAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires {@value #REQUESTS} transfers at once over HTTP against a few hot wallet pairs and checks the peak of
+ * {@code fund_transfer.in_flight}, i.e. how many transfers the server held concurrently while they waited for
+ * wallet locks. Subclasses run it with platform and with virtual request threads.
+ */
+abstract class InFlightTransferLoadBenchmark {
+
+    static final int REQUESTS = 1000;
+    private static final int WALLET_PAIRS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WalletJpaRepository walletRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Wallet[]> pairs = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        walletRepository.deleteAll();
+        for (int i = 0; i < WALLET_PAIRS; i++) {
+            pairs.add(new Wallet[]{
+                    walletRepository.saveAndFlush(Wallet.builder().userId("load-src-" + i).balance(Money.parse("1000000.00")).build()),
+                    walletRepository.saveAndFlush(Wallet.builder().userId("load-dst-" + i).balance(Money.parse("0.00")).build())
+            });
+        }
+    }
+
+    abstract String mode();
+
+    @Test
+    void testPeakInFlightTransfers() {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            Wallet[] pair = pairs.get(i % WALLET_PAIRS);
+            String body = String.format("{\"sourceWalletId\":%d,\"destinationWalletId\":%d,\"amount\":1.00,\"referenceCode\":\"%s\"}",
+                    pair[0].getId(), pair[1].getId(), UUID.randomUUID());
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/transfers"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> error == null && response.statusCode() == 200
+                            ? ok.incrementAndGet() : failed.incrementAndGet());
+        }
+        CompletableFuture.allOf(futures).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        double peak = meterRegistry.get("fund_transfer.in_flight_peak").gauge().value();
+        String summary = String.format("%s threads: peak %.0f in-flight transfers of %d requests (%d ok, %d failed) in %d ms",
+                mode(), peak, REQUESTS, ok.get(), failed.get(), elapsedMillis);
+
+        assertThat(ok.get() + failed.get()).as(summary).isEqualTo(REQUESTS);
+        assertPeak(assertThat(peak).as(summary));
+    }
+
+    abstract void assertPeak(AbstractDoubleAssert<?> peak);
+}
@@ -0,0 +1,21 @@
+package com.fintech.fundtransfer.integration;
+
+import org.assertj.core.api.AbstractDoubleAssert;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=false", "server.tomcat.threads.max=200",
+                "fund-transfer.admission.enabled=false"})
+class PlatformThreadInFlightLoadIntegrationTest extends InFlightTransferLoadBenchmark {
+
+    @Override
+    String mode() {
+        return "Platform";
+    }
+
+    @Override
+    void assertPeak(AbstractDoubleAssert<?> peak) {
+        // Every in-flight transfer occupies a Tomcat worker thread
+        peak.isLessThanOrEqualTo(200);
+    }
+}
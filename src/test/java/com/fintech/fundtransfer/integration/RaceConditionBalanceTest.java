@@ -2,6 +2,7 @@ package com.fintech.fundtransfer.integration;
 
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
 import com.fintech.fundtransfer.domain.model.Wallet;
 import com.fintech.fundtransfer.infrastructure.persistence.TransactionLogJpaRepository;
 import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
@@ -10,7 +11,6 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,20 +35,20 @@ class RaceConditionBalanceTest {
 
     @Test
     void testOverdraftRaceCondition() {
-        Wallet source = walletRepository.saveAndFlush(Wallet.builder().userId("race-1").balance(new BigDecimal("100.00")).build());
-        Wallet dest = walletRepository.saveAndFlush(Wallet.builder().userId("race-2").balance(new BigDecimal("0.00")).build());
+        Wallet source = walletRepository.saveAndFlush(Wallet.builder().userId("race-1").balance(Money.parse("100.00")).build());
+        Wallet dest = walletRepository.saveAndFlush(Wallet.builder().userId("race-2").balance(Money.parse("0.00")).build());
 
         TransferRequest req1 = TransferRequest.builder()
                 .sourceWalletId(source.getId())
                 .destinationWalletId(dest.getId())
-                .amount(new BigDecimal("60.00"))
+                .amount(Money.parse("60.00"))
                 .referenceCode("ref-race-1")
                 .build();
 
         TransferRequest req2 = TransferRequest.builder()
                 .sourceWalletId(source.getId())
                 .destinationWalletId(dest.getId())
-                .amount(new BigDecimal("60.00"))
+                .amount(Money.parse("60.00"))
                 .referenceCode("ref-race-2")
                 .build();
 
@@ -61,7 +61,7 @@ class RaceConditionBalanceTest {
         }
 
         Wallet finalSource = walletRepository.findById(source.getId()).orElseThrow();
-        assertThat(finalSource.getBalance()).isEqualByComparingTo(new BigDecimal("40.00"));
-        assertThat(finalSource.getBalance()).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        assertThat(finalSource.getBalance()).isEqualTo(Money.parse("40.00"));
+        assertThat(finalSource.getBalance()).isGreaterThanOrEqualTo(Money.ZERO);
     }
 }
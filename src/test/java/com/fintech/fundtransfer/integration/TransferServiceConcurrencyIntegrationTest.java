@@ -2,6 +2,7 @@ package com.fintech.fundtransfer.integration;
 
 import com.fintech.fundtransfer.application.dto.TransferRequest;
 import com.fintech.fundtransfer.application.service.TransferService;
+import com.fintech.fundtransfer.domain.model.Money;
 import com.fintech.fundtransfer.domain.model.Wallet;
 import com.fintech.fundtransfer.infrastructure.persistence.WalletJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +10,6 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -35,11 +35,11 @@ class TransferServiceConcurrencyIntegrationTest {
         walletRepository.deleteAll();
         Wallet source = walletRepository.saveAndFlush(Wallet.builder()
                 .userId("user-1")
-                .balance(new BigDecimal("1000.00"))
+                .balance(Money.parse("1000.00"))
                 .build());
         Wallet dest = walletRepository.saveAndFlush(Wallet.builder()
                 .userId("user-2")
-                .balance(new BigDecimal("0.00"))
+                .balance(Money.parse("0.00"))
                 .build());
         sourceWalletId = source.getId();
         destWalletId = dest.getId();
@@ -48,7 +48,7 @@ class TransferServiceConcurrencyIntegrationTest {
     @Test
     void testConcurrentTransfers() {
         int concurrencyCount = 50;
-        BigDecimal transferAmount = new BigDecimal("10.00");
+        Money transferAmount = Money.parse("10.00");
         ExecutorService executor = Executors.newFixedThreadPool(concurrencyCount);
         
         CompletableFuture<?>[] futures = new CompletableFuture[concurrencyCount];
@@ -77,12 +77,11 @@ class TransferServiceConcurrencyIntegrationTest {
         Wallet dest = walletRepository.findById(destWalletId).orElseThrow();
 
         // Assert consistency
-        BigDecimal expectedSourceBalance = new BigDecimal("1000.00")
-                .subtract(transferAmount.multiply(new BigDecimal(successCount.get())));
-        BigDecimal expectedDestBalance = transferAmount.multiply(new BigDecimal(successCount.get()));
+        Money expectedSourceBalance = Money.parse("1000.00").minus(transferAmount.times(successCount.get()));
+        Money expectedDestBalance = transferAmount.times(successCount.get());
 
-        assertThat(source.getBalance()).isEqualByComparingTo(expectedSourceBalance);
-        assertThat(dest.getBalance()).isEqualByComparingTo(expectedDestBalance);
-        assertThat(source.getBalance()).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        assertThat(source.getBalance()).isEqualTo(expectedSourceBalance);
+        assertThat(dest.getBalance()).isEqualTo(expectedDestBalance);
+        assertThat(source.getBalance()).isGreaterThanOrEqualTo(Money.ZERO);
     }
 }
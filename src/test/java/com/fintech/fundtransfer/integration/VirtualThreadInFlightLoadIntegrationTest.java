@@ -0,0 +1,24 @@
+package com.fintech.fundtransfer.integration;
+
+import org.assertj.core.api.AbstractDoubleAssert;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "server.tomcat.threads.max=200",
+                "fund-transfer.admission.enabled=false"})
+class VirtualThreadInFlightLoadIntegrationTest extends InFlightTransferLoadBenchmark {
+
+    @Override
+    String mode() {
+        return "Virtual";
+    }
+
+    @Override
+    void assertPeak(AbstractDoubleAssert<?> peak) {
+        // Requests parked on wallet locks no longer hold one of the 200 worker threads
+        peak.isGreaterThan(200);
+    }
+}